@@ -0,0 +1,832 @@
+import cs2030s.fp.Codec;
+import cs2030s.fp.InfiniteList;
+import cs2030s.fp.IntInfiniteList;
+import cs2030s.fp.Lazy;
+import cs2030s.fp.LongInfiniteList;
+import cs2030s.fp.Maybe;
+import cs2030s.fp.Metrics;
+import cs2030s.fp.Producer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Benchmarks for the hot paths of 'cs2030s.fp'.  Run with
+ * 'java Benchmark [section...]' after compiling, where each 'section'
+ * selects the sections whose key contains it (all are run if none are
+ * given).  Sizes go up to the 'bench.maxSize' system property, eg.
+ * 'java -Xmx8g -Dbench.maxSize=10000000 Benchmark list'.  The numbers are
+ * only meant to be compared between runs on the same machine.
+ */
+class Benchmark {
+  /**
+   * Main method for Benchmark.
+   *
+   * @param args The keys of the sections to run, or none to run all.
+   */
+  public static void main(String[] args) {
+    CS2030SBench b = new CS2030SBench(args);
+
+    b.section("lazy", "Lazy.of vs Lazy.concurrent get() (ops = get() calls)", () -> {
+      Benchmark.lazyGet(b, "Lazy.of", Lazy::of);
+      Benchmark.lazyGet(b, "Lazy.concurrent", Lazy::concurrent);
+    });
+    b.section("chain", "Lazy map/flatMap/combine chains, built then evaluated (ops = links)",
+        () -> Benchmark.lazyChains(b));
+    b.section("maybe", "Maybe map/filter/flatMap chains (ops = chains)",
+        () -> Benchmark.maybeChains(b));
+    b.section("list", "InfiniteList operations by size (ops = elements)",
+        () -> Benchmark.listOperations(b));
+    b.section("skip", "InfiniteList head()/tail() over filtered-out elements (ops = skipped slots)",
+        () -> Benchmark.skipFiltered(b));
+    b.section("walk", "InfiniteList walks over evaluated nodes (ops = elements)",
+        () -> Benchmark.walkEvaluated(b));
+    b.section("fusion", "6-stage map/filter pipeline, fresh traversal (ops = source elements)",
+        () -> Benchmark.fusedPipeline(b));
+    b.section("heap", "Heap retained by a traversed 5-stage map/filter pipeline",
+        () -> Benchmark.retainedPipeline(b));
+    b.section("chunked", "Node-per-element vs chunked InfiniteList (ops = source elements)",
+        () -> Benchmark.chunkedLists(b));
+    b.section("primitive", "InfiniteList<Integer> vs IntInfiniteList (ops = source elements)",
+        () -> Benchmark.primitiveLists(b));
+    b.section("parallel", "parallelReduce with a CPU-heavy map (ops = elements)",
+        () -> Benchmark.parallelReduce(b));
+    b.section("metrics", "Instrumented hot paths, metrics "
+        + (Metrics.getMXBean().isEnabled() ? "enabled" : "disabled") + " (ops = elements)",
+        () -> Benchmark.instrumentedPaths(b));
+    b.section("prefetch", "prefetch with a waiting producer and a busy consumer (ops = elements)",
+        () -> Benchmark.prefetchedLists(b));
+    b.section("mapParallel", "map vs mapParallel with a 1 ms lookup (ops = elements)",
+        () -> Benchmark.parallelMaps(b));
+    b.section("records", "Reading a file's lines, BufferedReader vs mapped (ops = lines)",
+        () -> Benchmark.fileRecords(b));
+    b.section("snapshot", "snapshot and load of an evaluated prefix (ops = elements)",
+        () -> Benchmark.snapshots(b));
+    b.section("get", "Deep lookups into an evaluated 1M-element prefix (ops = lookups)",
+        () -> Benchmark.deepLookups(b));
+    b.section("flatMap", "flatMap vs toList() over inner lists (ops = elements)",
+        () -> Benchmark.flatMaps(b));
+    b.section("zipWith", "zipWith of two lists, without and with an executor (ops = elements)",
+        () -> Benchmark.zippedLists(b));
+    b.section("find", "Short-circuiting terminals vs filter/takeWhile idioms (ops = elements)",
+        () -> Benchmark.shortCircuits(b));
+    b.section("sized", "Terminals on limit(10M) lists, sized or only bounded (ops = elements)",
+        () -> Benchmark.sizedLists(b));
+  }
+
+  /**
+   * Benchmarks cold and warm 'get' calls on Lazys created by 'factory', first
+   * on a single thread and then with 4 threads sharing the same instances.
+   *
+   * @param b The benchmark helper.
+   * @param name The name of the factory.
+   * @param factory Creates a Lazy with delayed evaluation from a producer.
+   */
+  private static void lazyGet(CS2030SBench b, String name,
+      Function<Producer<Integer>, Lazy<Integer>> factory) {
+    int size = 1_000_000;
+    b.measure(name + "(..).get(), cold", size, () -> {
+      long sum = 0;
+      for (int x = 0; x < size; x++) {
+        int value = x;
+        sum += factory.apply(() -> value).get();
+      }
+      return sum;
+    });
+
+    List<Lazy<Integer>> cells = new ArrayList<>();
+    for (int x = 0; x < size; x++) {
+      int value = x;
+      cells.add(factory.apply(() -> value));
+    }
+    b.measure(name + "(..).get(), warm", size, () -> {
+      long sum = 0;
+      for (Lazy<Integer> cell : cells) {
+        sum += cell.get();
+      }
+      return sum;
+    });
+
+    int threads = 4;
+    b.measure(name + "(..).get(), warm, " + threads + " threads", (long) threads * size, () -> {
+      List<Thread> workers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        Thread worker = new Thread(() -> {
+          long sum = 0;
+          for (Lazy<Integer> cell : cells) {
+            sum += cell.get();
+          }
+        });
+        workers.add(worker);
+        worker.start();
+      }
+      for (Thread worker : workers) {
+        try {
+          worker.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return workers;
+    });
+  }
+
+  /**
+   * Benchmarks building and evaluating chains of 'map', 'flatMap' and
+   * 'combine' of a few depths, the deepest of which would overflow the stack
+   * if evaluated recursively.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void lazyChains(CS2030SBench b) {
+    for (int depth : new int[] {1, 4, 16, 1_000_000}) {
+      b.measure("Lazy.of(() -> 0).map(x -> x + 1) x " + depth + ", get()", depth, () -> {
+        Lazy<Integer> lazy = Lazy.of(() -> CS2030SBench.probe(0));
+        for (int i = 0; i < depth; i++) {
+          lazy = lazy.map(x -> x + 1);
+        }
+        return lazy.get();
+      });
+      b.measure("Lazy.of(() -> 0).flatMap(x -> Lazy.of(x + 1)) x " + depth + ", get()", depth,
+          () -> {
+            Lazy<Integer> lazy = Lazy.of(() -> CS2030SBench.probe(0));
+            for (int i = 0; i < depth; i++) {
+              lazy = lazy.flatMap(x -> Lazy.of(x + 1));
+            }
+            return lazy.get();
+          });
+      b.measure("Lazy.of(() -> 0).combine(Lazy.of(1), Integer::sum) x " + depth + ", get()",
+          depth, () -> {
+            Lazy<Integer> lazy = Lazy.of(() -> CS2030SBench.probe(0));
+            Lazy<Integer> one = Lazy.of(1);
+            for (int i = 0; i < depth; i++) {
+              lazy = lazy.combine(one, Integer::sum);
+            }
+            return lazy.get();
+          });
+    }
+  }
+
+  /**
+   * Benchmarks chains of 'Maybe' operations.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void maybeChains(CS2030SBench b) {
+    b.measure("Maybe.some(x).map.map.map", 1, () -> Maybe.some(1)
+        .map(x -> x + 1)
+        .map(x -> x * 2)
+        .map(x -> CS2030SBench.probe(x - 1)));
+    b.measure("Maybe.some(x).filter.filter.filter", 1, () -> Maybe.some(1)
+        .filter(x -> x > 0)
+        .filter(x -> x < 10)
+        .filter(x -> CS2030SBench.probe(x) % 2 == 1));
+    b.measure("Maybe.some(x).flatMap.flatMap.flatMap", 1, () -> Maybe.some(1)
+        .flatMap(x -> Maybe.some(x + 1))
+        .flatMap(x -> Maybe.of(x * 2))
+        .flatMap(x -> Maybe.some(CS2030SBench.probe(x - 1))));
+    b.measure("Maybe.none().map.filter.flatMap.orElse", 1, () -> Maybe.<Integer>none()
+        .map(x -> x + 1)
+        .filter(x -> x > 0)
+        .flatMap(x -> Maybe.some(x * 2))
+        .orElse(0));
+  }
+
+  /**
+   * Benchmarks each InfiniteList operation over 'iterate' and 'generate'
+   * sources, for each of 'CS2030SBench.sizes()'.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void listOperations(CS2030SBench b) {
+    for (int size : CS2030SBench.sizes()) {
+      b.measure("iterate(..).limit(" + size + ").count", size,
+          () -> Benchmark.iterated().limit(size).count());
+      b.measure("generate(..).limit(" + size + ").count", size,
+          () -> Benchmark.generated().limit(size).count());
+      b.measure("iterate(..).map(..).limit(" + size + ").count", size,
+          () -> Benchmark.iterated().map(x -> x * 2).limit(size).count());
+      b.measure("iterate(..).filter(..).limit(" + size + ").count", size,
+          () -> Benchmark.iterated().filter(x -> x % 2 == 0).limit(size / 2).count());
+      b.measure("iterate(..).takeWhile(x < " + size + ").count", size,
+          () -> Benchmark.iterated().takeWhile(x -> x < size).count());
+      b.measure("iterate(..).limit(" + size + ").reduce", size,
+          () -> Benchmark.iterated().limit(size).reduce(0L, (x, y) -> x + y));
+      b.measure("generate(..).map(..).filter(..).limit(" + size + ").reduce", size,
+          () -> Benchmark.generated().map(x -> x * 2).filter(x -> x % 4 == 0)
+              .limit(size / 2).reduce(0L, (x, y) -> x + y));
+      b.measure("iterate(..).limit(" + size + ").toList", size,
+          () -> Benchmark.iterated().limit(size).toList());
+    }
+  }
+
+  /**
+   * Returns the naturals, probing the stack depth as each is evaluated.
+   *
+   * @return The InfiniteList 0, 1, 2, ...
+   */
+  private static InfiniteList<Integer> iterated() {
+    return InfiniteList.iterate(0, x -> CS2030SBench.probe(x + 1));
+  }
+
+  /**
+   * Returns the naturals from a stateful producer, probing the stack depth as
+   * each is evaluated.
+   *
+   * @return The InfiniteList 0, 1, 2, ...
+   */
+  private static InfiniteList<Integer> generated() {
+    int[] next = new int[1];
+    return InfiniteList.generate(() -> CS2030SBench.probe(next[0]++));
+  }
+
+  /**
+   * Benchmarks how fast 'head' and 'tail' skip over filtered-out elements.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void skipFiltered(CS2030SBench b) {
+    for (int gap : new int[] {1_000, 10_000, 100_000}) {
+      b.measure("iterate(1, x -> x + 1).filter(x -> x % " + gap + " == 0).head()", gap,
+          () -> InfiniteList.iterate(1, x -> x + 1).filter(x -> x % gap == 0).head());
+      b.measure("iterate(1, x -> x + 1).filter(x -> x % " + gap + " == 0).tail()", 2L * gap,
+          () -> InfiniteList.iterate(1, x -> x + 1).filter(x -> x % gap == 0).tail().head());
+    }
+  }
+
+  /**
+   * Benchmarks walking down a list whose elements have all been evaluated.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void walkEvaluated(CS2030SBench b) {
+    for (int size : new int[] {1_000, 100_000}) {
+      InfiniteList<Integer> evaluated = InfiniteList.iterate(0, x -> x + 1)
+          .map(x -> x * 2)
+          .filter(x -> x % 3 != 0)
+          .limit(size);
+      evaluated.count();
+      b.measure("iterate(..).map.filter.limit(" + size + "), head()/tail() walk", size, () -> {
+        long sum = 0;
+        for (InfiniteList<Integer> curr = evaluated; !curr.isSentinel(); curr = curr.tail()) {
+          sum += curr.head();
+        }
+        return sum;
+      });
+      b.measure("iterate(..).map.filter.limit(" + size + "), iterator() walk", size, () -> {
+        long sum = 0;
+        for (Integer x : evaluated) {
+          sum += x;
+        }
+        return sum;
+      });
+      b.measure("iterate(..).map.filter.limit(" + size + "), reduce", size,
+          () -> evaluated.reduce(0L, (x, y) -> x + y));
+    }
+  }
+
+  /**
+   * Benchmarks a fresh traversal of a 6-stage map/filter pipeline.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void fusedPipeline(CS2030SBench b) {
+    for (int size : new int[] {1_000, 100_000}) {
+      b.measure("iterate(..).map.filter.map.filter.map.map.limit(" + size + ").count", size,
+          () -> InfiniteList.iterate(0, x -> x + 1)
+              .map(x -> x + 1)
+              .filter(x -> x % 5 != 0)
+              .map(x -> x * 3)
+              .filter(x -> x % 2 == 0)
+              .map(x -> x - 1)
+              .map(x -> x / 2)
+              .limit(size * 2 / 5)
+              .count());
+    }
+  }
+
+  /**
+   * Measures the heap retained by the last list of a traversed pipeline.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void retainedPipeline(CS2030SBench b) {
+    for (int size : new int[] {100_000, 1_000_000}) {
+      b.retained("iterate(..).map.filter.map.filter.map.limit(" + size + "), traversed", size,
+          () -> {
+            InfiniteList<Integer> last = InfiniteList.iterate(0, x -> x + 1)
+                .map(x -> x + 1)
+                .filter(x -> x % 2 == 0)
+                .map(x -> x * 3)
+                .filter(x -> x % 4 == 0)
+                .map(x -> x - 1)
+                .limit(size);
+            last.count();
+            return last;
+          });
+    }
+  }
+
+  /**
+   * Benchmarks the node-per-element layout against chunked lists of a few
+   * chunk sizes, by traversal throughput and retained heap.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void chunkedLists(CS2030SBench b) {
+    int size = 1_000_000;
+    for (int chunkSize : new int[] {0, 64, 1024}) {
+      String name = chunkSize == 0
+          ? "iterate(0, x -> x + 1)"
+          : "iterate(0, x -> x + 1, " + chunkSize + ")";
+      b.measure(name + ".map.filter.limit(" + size + ").reduce", size,
+          () -> Benchmark.naturals(chunkSize).map(x -> x * 3).filter(x -> x % 2 == 0)
+              .limit(size / 2).reduce(0L, (x, y) -> x + y));
+      b.measure(name + ".limit(" + size + ") iterator() walk", size, () -> {
+        long sum = 0;
+        for (Integer x : Benchmark.naturals(chunkSize).limit(size)) {
+          sum += x;
+        }
+        return sum;
+      });
+      b.retained(name + ".map.filter.limit(" + size + "), traversed", size, () -> {
+        InfiniteList<Integer> list = Benchmark.naturals(chunkSize).map(x -> x * 3)
+            .filter(x -> x % 2 == 0).limit(size / 2);
+        list.count();
+        return list;
+      });
+    }
+  }
+
+  /**
+   * Returns the naturals, chunked by 'chunkSize' unless it's 0.
+   *
+   * @param chunkSize The chunk size, or 0 for the node-per-element layout.
+   * @return The InfiniteList 0, 1, 2, ...
+   */
+  private static InfiniteList<Integer> naturals(int chunkSize) {
+    return chunkSize == 0
+        ? InfiniteList.iterate(0, x -> x + 1)
+        : InfiniteList.iterate(0, x -> x + 1, chunkSize);
+  }
+
+  /**
+   * Benchmarks the boxed InfiniteList against the primitive-specialised ones.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void primitiveLists(CS2030SBench b) {
+    for (int size : new int[] {1_000, 1_000_000}) {
+      b.measure("InfiniteList.iterate(..).map.filter.limit(" + size + ").reduce", size,
+          () -> InfiniteList.iterate(0, x -> x + 1).map(x -> x * 3).filter(x -> x % 2 == 0)
+              .limit(size / 2).reduce(0, (x, y) -> x + y));
+      b.measure("IntInfiniteList.iterate(..).map.filter.limit(" + size + ").sum", size,
+          () -> IntInfiniteList.iterate(0, x -> x + 1).map(x -> x * 3).filter(x -> x % 2 == 0)
+              .limit(size / 2).sum());
+      b.measure("InfiniteList.iterate(..).limit(" + size + ").count", size,
+          () -> InfiniteList.iterate(0L, x -> x + 1).limit(size).count());
+      b.measure("LongInfiniteList.iterate(..).limit(" + size + ").count", size,
+          () -> LongInfiniteList.iterate(0, x -> x + 1).limit(size).count());
+    }
+  }
+
+  /**
+   * Benchmarks 'parallelReduce' on 1 up to all the available cores.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void parallelReduce(CS2030SBench b) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    b.measure("iterate(..).limit(20_000).map(score).reduce", 20_000,
+        () -> InfiniteList.iterate(0, x -> x + 1).limit(20_000).map(Benchmark::score)
+            .reduce(0L, (x, y) -> x + y));
+    for (int parallelism = 1; parallelism <= cores;
+        parallelism = parallelism < cores ? Math.min(parallelism * 2, cores) : cores + 1) {
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      b.measure("iterate(..).limit(20_000).map(score).parallelReduce, " + parallelism + " cores",
+          20_000,
+          () -> InfiniteList.iterate(0, x -> x + 1).limit(20_000).map(Benchmark::score)
+              .parallelReduce(0L, (x, y) -> x + y, (x, y) -> x + y, pool));
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Benchmarks the paths that record 'Metrics', to be compared between runs
+   * with and without '-Dcs2030s.fp.metrics=true'.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void instrumentedPaths(CS2030SBench b) {
+    int size = 100_000;
+    List<Lazy<Integer>> cells = new ArrayList<>();
+    for (int x = 0; x < size; x++) {
+      cells.add(Lazy.of(x));
+    }
+    b.measure("Lazy.of(x).get(), evaluated", size, () -> {
+      long sum = 0;
+      for (Lazy<Integer> cell : cells) {
+        sum += cell.get();
+      }
+      return sum;
+    });
+    b.measure("Lazy.of(() -> x).map(..).map(..).get()", size, () -> {
+      long sum = 0;
+      for (int x = 0; x < size; x++) {
+        int value = x;
+        sum += Lazy.of(() -> value).map(y -> y + 1).map(y -> y * 2).get();
+      }
+      return sum;
+    });
+    b.measure("iterate(..).filter(..).limit(" + size + ").reduce", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).filter(x -> x % 2 == 0).limit(size / 2)
+            .reduce(0L, (x, y) -> x + y));
+    b.measure("iterate(..).filter(..).limit(" + size + ").iterator()", size, () -> {
+      long sum = 0;
+      for (int x : InfiniteList.iterate(0, y -> y + 1).filter(y -> y % 2 == 0).limit(size / 2)) {
+        sum += x;
+      }
+      return sum;
+    });
+    b.measure("iterate(..).filter(..).head(), " + size + " skipped", size,
+        () -> InfiniteList.iterate(1, x -> x + 1).filter(x -> x % size == 0).head());
+  }
+
+  /**
+   * Benchmarks consuming a list whose producer waits 200 us per element (eg.
+   * on I/O) while the consumer works for 200 us per element, without and
+   * with 'prefetch' of a few depths on a single background thread.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void prefetchedLists(CS2030SBench b) {
+    int size = 1_000;
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    b.measure("generate(fetch).limit(" + size + ").map(work).reduce", size,
+        () -> InfiniteList.generate(Benchmark::fetch).limit(size).map(Benchmark::work)
+            .reduce(0L, (x, y) -> x + y));
+    for (int depth : new int[] {1, 4, 16}) {
+      b.measure("generate(fetch).limit(" + size + ").prefetch(" + depth + ").map(work).reduce",
+          size,
+          () -> InfiniteList.generate(Benchmark::fetch).limit(size).prefetch(depth, executor)
+              .map(Benchmark::work).reduce(0L, (x, y) -> x + y));
+    }
+    executor.shutdown();
+  }
+
+  /**
+   * Benchmarks 'map' against 'mapParallel' with a few in-flight windows, for
+   * a transformer that waits 1 ms per element like a remote lookup.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void parallelMaps(CS2030SBench b) {
+    int size = 500;
+    b.measure("iterate(..).limit(" + size + ").map(lookup).reduce", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).limit(size).map(Benchmark::lookup)
+            .reduce(0L, (x, y) -> x + y));
+    for (int maxInFlight : new int[] {1, 4, 16, 64}) {
+      b.measure("iterate(..).limit(" + size + ").mapParallel(lookup, " + maxInFlight
+          + ").reduce", size,
+          () -> InfiniteList.iterate(0, x -> x + 1).limit(size)
+              .mapParallel(Benchmark::lookup, maxInFlight).reduce(0L, (x, y) -> x + y));
+    }
+  }
+
+  /**
+   * Benchmarks counting the characters of a 1M-line file of non-empty lines
+   * read via a BufferedReader wrapped in 'generate' and 'takeWhile', against
+   * 'lines' and 'records' over the memory-mapped file.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void fileRecords(CS2030SBench b) {
+    int size = 1_000_000;
+    Path file;
+    try {
+      file = Files.createTempFile("Benchmark", ".txt");
+      Files.write(file, InfiniteList.iterate(0, x -> x + 1).limit(size)
+          .map(x -> "record-" + x).toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    b.measure("generate(reader::readLine).takeWhile(..).map(length).reduce", size, () -> {
+      try (BufferedReader reader = Files.newBufferedReader(file)) {
+        return InfiniteList.generate(() -> Benchmark.readLine(reader))
+            .takeWhile(line -> !line.isEmpty()).map(String::length)
+            .reduce(0L, (x, y) -> x + y);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    b.measure("lines(file).map(length).reduce", size,
+        () -> Benchmark.mapped(file).map(String::length).reduce(0L, (x, y) -> x + y));
+    b.measure("records(file, remaining).reduce", size, () -> {
+      try {
+        return InfiniteList.records(file, bytes -> bytes.remaining())
+            .reduce(0L, (x, y) -> x + y);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    try {
+      Files.delete(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Benchmarks writing a 1M-element evaluated prefix with 'snapshot', and
+   * reading it back with 'load', then walking the loaded list.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void snapshots(CS2030SBench b) {
+    int size = 1_000_000;
+    InfiniteList<Long> evaluated = InfiniteList.iterate(0L, x -> x + 1);
+    evaluated.limit(size - 1).count();
+    try {
+      Path file = Files.createTempFile("Benchmark", ".bin");
+      b.measure("iterate(..).snapshot(file, longs), " + size + " evaluated", size,
+          () -> Benchmark.unchecked(() -> evaluated.snapshot(file, Codec.longs())));
+      b.measure("load(file, longs, x -> x + 1)", size,
+          () -> Benchmark.unchecked(() -> InfiniteList.load(file, Codec.longs(), x -> x + 1)));
+      b.measure("load(file, longs, x -> x + 1).limit(" + size + ").count", size,
+          () -> Benchmark.unchecked(() -> InfiniteList.load(file, Codec.longs(), x -> x + 1))
+              .limit(size).count());
+      System.out.println("snapshot size: " + Files.size(file) + " bytes");
+      Files.delete(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Benchmarks reaching the 1M-th element of a filtered list by chaining
+   * 'tail' against 'get', on a fresh list and on an evaluated list, and
+   * then repeated 'get's into the evaluated list, which is indexed by then.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void deepLookups(CS2030SBench b) {
+    int size = 1_000_000;
+    b.measure("fresh list, tail() x " + size + ", then head()", 1, () -> {
+      InfiniteList<Integer> curr = InfiniteList.iterate(0, x -> x + 1).filter(x -> x % 2 == 0);
+      for (int i = 0; i < size; i++) {
+        curr = curr.tail();
+      }
+      return curr.head();
+    });
+    b.measure("fresh list, get(" + size + ")", 1,
+        () -> InfiniteList.iterate(0, x -> x + 1).filter(x -> x % 2 == 0).get(size));
+    InfiniteList<Integer> evens = InfiniteList.iterate(0, x -> x + 1).filter(x -> x % 2 == 0);
+    evens.get(size);
+    b.measure("evaluated list, tail() x " + size + ", then head()", 1, () -> {
+      InfiniteList<Integer> curr = evens;
+      for (int i = 0; i < size; i++) {
+        curr = curr.tail();
+      }
+      return curr.head();
+    });
+    b.measure("evaluated list, get(" + size + " - i * 100) x 1000", 1_000, () -> {
+      long sum = 0;
+      for (int i = 0; i < 1_000; i++) {
+        sum += evens.get(size - i * 100);
+      }
+      return sum;
+    });
+  }
+
+  /**
+   * Benchmarks concatenating inner lists with 'flatMap', against emulating
+   * it with 'toList' on each inner list, for small inner lists and for
+   * large ones of which only a few elements are needed, then skipping
+   * inner lists that are all empty.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void flatMaps(CS2030SBench b) {
+    int size = 100_000;
+    b.measure("limit(1000).map(x -> inner(x).toList()).reduce(sum of lists)", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).limit(size / 100)
+            .map(x -> InfiniteList.iterate(x, y -> y + 1).limit(100).toList())
+            .reduce(0L, (sum, list) -> {
+              for (int x : list) {
+                sum += x;
+              }
+              return sum;
+            }));
+    b.measure("flatMap(x -> inner(x)).limit(" + size + ").reduce", size,
+        () -> InfiniteList.iterate(0, x -> x + 1)
+            .flatMap(x -> InfiniteList.iterate(x, y -> y + 1).limit(100)).limit(size)
+            .reduce(0L, (x, y) -> x + y));
+    b.measure("map(x -> inner(x, " + size + ").toList()).head().subList(0, 100)", 100,
+        () -> InfiniteList.iterate(0, x -> x + 1)
+            .map(x -> InfiniteList.iterate(x, y -> y + 1).limit(size).toList())
+            .head().subList(0, 100));
+    b.measure("flatMap(x -> inner(x, " + size + ")).limit(100).toList()", 100,
+        () -> InfiniteList.iterate(0, x -> x + 1)
+            .flatMap(x -> InfiniteList.iterate(x, y -> y + 1).limit(size))
+            .limit(100).toList());
+    b.measure("flatMap(x -> sentinel() x " + size + ", then 1 element).head()", size,
+        () -> InfiniteList.iterate(1, x -> x + 1)
+            .flatMap(x -> x % size == 0
+                ? InfiniteList.iterate(x, y -> y).limit(1)
+                : InfiniteList.<Integer>sentinel())
+            .head());
+  }
+
+  /**
+   * Returns the result of 'task', rethrowing IOExceptions unchecked.
+   *
+   * @param <T> The type of the result.
+   * @param task The task doing I/O.
+   * @return The result of 'task'.
+   */
+  private static <T> T unchecked(Callable<T> task) {
+    try {
+      return task.call();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns the next line of 'reader', or "" at the end of the file, as
+   * 'Maybe.some(null)' passes any 'filter'.
+   *
+   * @param reader The reader to read from.
+   * @return The next line, or "" at the end of the file.
+   */
+  private static String readLine(BufferedReader reader) {
+    try {
+      String line = reader.readLine();
+      return line == null ? "" : line;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns 'InfiniteList.lines(file)', rethrowing IOExceptions unchecked.
+   *
+   * @param file The file to read.
+   * @return The lines of the file.
+   */
+  private static InfiniteList<String> mapped(Path file) {
+    try {
+      return InfiniteList.lines(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Waits for 1 ms before returning 'x', standing in for a remote lookup.
+   *
+   * @param x The key to look up.
+   * @return 'x'.
+   */
+  private static long lookup(int x) {
+    LockSupport.parkNanos(1_000_000);
+    return x;
+  }
+
+  /**
+   * Benchmarks zipping two lists whose steps wait 200 us each (eg. on a
+   * simulation's I/O) and two lists with cheap steps, evaluating both on the
+   * reader, and the second on a single background thread.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void zippedLists(CS2030SBench b) {
+    int size = 1_000;
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    b.measure("iterate(step).zipWith(iterate(step)).limit(" + size + ").reduce", size,
+        () -> InfiniteList.iterate(0, Benchmark::step)
+            .zipWith(InfiniteList.iterate(0, Benchmark::step), (x, y) -> x + y)
+            .limit(size).reduce(0L, (x, y) -> x + y));
+    b.measure("iterate(step).zipWith(iterate(step), executor).limit(" + size + ").reduce", size,
+        () -> InfiniteList.iterate(0, Benchmark::step)
+            .zipWith(InfiniteList.iterate(0, Benchmark::step), (x, y) -> x + y, executor)
+            .limit(size).reduce(0L, (x, y) -> x + y));
+    int cheap = 100_000;
+    b.measure("iterate(x + 1).zipWith(iterate(x + 1)).limit(" + cheap + ").reduce", cheap,
+        () -> InfiniteList.iterate(0, x -> x + 1)
+            .zipWith(InfiniteList.iterate(0, x -> x + 1), (x, y) -> x + y)
+            .limit(cheap).reduce(0L, (x, y) -> x + y));
+    b.measure("iterate(x + 1).zipWith(iterate(x + 1), executor).limit(" + cheap + ").reduce",
+        cheap,
+        () -> InfiniteList.iterate(0, x -> x + 1)
+            .zipWith(InfiniteList.iterate(0, x -> x + 1), (x, y) -> x + y, executor)
+            .limit(cheap).reduce(0L, (x, y) -> x + y));
+    executor.shutdown();
+  }
+
+  /**
+   * Benchmarks finding the first matching element after a long run of
+   * non-matching ones, with the 'filter(..).head()' and
+   * 'takeWhile(..).count()' idioms and with the short-circuiting terminals.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void shortCircuits(CS2030SBench b) {
+    int size = 100_000;
+    b.measure("iterate(..).filter(x -> x == " + size + ").head()", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).filter(x -> x == size).head());
+    b.measure("iterate(..).findFirst(x -> x == " + size + ")", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).findFirst(x -> x == size));
+    b.measure("iterate(..).takeWhile(x -> x != " + size + ").count()", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).takeWhile(x -> x != size).count());
+    b.measure("iterate(..).anyMatch(x -> x == " + size + ")", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).anyMatch(x -> x == size));
+    b.measure("iterate(..).allMatch(x -> x < " + size + ")", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).allMatch(x -> x < size));
+  }
+
+  /**
+   * Benchmarks 'toList' and 'count' on 'limit(10M)' lists, whose size is
+   * exact with only 'map's, and only bounded with a 'filter' that passes
+   * every element.
+   *
+   * @param b The benchmark helper.
+   */
+  private static void sizedLists(CS2030SBench b) {
+    int size = 10_000_000;
+    b.measure("iterate(..).limit(10M).toList()", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).limit(size).toList());
+    b.measure("iterate(..).filter(x -> x >= 0).limit(10M).toList()", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).filter(x -> x >= 0).limit(size).toList());
+    b.measure("iterate(.., 1024).limit(10M).toList()", size,
+        () -> InfiniteList.iterate(0, x -> x + 1, 1024).limit(size).toList());
+    b.measure("iterate(..).map(x -> x * 2).limit(10M).count()", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).map(x -> x * 2).limit(size).count());
+    b.measure("iterate(..).limit(10M).filter(x -> x >= 0).count()", size,
+        () -> InfiniteList.iterate(0, x -> x + 1).limit(size).filter(x -> x >= 0).count());
+  }
+
+  /**
+   * Waits for 200 us before returning an element, standing in for a producer
+   * that waits on I/O.
+   *
+   * @return The fetched element.
+   */
+  private static int fetch() {
+    LockSupport.parkNanos(200_000);
+    return 1;
+  }
+
+  /**
+   * Waits for 200 us before returning the element after 'x', standing in
+   * for a step of a simulation that waits on I/O.
+   *
+   * @param x The current element.
+   * @return The next element.
+   */
+  private static int step(int x) {
+    LockSupport.parkNanos(200_000);
+    return x + 1;
+  }
+
+  /**
+   * Spins for 200 us before returning 'x', standing in for a consumer doing
+   * CPU work on each element.
+   *
+   * @param x The element to work on.
+   * @return 'x'.
+   */
+  private static long work(int x) {
+    long end = System.nanoTime() + 200_000;
+    while (System.nanoTime() < end) {
+      Thread.onSpinWait();
+    }
+    return x;
+  }
+
+  /**
+   * A CPU-heavy scoring function, standing in for an expensive 'map'.
+   *
+   * @param x The element to score.
+   * @return The score of the element.
+   */
+  private static long score(int x) {
+    long hash = x;
+    for (int i = 0; i < 2_000; i++) {
+      hash = hash * 6364136223846793005L + 1442695040888963407L;
+    }
+    return hash >>> 60;
+  }
+}
@@ -0,0 +1,223 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A helper class to benchmark the CS2030S labs.  Each benchmark is
+ * calibrated to run for at least 'MIN_RUN_NANOS', run for a while to warm
+ * up the JIT, and then timed.  Besides the throughput, the bytes allocated
+ * per operation and the maximum stack depth reached by 'probe' calls are
+ * reported.
+ */
+class CS2030SBench {
+
+  /** The minimum duration of a timed run, in nanoseconds. */
+  private static final long MIN_RUN_NANOS = 20_000_000;
+  /**
+   * The minimum duration of the warm-up runs, in nanoseconds, so that the
+   * JIT has time to recompile code shared with the previous benchmarks.
+   */
+  private static final long MIN_WARMUP_NANOS = 300_000_000;
+  /** The largest number of times a task is repeated in a single run. */
+  private static final long MAX_REPS = 1 << 20;
+
+  /** Keeps the results of the benchmarked tasks reachable. */
+  private static volatile Object blackhole;
+  /** Whether 'probe' is recording the stack depth. */
+  private static boolean isProbing;
+  /** The deepest stack seen by 'probe' while probing. */
+  private static int maxDepth;
+
+  /** Minimum number of untimed runs before measuring. */
+  private final int warmups;
+  /** Number of timed runs, whose results are averaged. */
+  private final int runs;
+  /** Only sections whose key contains one of these are run; all are run if empty. */
+  private final List<String> filters;
+
+  /**
+   * Creates a benchmark helper with the default 3 warm-up and 5 timed runs.
+   *
+   * @param filters Only sections whose key contains one of these are run.
+   */
+  public CS2030SBench(String... filters) {
+    this(3, 5, filters);
+  }
+
+  /**
+   * Creates a benchmark helper.
+   *
+   * @param warmups The number of untimed runs before measuring.
+   * @param runs The number of timed runs.
+   * @param filters Only sections whose key contains one of these are run.
+   */
+  public CS2030SBench(int warmups, int runs, String... filters) {
+    this.warmups = warmups;
+    this.runs = runs;
+    this.filters = List.of(filters);
+  }
+
+  /**
+   * Returns the sizes to benchmark, from 10 up to the 'bench.maxSize' system
+   * property (1M by default, as larger sizes need a larger heap).
+   *
+   * @return The sizes to benchmark.
+   */
+  public static List<Integer> sizes() {
+    long maxSize = Long.getLong("bench.maxSize", 1_000_000);
+    List<Integer> sizes = new ArrayList<>();
+    for (int size : new int[] {10, 1_000, 100_000, 1_000_000, 10_000_000}) {
+      if (size <= maxSize) {
+        sizes.add(size);
+      }
+    }
+    return sizes;
+  }
+
+  /**
+   * Prints a section header and runs its benchmarks, if the section is
+   * selected by the filters.
+   *
+   * @param key A short name to select the section by.
+   * @param title The title of the section.
+   * @param body Runs the benchmarks of the section.
+   * @return this object.
+   */
+  public CS2030SBench section(String key, String title, Runnable body) {
+    if (!this.filters.isEmpty() && this.filters.stream().noneMatch(key::contains)) {
+      return this;
+    }
+    System.out.println();
+    System.out.println("== [" + key + "] " + title + " ==");
+    body.run();
+    return this;
+  }
+
+  /**
+   * Records the current stack depth if probing, and returns 'value'. Called
+   * from within the lambdas of a benchmarked task to report how deep the
+   * stack gets when they're run.
+   *
+   * @param <T> The type of the value.
+   * @param value The value to return.
+   * @return 'value'.
+   */
+  public static <T> T probe(T value) {
+    if (CS2030SBench.isProbing) {
+      int depth = StackWalker.getInstance().walk(frames -> (int) frames.count());
+      CS2030SBench.maxDepth = Math.max(CS2030SBench.maxDepth, depth);
+    }
+    return value;
+  }
+
+  /**
+   * Times a task and reports its throughput, the bytes it allocated on the
+   * calling thread per operation, and the deepest stack reached by 'probe'
+   * calls relative to the caller.
+   *
+   * @param <T> The type of the result of the task.
+   * @param name A description of the benchmark.
+   * @param ops The number of operations (e.g. elements) a single run performs.
+   * @param task The task to run. Its result is kept alive so that the JIT
+   *     can't optimise the work away.
+   * @return this object.
+   */
+  public <T> CS2030SBench measure(String name, long ops, Supplier<T> task) {
+    long reps = 1;
+    while (reps < MAX_REPS && this.time(task, reps) < MIN_RUN_NANOS) {
+      reps *= 2;
+    }
+    long warmupNanos = 0;
+    for (int w = 0; w < this.warmups || warmupNanos < MIN_WARMUP_NANOS; w++) {
+      warmupNanos += this.time(task, reps);
+    }
+    long totalNanos = 0;
+    long totalBytes = 0;
+    for (int r = 0; r < this.runs; r++) {
+      long bytesBefore = CS2030SBench.allocatedBytes();
+      totalNanos += this.time(task, reps);
+      totalBytes += CS2030SBench.allocatedBytes() - bytesBefore;
+    }
+
+    int baseDepth = StackWalker.getInstance().walk(frames -> (int) frames.count());
+    CS2030SBench.maxDepth = 0;
+    CS2030SBench.isProbing = true;
+    try {
+      CS2030SBench.blackhole = task.get();
+    } finally {
+      CS2030SBench.isProbing = false;
+    }
+    String depth = CS2030SBench.maxDepth == 0
+        ? "-"
+        : String.valueOf(CS2030SBench.maxDepth - baseDepth);
+
+    double opsPerRun = (double) ops * reps;
+    double nanosPerRun = (double) totalNanos / this.runs;
+    System.out.printf("%-64s %14.0f ops/s %10.1f B/op %8s frames%n",
+        name, opsPerRun * 1e9 / nanosPerRun, totalBytes / this.runs / opsPerRun, depth);
+    return this;
+  }
+
+  /**
+   * Runs 'task' 'reps' times, and returns how long it took.
+   *
+   * @param task The task to run.
+   * @param reps The number of times to run it.
+   * @return The time taken in nanoseconds.
+   */
+  private long time(Supplier<?> task, long reps) {
+    long start = System.nanoTime();
+    for (long i = 0; i < reps; i++) {
+      CS2030SBench.blackhole = task.get();
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Reports the heap retained by the object built by 'task', per element.
+   *
+   * @param name A description of the benchmark.
+   * @param elements The number of elements the built object holds.
+   * @param task Builds (and traverses) the object whose footprint is measured.
+   * @return this object.
+   */
+  public CS2030SBench retained(String name, long elements, Supplier<Object> task) {
+    long before = CS2030SBench.usedHeap();
+    Object kept = task.get();
+    long after = CS2030SBench.usedHeap();
+    System.out.printf("%-64s %12.1f MB retained %8.1f B/element%n",
+        name, (after - before) / 1e6, (double) (after - before) / elements);
+    CS2030SBench.blackhole = kept;
+    CS2030SBench.blackhole = null;
+    return this;
+  }
+
+  /**
+   * Returns the heap in use after a few rounds of garbage collection.
+   *
+   * @return The used heap in bytes.
+   */
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Returns the number of bytes allocated so far by the calling thread, or 0
+   * if the JVM doesn't support measuring it.
+   *
+   * @return The bytes allocated by the current thread.
+   */
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+}
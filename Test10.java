@@ -0,0 +1,149 @@
+import cs2030s.fp.InfiniteList;
+import cs2030s.fp.Transformer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 10 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that long
+ * chains of InfiniteList map() and filter() stay lazy and evaluate
+ * each stage at most once per element, including the stages of an
+ * intermediate list that's read on its own.
+ */
+class Test10 {
+  /**
+   * Main method for Test10.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+
+    List<String> history = new ArrayList<>();
+    Transformer<Integer, Integer> incr = x -> {
+      history.add("incr " + x);
+      return x + 1;
+    };
+    Transformer<Integer, Integer> doubler = x -> {
+      history.add("double " + x);
+      return x * 2;
+    };
+
+    InfiniteList<Integer> nums = InfiniteList.iterate(1, x -> x + 1);
+    InfiniteList<Integer> pipeline = nums
+        .map(incr)
+        .filter(x -> x % 3 != 0)
+        .map(doubler)
+        .filter(x -> x > 4)
+        .map(incr)
+        .map(doubler);
+    i.expect("InfiniteList<Integer> pipeline = InfiniteList.iterate(1, x -> x + 1)\n" +
+        "    .map(x -> x + 1).filter(x -> x % 3 != 0).map(x -> x * 2)\n" +
+        "    .filter(x -> x > 4).map(x -> x + 1).map(x -> x * 2)\n" +
+        " ..pipeline.toString() returns [? ?]",
+        pipeline.toString(), "[? ?]");
+    i.expect(" ..causes zero evaluation of any stage",
+        history, List.of());
+
+    i.expect("After pipeline.head()\n" +
+        " ..returns 18",
+        pipeline.head(), 18);
+    i.expect(" ..causes the stages to run in order, skipping filtered-out elements",
+        history, List.of("incr 1", "double 2", "incr 2", "incr 3", "double 4", "incr 8",
+            "double 9"));
+    i.expect(" ..nums.toString() returns [[1] [[2] [[3] ?]]]",
+        nums.toString(), "[[1] [[2] [[3] ?]]]");
+
+    history.retainAll(List.of());
+    pipeline.head();
+    pipeline.toString();
+    i.expect("Calling pipeline.head() again\n" +
+        " ..causes zero evaluation of any stage",
+        history, List.of());
+
+    i.expect("After pipeline.tail().head()\n" +
+        " ..returns 22",
+        pipeline.tail().head(), 22);
+    i.expect(" ..causes the stages to run only for the next element",
+        history, List.of("incr 4", "double 5", "incr 10", "double 11"));
+
+    i.expectReturn("InfiniteList.iterate(1, x -> x + 1).map(x -> x * 2).limit(3)" +
+        ".map(x -> x + 1).filter(x -> x > 3).toList()",
+        () -> InfiniteList.iterate(1, x -> x + 1).map(x -> x * 2).limit(3)
+        .map(x -> x + 1).filter(x -> x > 3).toList(),
+        List.of(5, 7));
+    i.expectReturn("InfiniteList.iterate(1, x -> x + 1).map(x -> x % 2 == 0 ? null : x)" +
+        ".filter(x -> x > 2).limit(3).toList()",
+        () -> InfiniteList.iterate(1, x -> x + 1).map(x -> x % 2 == 0 ? null : x)
+        .filter(x -> x > 2).limit(3).toList(),
+        java.util.Arrays.asList(null, 3, null));
+
+    AtomicInteger mapped = new AtomicInteger();
+    InfiniteList<Integer> a = InfiniteList.iterate(1, x -> x + 1).map(x -> {
+      mapped.incrementAndGet();
+      return x * 2;
+    });
+    InfiniteList<Integer> b = a.map(x -> x + 1);
+    i.expect("InfiniteList<Integer> a = InfiniteList.iterate(1, x -> x + 1).map(x -> x * 2)\n" +
+        "InfiniteList<Integer> b = a.map(x -> x + 1)\n" +
+        "a.limit(100).toList().size() returns 100",
+        a.limit(100).toList().size(), 100);
+    i.expect("b.limit(100).toList() returns [3, 5, 7, ..]",
+        b.limit(100).toList().subList(0, 3), List.of(3, 5, 7));
+    i.expect(" ..having run a's stage once per element",
+        mapped.get(), 100);
+    i.expect("b.filter(x -> x % 3 == 0).limit(5).toList() returns [3, 9, 15, 21, 27]",
+        b.filter(x -> x % 3 == 0).limit(5).toList(), List.of(3, 9, 15, 21, 27));
+    i.expect(" ..without running a's stage again",
+        mapped.get(), 100);
+
+    AtomicInteger tested = new AtomicInteger();
+    InfiniteList<Integer> evens = InfiniteList.iterate(1, x -> x + 1).filter(x -> {
+      tested.incrementAndGet();
+      return x % 2 == 0;
+    });
+    InfiniteList<Integer> halves = evens.map(x -> x / 2);
+    i.expect("InfiniteList<Integer> evens = InfiniteList.iterate(1, x -> x + 1)" +
+        ".filter(x -> x % 2 == 0)\n" +
+        "InfiniteList<Integer> halves = evens.map(x -> x / 2)\n" +
+        "evens.limit(3).toList() returns [2, 4, 6]",
+        evens.limit(3).toList(), List.of(2, 4, 6));
+    i.expect("halves.limit(3).toList() returns [1, 2, 3]",
+        halves.limit(3).toList(), List.of(1, 2, 3));
+    i.expect(" ..having tested each element once",
+        tested.get(), 6);
+
+    AtomicInteger doubled = new AtomicInteger();
+    InfiniteList<Integer> twice = InfiniteList.iterate(1, x -> x + 1).map(x -> {
+      doubled.incrementAndGet();
+      return x * 2;
+    });
+    InfiniteList<Integer> odds = twice.map(x -> x + 1);
+    i.expect("InfiniteList<Integer> twice = InfiniteList.iterate(1, x -> x + 1)" +
+        ".map(x -> x * 2)\n" +
+        "InfiniteList<Integer> odds = twice.map(x -> x + 1)\n" +
+        "odds.limit(5).toList() returns [3, 5, 7, 9, 11]",
+        odds.limit(5).toList(), List.of(3, 5, 7, 9, 11));
+    i.expect("twice.limit(5).toList() returns [2, 4, 6, 8, 10]",
+        twice.limit(5).toList(), List.of(2, 4, 6, 8, 10));
+    i.expect(" ..having run twice's stage once per element",
+        doubled.get(), 5);
+
+    AtomicInteger checked = new AtomicInteger();
+    InfiniteList<Integer> multiples = InfiniteList.iterate(1, x -> x + 1).filter(x -> {
+      checked.incrementAndGet();
+      return x % 2 == 0;
+    });
+    InfiniteList<Integer> quarters = multiples.filter(x -> x % 4 == 0).map(x -> x / 4);
+    i.expect("InfiniteList<Integer> multiples = InfiniteList.iterate(1, x -> x + 1)" +
+        ".filter(x -> x % 2 == 0)\n" +
+        "InfiniteList<Integer> quarters = multiples.filter(x -> x % 4 == 0)" +
+        ".map(x -> x / 4)\n" +
+        "quarters.limit(2).toList() returns [1, 2]",
+        quarters.limit(2).toList(), List.of(1, 2));
+    i.expect("multiples.limit(4).toList() returns [2, 4, 6, 8]",
+        multiples.limit(4).toList(), List.of(2, 4, 6, 8));
+    i.expect(" ..having tested each element once",
+        checked.get(), 8);
+  }
+}
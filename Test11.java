@@ -0,0 +1,79 @@
+import cs2030s.fp.InfiniteList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Test 11 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests
+ * for InfiniteList iterator() and spliterator().
+ */
+class Test11 {
+  /**
+   * Main method for Test11.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+
+    i.expectReturn("InfiniteList.sentinel().iterator().hasNext()",
+        () -> InfiniteList.sentinel().iterator().hasNext(), false);
+    i.expectException("InfiniteList.sentinel().iterator().next()",
+        () -> InfiniteList.sentinel().iterator().next(), new NoSuchElementException());
+    i.expectReturn("InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(0)" +
+        ".iterator().hasNext()",
+        () -> InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(0)
+        .iterator().hasNext(),
+        false);
+
+    List<Integer> incrHistory = new ArrayList<>();
+    InfiniteList<Integer> evens = InfiniteList.iterate(1, x -> {
+      incrHistory.add(x);
+      return x + 1;
+    }).filter(x -> x % 2 == 0);
+    Iterator<Integer> it = evens.iterator();
+    i.expect("InfiniteList<Integer> evens = InfiniteList.iterate(1, x -> x + 1)" +
+        ".filter(x -> x % 2 == 0)\n" +
+        "Iterator<Integer> it = evens.iterator()\n" +
+        " ..causes zero evals on x -> x + 1",
+        incrHistory, List.of());
+    i.expect("it.next() returns 2", it.next(), 2);
+    i.expect("it.next() returns 4", it.next(), 4);
+    i.expect(" ..causes three evals on x -> x + 1",
+        incrHistory, List.of(1, 2, 3));
+    i.expect(" ..evens.toString() returns [[] [[2] [[] [[4] ?]]]]",
+        evens.toString(), "[[] [[2] [[] [[4] ?]]]]");
+
+    List<Integer> looped = new ArrayList<>();
+    for (Integer x : InfiniteList.iterate(1, x -> x + 1).takeWhile(x -> x < 5)) {
+      looped.add(x);
+    }
+    i.expect("for (Integer x : InfiniteList.iterate(1, x -> x + 1).takeWhile(x -> x < 5))\n" +
+        " ..loops over [1, 2, 3, 4]",
+        looped, List.of(1, 2, 3, 4));
+
+    i.expectReturn("InfiniteList.iterate(1, x -> x + 1).limit(200_000).iterator() walk",
+        () -> {
+          long sum = 0;
+          for (Integer x : InfiniteList.iterate(1, x -> x + 1).limit(200_000)) {
+            sum += x;
+          }
+          return sum;
+        },
+        20_000_100_000L);
+
+    i.expectReturn("InfiniteList.iterate(1, x -> x + 1).spliterator() is ORDERED",
+        () -> InfiniteList.iterate(1, x -> x + 1).spliterator()
+        .hasCharacteristics(Spliterator.ORDERED),
+        true);
+    i.expectReturn("StreamSupport.stream(InfiniteList.iterate(1, x -> x + 1).map(x -> x * 2)" +
+        ".limit(4).spliterator(), false).collect(toList())",
+        () -> StreamSupport.stream(InfiniteList.iterate(1, x -> x + 1).map(x -> x * 2)
+            .limit(4).spliterator(), false).collect(Collectors.toList()),
+        List.of(2, 4, 6, 8));
+  }
+}
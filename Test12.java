@@ -0,0 +1,100 @@
+import cs2030s.fp.InfiniteList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Test 12 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests
+ * for InfiniteList parallelReduce().
+ */
+class Test12 {
+  /**
+   * Main method for Test12.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+    ForkJoinPool pool = new ForkJoinPool(4);
+
+    i.expectReturn("InfiniteList.sentinel().parallelReduce(0, (x, y) -> x + y, (x, y) -> x + y)",
+        () -> InfiniteList.<Integer>sentinel().parallelReduce(0, (x, y) -> x + y, (x, y) -> x + y),
+        0);
+    i.expectReturn("InfiniteList.iterate(1, x -> x + 1).limit(5)" +
+        ".parallelReduce(0, (x, y) -> x + y, (x, y) -> x + y)",
+        () -> InfiniteList.iterate(1, x -> x + 1).limit(5)
+        .parallelReduce(0, (x, y) -> x + y, (x, y) -> x + y),
+        15);
+    i.expectReturn("InfiniteList.iterate(0, x -> x + 1).takeWhile(x -> x < 100_000)" +
+        ".filter(x -> x % 2 == 0).parallelReduce(0L, (x, y) -> x + y, (x, y) -> x + y)",
+        () -> InfiniteList.iterate(0, x -> x + 1).takeWhile(x -> x < 100_000)
+        .filter(x -> x % 2 == 0).parallelReduce(0L, (x, y) -> x + y, (x, y) -> x + y, pool),
+        2_499_950_000L);
+    i.expectReturn("InfiniteList.iterate(1, x -> x + 1).limit(1000).map(x -> String.valueOf(x))" +
+        ".parallelReduce(\"\", (x, y) -> x + y, (x, y) -> x + y) keeps the order",
+        () -> InfiniteList.iterate(1, x -> x + 1).limit(1000).map(x -> String.valueOf(x))
+        .parallelReduce("", (x, y) -> x + y, (x, y) -> x + y, pool),
+        InfiniteList.iterate(1, x -> x + 1).limit(1000).map(x -> String.valueOf(x))
+        .reduce("", (x, y) -> x + y));
+
+    AtomicInteger squareCount = new AtomicInteger();
+    InfiniteList<Integer> squares = InfiniteList.iterate(1, x -> x + 1).limit(4).map(x -> {
+      squareCount.incrementAndGet();
+      return x * x;
+    });
+    i.expect("InfiniteList<Integer> squares = InfiniteList.iterate(1, x -> x + 1).limit(4)" +
+        ".map(x -> x * x)\n" +
+        "squares.parallelReduce(0, (x, y) -> x + y, (x, y) -> x + y)\n" +
+        " ..returns 30",
+        squares.parallelReduce(0, (x, y) -> x + y, (x, y) -> x + y, pool), 30);
+    i.expect(" ..causes four evals of x -> x * x",
+        squareCount.get(), 4);
+    i.expect(" ..squares.toString() returns [[1] [[4] [[9] [[16] -]]]]",
+        squares.toString(), "[[1] [[4] [[9] [[16] -]]]]");
+    i.expect("Calling squares.reduce(0, (x, y) -> x + y) returns 30",
+        squares.reduce(0, (x, y) -> x + y), 30);
+    i.expect(" ..causes zero evals of x -> x * x",
+        squareCount.get(), 4);
+
+    List<Integer> collected = InfiniteList.iterate(1, x -> x + 1).limit(10)
+        .parallelReduce(List.of(),
+            (list, x) -> {
+              List<Integer> newList = new ArrayList<>(list);
+              newList.add(x);
+              return newList;
+            },
+            (left, right) -> {
+              List<Integer> newList = new ArrayList<>(left);
+              newList.addAll(right);
+              return newList;
+            }, pool);
+    i.expect("Collecting InfiniteList.iterate(1, x -> x + 1).limit(10) with parallelReduce\n" +
+        " ..returns [1, 2, ..., 10]",
+        collected, List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+
+    AtomicInteger stepCount = new AtomicInteger();
+    AtomicInteger chunkedCount = new AtomicInteger();
+    List<Long> chunkedSums = new ArrayList<>();
+    for (int k = 0; k < 20; k++) {
+      chunkedSums.add(InfiniteList.iterate(0, x -> {
+        stepCount.incrementAndGet();
+        return x + 1;
+      }, 100).map(x -> {
+        chunkedCount.incrementAndGet();
+        return x;
+      }).limit(102_400).parallelReduce(0L, (x, y) -> x + y, (x, y) -> x + y, pool));
+    }
+    i.expect("InfiniteList.iterate(0, x -> x + 1, 100).map(x -> x).limit(102_400)" +
+        ".parallelReduce(0L, (x, y) -> x + y, (x, y) -> x + y) 20 times, filling the\n" +
+        "chunks shared by the nodes on different threads\n" +
+        " ..returns 5242828800 each time",
+        chunkedSums.stream().distinct().collect(Collectors.toList()), List.of(5_242_828_800L));
+    i.expect(" ..causes 2047980 evals of x -> x + 1, ie. once per element after the first",
+        stepCount.get(), 2_047_980);
+    i.expect(" ..causes 2048000 evals of x -> x, ie. once per element",
+        chunkedCount.get(), 2_048_000);
+    pool.shutdown();
+  }
+}
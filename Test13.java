@@ -0,0 +1,91 @@
+import cs2030s.fp.InfiniteList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test 13 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that chunked
+ * InfiniteLists behave like the node-per-element ones.
+ */
+class Test13 {
+  /**
+   * Main method for Test13.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+
+    i.expectException("InfiniteList.iterate(1, x -> x + 1, 0)",
+        () -> InfiniteList.iterate(1, x -> x + 1, 0),
+        new IllegalArgumentException());
+
+    List<Integer> evals = new ArrayList<>();
+    InfiniteList<Integer> nums = InfiniteList.iterate(1, x -> {
+      evals.add(x);
+      return x + 1;
+    }, 4);
+    i.expect("InfiniteList<Integer> nums = InfiniteList.iterate(1, x -> x + 1, 4)\n" +
+        " ..nums.toString() returns [? ?]",
+        nums.toString(), "[? ?]");
+    i.expect("nums.tail().head() returns 2",
+        nums.tail().head(), 2);
+    i.expect(" ..evaluates the first chunk of 4 elements",
+        evals, List.of(1, 2, 3));
+    i.expect(" ..nums.toString() returns [[1] [[2] [[3] [[4] ?]]]]",
+        nums.toString(), "[[1] [[2] [[3] [[4] ?]]]]");
+    i.expect("nums.tail().tail().tail().tail().head() returns 5",
+        nums.tail().tail().tail().tail().head(), 5);
+    i.expect(" ..evaluates the second chunk",
+        evals, List.of(1, 2, 3, 4, 5, 6, 7));
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1, 64).map(x -> x * 2)" +
+        ".filter(x -> x % 3 == 0).limit(100).toList()\n" +
+        " ..equals the unchunked list",
+        InfiniteList.iterate(1, x -> x + 1, 64).map(x -> x * 2)
+            .filter(x -> x % 3 == 0).limit(100).toList(),
+        InfiniteList.iterate(1, x -> x + 1).map(x -> x * 2)
+            .filter(x -> x % 3 == 0).limit(100).toList());
+    i.expect("InfiniteList.iterate(1, x -> x + 1, 8).limit(10).filter(x -> x % 2 == 0)" +
+        ".toList() returns [2, 4, 6, 8, 10]",
+        InfiniteList.iterate(1, x -> x + 1, 8).limit(10).filter(x -> x % 2 == 0).toList(),
+        List.of(2, 4, 6, 8, 10));
+    i.expect("InfiniteList.iterate(1, x -> x + 1, 8).filter(x -> x % 2 == 0).limit(3)" +
+        ".toString() after count() returns [[] [[2] [[] [[4] [[] [[6] -]]]]]]",
+        Test13.evaluated(InfiniteList.iterate(1, x -> x + 1, 8).filter(x -> x % 2 == 0)
+            .limit(3)),
+        "[[] [[2] [[] [[4] [[] [[6] -]]]]]]");
+    i.expect("InfiniteList.iterate(1, x -> x + 1, 16).takeWhile(x -> x < 50)" +
+        ".reduce(0, (x, y) -> x + y) returns 1225",
+        InfiniteList.iterate(1, x -> x + 1, 16).takeWhile(x -> x < 50)
+            .reduce(0, (x, y) -> x + y), 1225);
+
+    int[] next = new int[1];
+    i.expect("InfiniteList.generate(() -> next++, 3).limit(7).tail().toList()" +
+        " returns [1, 2, 3, 4, 5, 6]",
+        InfiniteList.generate(() -> next[0]++, 3).limit(7).tail().toList(),
+        List.of(1, 2, 3, 4, 5, 6));
+
+    List<Integer> iterated = new ArrayList<>();
+    for (int x : InfiniteList.iterate(1, x -> x + 1, 5).map(x -> x * x).limit(6)) {
+      iterated.add(x);
+    }
+    i.expect("Iterating over InfiniteList.iterate(1, x -> x + 1, 5).map(x -> x * x).limit(6)" +
+        " gives [1, 4, 9, 16, 25, 36]",
+        iterated, List.of(1, 4, 9, 16, 25, 36));
+    i.expect("InfiniteList.iterate(0, x -> x + 1, 1024).filter(x -> x % 1_000 == 0)" +
+        ".limit(1_000).count() returns 1000",
+        InfiniteList.iterate(0, x -> x + 1, 1024).filter(x -> x % 1_000 == 0)
+            .limit(1_000).count(), 1000L);
+  }
+
+  /**
+   * Evaluates all the elements of 'list', and returns its string representation.
+   *
+   * @param list The list to evaluate.
+   * @return The string representation of the evaluated list.
+   */
+  private static String evaluated(InfiniteList<Integer> list) {
+    list.count();
+    return list.toString();
+  }
+}
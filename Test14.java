@@ -0,0 +1,136 @@
+import cs2030s.fp.InfiniteList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Test 14 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that
+ * InfiniteList streamingIterator() doesn't memoise the elements it
+ * walks. Ran with a small heap, which the consumed elements would
+ * far exceed if they were kept alive.
+ */
+class Test14 {
+  /**
+   * Main method for Test14.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+
+    long[] produced = new long[1];
+    InfiniteList<Long> readings = InfiniteList.generate(() -> produced[0]++);
+    InfiniteList<Long> pipeline = readings.map(x -> x * 2).filter(x -> x % 3 != 0);
+    i.expect("InfiniteList<Long> readings = InfiniteList.generate(() -> produced++)\n" +
+        "InfiniteList<Long> pipeline = readings.map(x -> x * 2).filter(x -> x % 3 != 0)\n" +
+        "Summing the first 10_000_000 elements of pipeline.streamingIterator()\n" +
+        " ..returns 150_000_000_000_000",
+        Test14.sum(pipeline.streamingIterator(), 10_000_000), 150_000_000_000_000L);
+    i.expect(" ..produces each reading once",
+        produced[0], 15_000_000L);
+    i.expect(" ..only memoises the first element, readings.toString() returns [[0] ?]",
+        readings.toString(), "[[0] ?]");
+    i.expect(" ..pipeline.toString() returns [[] ?]",
+        pipeline.toString(), "[[] ?]");
+
+    InfiniteList<Integer> sparse = InfiniteList.iterate(0, x -> x + 1)
+        .filter(x -> x % 1_000 == 0);
+    i.expect("Summing the first 10_000 elements of InfiniteList.iterate(0, x -> x + 1)" +
+        ".filter(x -> x % 1_000 == 0).streamingIterator() returns 49_995_000_000",
+        Test14.sum(sparse.streamingIterator(), 10_000), 49_995_000_000L);
+
+    InfiniteList<Integer> chunked = InfiniteList.iterate(0, x -> x + 1, 256)
+        .map(x -> x * 2).filter(x -> x % 4 == 0);
+    i.expect("Summing the first 10_000_000 elements of InfiniteList.iterate(0, x -> x + 1, 256)" +
+        ".map(x -> x * 2).filter(x -> x % 4 == 0).streamingIterator() returns " +
+        "199_999_980_000_000",
+        Test14.sum(chunked.streamingIterator(), 10_000_000), 199_999_980_000_000L);
+
+    InfiniteList<Integer> lengths = InfiniteList.generate(() -> new byte[1024], 256)
+        .map(x -> x.length);
+    i.expect("InfiniteList<Integer> lengths = InfiniteList.generate(() -> new byte[1024], 256)" +
+        ".map(x -> x.length)\n" +
+        "lengths.limit(100_000).reduce(0, (x, y) -> x + y) returns 102_400_000",
+        lengths.limit(100_000).reduce(0, (x, y) -> x + y), 102_400_000);
+    i.expect(" ..releasing the evaluated source chunks, lengths.limit(100_000).count()" +
+        " returns 100_000",
+        lengths.limit(100_000).count(), 100_000L);
+
+    List<Integer> evals = new ArrayList<>();
+    InfiniteList<Integer> nums = InfiniteList.generate(() -> {
+      evals.add(evals.size());
+      return evals.size() - 1;
+    });
+    nums.tail().tail().head();
+    i.expect("InfiniteList<Integer> nums = InfiniteList.generate(() -> 0, 1, 2, ...)\n" +
+        "After nums.tail().tail().head(), summing the first 5 elements of " +
+        "nums.streamingIterator()\n" +
+        " ..returns 10",
+        Test14.sum(nums.streamingIterator(), 5), 10L);
+    i.expect(" ..reuses the three memoised elements",
+        evals, List.of(0, 1, 2, 3, 4));
+    i.expect(" ..nums.toString() returns [[0] [[1] [[2] ?]]]",
+        nums.toString(), "[[0] [[1] [[2] ?]]]");
+
+    List<Integer> taken = new ArrayList<>();
+    InfiniteList<Integer> firstFive = InfiniteList.iterate(1, x -> x + 1)
+        .filter(x -> x % 2 == 1).takeWhile(x -> x < 10);
+    firstFive.streamingIterator().forEachRemaining(taken::add);
+    i.expect("Consuming InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 1)" +
+        ".takeWhile(x -> x < 10).streamingIterator()\n" +
+        " ..gives [1, 3, 5, 7, 9]",
+        taken, List.of(1, 3, 5, 7, 9));
+    i.expect(" ..only memoises the first element",
+        firstFive.toString(), "[[1] ?]");
+
+    List<Integer> limited = new ArrayList<>();
+    InfiniteList.iterate(1, x -> x * 2).limit(5).streamingIterator()
+        .forEachRemaining(limited::add);
+    i.expect("Consuming InfiniteList.iterate(1, x -> x * 2).limit(5).streamingIterator()" +
+        " gives [1, 2, 4, 8, 16]",
+        limited, List.of(1, 2, 4, 8, 16));
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).map(x -> x < 5 ? x : throw ..)" +
+        ".limit(100_000_000).toList()\n" +
+        " ..throws the mapper's IllegalStateException rather than running out of memory" +
+        " presizing the list",
+        Test14.thrown(() -> InfiniteList.iterate(1, x -> x + 1).map(x -> {
+          if (x >= 5) {
+            throw new IllegalStateException("sensor offline");
+          }
+          return x;
+        }).limit(100_000_000).toList()),
+        "IllegalStateException");
+  }
+
+  /**
+   * Returns the simple name of the class of whatever 'task' throws,
+   * including errors, or "nothing" if it doesn't throw.
+   *
+   * @param task The task to run.
+   * @return The name of the class thrown.
+   */
+  private static String thrown(Runnable task) {
+    try {
+      task.run();
+      return "nothing";
+    } catch (Throwable e) {
+      return e.getClass().getSimpleName();
+    }
+  }
+
+  /**
+   * Sums the next 'n' elements of 'iterator'.
+   *
+   * @param iterator The iterator to sum the elements of.
+   * @param n The number of elements to sum.
+   * @return The sum of the elements.
+   */
+  private static long sum(Iterator<? extends Number> iterator, long n) {
+    long sum = 0;
+    for (long k = 0; k < n; k++) {
+      sum += iterator.next().longValue();
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,157 @@
+import cs2030s.fp.Lazy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 15 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that get() on
+ * long chains of Lazy map(), flatMap(), filter() and combine() doesn't
+ * overflow the stack, and still evaluates each Lazy once, including
+ * thread-safe chains from Lazy.concurrent() raced by several threads.
+ */
+class Test15 {
+  /**
+   * Main method for Test15.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+    int depth = 1_000_000;
+
+    Lazy<Integer> mapped = Lazy.of(() -> 0);
+    for (int k = 0; k < depth; k++) {
+      mapped = mapped.map(x -> x + 1);
+    }
+    i.expect("Lazy.of(() -> 0).map(x -> x + 1) 1_000_000 times, get() returns 1000000",
+        mapped.get(), depth);
+    i.expect(" ..toString() then returns 1000000",
+        mapped.toString(), "1000000");
+
+    Lazy<Integer> flatMapped = Lazy.of(() -> 0);
+    for (int k = 0; k < depth; k++) {
+      flatMapped = flatMapped.flatMap(x -> Lazy.of(() -> x + 1));
+    }
+    i.expect("Lazy.of(() -> 0).flatMap(x -> Lazy.of(() -> x + 1)) 1_000_000 times," +
+        " get() returns 1000000",
+        flatMapped.get(), depth);
+
+    Lazy<Integer> one = Lazy.of(() -> 1);
+    Lazy<Integer> leftCombined = Lazy.of(() -> 0);
+    Lazy<Integer> rightCombined = Lazy.of(() -> 0);
+    for (int k = 0; k < depth; k++) {
+      leftCombined = leftCombined.combine(one, (x, y) -> x + y);
+      rightCombined = one.combine(rightCombined, (x, y) -> x + y);
+    }
+    i.expect("lazy = lazy.combine(Lazy.of(() -> 1), (x, y) -> x + y) 1_000_000 times," +
+        " get() returns 1000000",
+        leftCombined.get(), depth);
+    i.expect("lazy = Lazy.of(() -> 1).combine(lazy, (x, y) -> x + y) 1_000_000 times," +
+        " get() returns 1000000",
+        rightCombined.get(), depth);
+
+    Lazy<Boolean> filtered = Lazy.of(() -> true);
+    for (int k = 0; k < depth + 1; k++) {
+      filtered = filtered.filter(x -> !x);
+    }
+    i.expect("Lazy.of(() -> true).filter(x -> !x) 1_000_001 times, get() returns false",
+        filtered.get(), false);
+
+    i.expect("Recursively flatMapping 100_000 Lazys, get() returns 100000",
+        Test15.countdown(100_000).get(), 100_000);
+
+    List<String> history = new ArrayList<>();
+    Lazy<Integer> diamond = Lazy.of(() -> {
+      history.add("source");
+      return 1;
+    });
+    for (int k = 0; k < 100_000; k++) {
+      Lazy<Integer> shared = diamond;
+      diamond = shared.map(x -> x + 1).combine(shared.map(x -> x * 2), (x, y) -> (x + y) % 1_000);
+    }
+    i.expect("100_000 layers of lazy.map(..).combine(lazy.map(..), ..), get() returns 1",
+        diamond.get(), 1);
+    i.expect(" ..evaluates the shared source once",
+        history, List.of("source"));
+
+    Lazy<Integer> concurrent = Lazy.concurrent(() -> 0);
+    for (int k = 0; k < depth; k++) {
+      concurrent = concurrent.map(x -> x + 1);
+    }
+    i.expect("Lazy.concurrent(() -> 0).map(x -> x + 1) 1_000_000 times, get() returns 1000000",
+        concurrent.get(), depth);
+
+    Lazy<Integer> concurrentFlatMapped = Lazy.concurrent(() -> 0);
+    for (int k = 0; k < depth; k++) {
+      concurrentFlatMapped = concurrentFlatMapped.flatMap(x -> Lazy.concurrent(() -> x + 1));
+    }
+    i.expect("Lazy.concurrent(() -> 0).flatMap(x -> Lazy.concurrent(() -> x + 1))" +
+        " 1_000_000 times,\n" +
+        " ..get() returns 1000000",
+        concurrentFlatMapped.get(), depth);
+
+    AtomicInteger evaluated = new AtomicInteger();
+    Lazy<Integer> raced = Lazy.concurrent(() -> 0);
+    for (int k = 0; k < depth; k++) {
+      raced = raced.map(x -> {
+        evaluated.incrementAndGet();
+        return x + 1;
+      });
+    }
+    i.expect("4 threads calling get() on Lazy.concurrent(() -> 0).map(x -> x + 1)" +
+        " 1_000_000 times\n" +
+        " ..all return 1000000",
+        Test15.race(raced, 4), List.of(depth, depth, depth, depth));
+    i.expect(" ..evaluating each Lazy once",
+        evaluated.get(), depth);
+  }
+
+  /**
+   * Calls 'lazy.get()' from 'threads' threads at once, and returns the
+   * values they got, or null for the threads that threw.
+   *
+   * @param <T> The type of the value.
+   * @param lazy The Lazy to evaluate.
+   * @param threads The number of threads.
+   * @return The values returned by the threads.
+   */
+  private static <T> List<T> race(Lazy<T> lazy, int threads) {
+    List<T> values = new ArrayList<>();
+    List<Thread> started = new ArrayList<>();
+    for (int k = 0; k < threads; k++) {
+      values.add(null);
+      int index = k;
+      Thread thread = new Thread(() -> {
+        T value = lazy.get();
+        synchronized (values) {
+          values.set(index, value);
+        }
+      });
+      started.add(thread);
+      thread.start();
+    }
+    for (Thread thread : started) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    synchronized (values) {
+      return new ArrayList<>(values);
+    }
+  }
+
+  /**
+   * Returns a Lazy which evaluates to 'n' by flatMapping 'n' nested Lazys,
+   * which are only created as the value is evaluated.
+   *
+   * @param n The number of nested Lazys.
+   * @return A Lazy evaluating to 'n'.
+   */
+  private static Lazy<Integer> countdown(int n) {
+    return n == 0
+        ? Lazy.of(0)
+        : Lazy.of(() -> n).flatMap(x -> Test15.countdown(x - 1).map(y -> y + 1));
+  }
+}
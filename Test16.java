@@ -0,0 +1,145 @@
+import cs2030s.fp.InfiniteList;
+import cs2030s.fp.Lazy;
+import cs2030s.fp.Metrics;
+import cs2030s.fp.MetricsMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Test 16 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests the evaluation
+ * metrics of Lazy and InfiniteList. Ran with '-Dcs2030s.fp.metrics=true'.
+ */
+class Test16 {
+  /**
+   * Main method for Test16.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+    MetricsMXBean metrics = Metrics.getMXBean();
+
+    i.expect("Metrics.getMXBean().isEnabled() returns true",
+        metrics.isEnabled(), true);
+
+    metrics.reset();
+    Lazy<Integer> one = Lazy.of(() -> 1);
+    Lazy<Integer> two = one.map(x -> x + 1);
+    two.get();
+    two.get();
+    two.get();
+    i.expect("Lazy<Integer> one = Lazy.of(() -> 1)\n" +
+        "Lazy<Integer> two = one.map(x -> x + 1)\n" +
+        "After calling two.get() 3 times\n" +
+        " ..getLazyEvaluations() returns 2",
+        metrics.getLazyEvaluations(), 2L);
+    i.expect(" ..getLazyHits() returns 2",
+        metrics.getLazyHits(), 2L);
+    i.expect(" ..getProducerNanosHistogram() sums to 1",
+        Arrays.stream(metrics.getProducerNanosHistogram()).sum(), 1L);
+    Lazy.of(5).get();
+    i.expect("After Lazy.of(5).get(), getLazyHits() returns 3",
+        metrics.getLazyHits(), 3L);
+
+    metrics.reset();
+    Lazy<Integer> shared = Lazy.concurrent(() -> 42);
+    shared.get();
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Thread worker = new Thread(() -> {
+        for (int k = 0; k < 10_000; k++) {
+          shared.get();
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    Test16.joinAll(workers);
+    i.expect("4 threads calling get() 10_000 times on an evaluated Lazy.concurrent(() -> 42)\n" +
+        " ..getLazyEvaluations() returns 1",
+        metrics.getLazyEvaluations(), 1L);
+    i.expect(" ..getLazyHits() returns 40000",
+        metrics.getLazyHits(), 40_000L);
+
+    metrics.reset();
+    InfiniteList<Integer> doubles = InfiniteList.generate(() -> 1).map(x -> x * 2);
+    doubles.head();
+    doubles.head();
+    i.expect("InfiniteList<Integer> doubles = InfiniteList.generate(() -> 1).map(x -> x * 2)\n" +
+        "After calling doubles.head() twice\n" +
+        " ..getLazyEvaluations() returns 2",
+        metrics.getLazyEvaluations(), 2L);
+    i.expect(" ..getProducerNanosHistogram() sums to 2",
+        Arrays.stream(metrics.getProducerNanosHistogram()).sum(), 2L);
+
+    metrics.reset();
+    InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 3 == 0).limit(4).toList();
+    i.expect("InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 3 == 0).limit(4).toList()\n" +
+        " ..getElementsMaterialised() returns 4",
+        metrics.getElementsMaterialised(), 4L);
+    i.expect(" ..getNodesSkipped() returns 8",
+        metrics.getNodesSkipped(), 8L);
+
+    metrics.reset();
+    InfiniteList.iterate(1, x -> x + 1, 4).filter(x -> x % 2 == 0).limit(3).toList();
+    i.expect("InfiniteList.iterate(1, x -> x + 1, 4).filter(x -> x % 2 == 0).limit(3)" +
+        ".toList()\n" +
+        " ..getElementsMaterialised() returns 3",
+        metrics.getElementsMaterialised(), 3L);
+    i.expect(" ..getNodesSkipped() returns 3",
+        metrics.getNodesSkipped(), 3L);
+
+    metrics.reset();
+    InfiniteList<Integer> nums = InfiniteList.generate(() -> 1);
+    Iterator<Integer> iterator = nums.iterator();
+    iterator.next();
+    iterator.next();
+    iterator.next();
+    i.expect("Calling next() 3 times on InfiniteList.generate(() -> 1).iterator()\n" +
+        " ..getElementsMaterialised() returns 3",
+        metrics.getElementsMaterialised(), 3L);
+    i.expect(" ..getNodesCreated() returns 3",
+        metrics.getNodesCreated(), 3L);
+
+    i.expect("The MXBean's \"ElementsMaterialised\" attribute on the platform MBeanServer" +
+        " returns 3",
+        Test16.attribute("ElementsMaterialised"), 3L);
+    i.expect("The MXBean's \"Enabled\" attribute returns true",
+        Test16.attribute("Enabled"), true);
+  }
+
+  /**
+   * Waits for all of 'workers' to finish.
+   *
+   * @param workers The threads to wait for.
+   */
+  private static void joinAll(List<Thread> workers) {
+    for (Thread worker : workers) {
+      try {
+        worker.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Returns an attribute of the metrics MXBean, read via the platform MBeanServer.
+   *
+   * @param name The name of the attribute.
+   * @return The value of the attribute.
+   */
+  private static Object attribute(String name) {
+    try {
+      return ManagementFactory.getPlatformMBeanServer()
+          .getAttribute(new ObjectName("cs2030s.fp:type=Metrics"), name);
+    } catch (JMException e) {
+      return e;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+import cs2030s.fp.InfiniteList;
+import cs2030s.fp.Lazy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test 17 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests the Java Flight
+ * Recorder events for Lazy evaluations and InfiniteList terminal
+ * operations.
+ */
+class Test17 {
+  /**
+   * Main method for Test17.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) throws IOException {
+    CS2030STest i = new CS2030STest();
+
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable("cs2030s.fp.LazyEvaluation").withThreshold(Duration.ofMillis(20));
+      recording.enable("cs2030s.fp.Reduce").withThreshold(Duration.ZERO);
+      recording.start();
+
+      Lazy.of(() -> Test17.slowly(1)).get();
+      Lazy.of(2).map(x -> x + 1).get();
+      Lazy.of(3).map(x -> Test17.slowly(x + 1)).get();
+      Lazy.of(4).filter(x -> Test17.slowly(x > 0)).get();
+      InfiniteList.generate(() -> 5).map(x -> Test17.slowly(x + 1)).head();
+      InfiniteList.iterate(6, x -> Test17.slowly(x + 1)).tail().head();
+
+      InfiniteList.iterate(1, x -> x + 1).limit(10).count();
+      InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(3).toList();
+      InfiniteList.iterate(1, x -> x + 1).limit(5).reduce(0, (x, y) -> x + y);
+      InfiniteList.iterate(1, x -> x + 1, 4).limit(6).count();
+      InfiniteList.iterate(1, x -> x + 1, 4).filter(x -> x % 3 == 0).limit(5).toList();
+      InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(7)
+          .parallelReduce(0, (x, y) -> x + y, (x, y) -> x + y);
+
+      recording.stop();
+      Path file = Files.createTempFile("Test17", ".jfr");
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+      Files.delete(file);
+    }
+
+    i.expect("Recording cs2030s.fp.LazyEvaluation with a 20 ms threshold\n" +
+        "Lazy.of(() -> slowly(1)).get()\n" +
+        "Lazy.of(2).map(x -> x + 1).get()\n" +
+        "Lazy.of(3).map(x -> slowly(x + 1)).get()\n" +
+        "Lazy.of(4).filter(x -> slowly(x > 0)).get()\n" +
+        "InfiniteList.generate(() -> 5).map(x -> slowly(x + 1)).head()\n" +
+        "InfiniteList.iterate(6, x -> slowly(x + 1)).tail().head()\n" +
+        " ..records the slow 'of', 'map' and 'filter' evaluations, and the slow node head" +
+        " and tail",
+        Test17.describe(events, "cs2030s.fp.LazyEvaluation",
+            e -> e.getString("operation") + " " + Test17.enclosing(e.getClass("function"))),
+        List.of("of Test17", "map Test17", "filter Test17", "head InfiniteList",
+            "tail InfiniteList"));
+    i.expect(" ..whose durations are above the threshold",
+        Test17.describe(events, "cs2030s.fp.LazyEvaluation",
+            e -> e.getDuration().compareTo(Duration.ofMillis(20)) >= 0),
+        List.of(true, true, true, true, true));
+
+    i.expect("Recording cs2030s.fp.Reduce with no threshold\n" +
+        "InfiniteList.iterate(1, x -> x + 1).limit(10).count()\n" +
+        "InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(3).toList()\n" +
+        "InfiniteList.iterate(1, x -> x + 1).limit(5).reduce(0, (x, y) -> x + y)\n" +
+        "InfiniteList.iterate(1, x -> x + 1, 4).limit(6).count()\n" +
+        "InfiniteList.iterate(1, x -> x + 1, 4).filter(x -> x % 3 == 0).limit(5).toList()\n" +
+        "InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(7)\n" +
+        "    .parallelReduce(0, (x, y) -> x + y, (x, y) -> x + y)\n" +
+        " ..records each operation and the number of elements",
+        Test17.describe(events, "cs2030s.fp.Reduce",
+            e -> Test17.operation(e) + " " + e.getLong("elements")),
+        List.of("count 10", "toList 3", "reduce 5", "count 6", "toList 5",
+            "parallelReduce 7"));
+    i.expect(" ..records the accumulator of the reduce",
+        Test17.describe(events, "cs2030s.fp.Reduce",
+            e -> e.getClass("accumulator").getName().startsWith("Test17")),
+        List.of(false, false, true, false, false, true));
+  }
+
+  /**
+   * Returns 'value' after sleeping for 50 ms, standing in for an expensive function.
+   *
+   * @param <T> The type of the value.
+   * @param value The value to return.
+   * @return 'value'.
+   */
+  private static <T> T slowly(T value) {
+    try {
+      Thread.sleep(50);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return value;
+  }
+
+  /**
+   * Returns the InfiniteList terminal operation that recorded 'event', ie.
+   * the last InfiniteList method in its stack trace.
+   *
+   * @param event The recorded event.
+   * @return The name of the terminal operation.
+   */
+  private static String operation(RecordedEvent event) {
+    String operation = "?";
+    for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+      if (frame.getMethod().getType().getName().startsWith("cs2030s.fp.InfiniteList")) {
+        operation = frame.getMethod().getName();
+      }
+    }
+    return operation;
+  }
+
+  /**
+   * Returns the simple name of the top-level class that declared 'function',
+   * eg. "Test17" for a lambda in this class.
+   *
+   * @param function The recorded class of a function.
+   * @return The simple name of its top-level class.
+   */
+  private static String enclosing(RecordedClass function) {
+    String name = function.getName().split("\\$")[0];
+    return name.substring(name.lastIndexOf('.') + 1);
+  }
+
+  /**
+   * Describes the events named 'name' via 'describer', in the order they started.
+   *
+   * @param <T> The type of the descriptions.
+   * @param events The recorded events.
+   * @param name The name of the events to describe.
+   * @param describer Describes an event.
+   * @return The descriptions of the events.
+   */
+  private static <T> List<T> describe(List<RecordedEvent> events, String name,
+      Function<RecordedEvent, T> describer) {
+    return events.stream()
+        .filter(e -> e.getEventType().getName().equals(name))
+        .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+        .map(describer)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,124 @@
+import cs2030s.fp.InfiniteList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 18 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that prefetch()
+ * evaluates the elements of an InfiniteList ahead of the consumer, in
+ * order and once each.
+ */
+class Test18 {
+  /**
+   * Main method for Test18.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    AtomicInteger evaluated = new AtomicInteger();
+    InfiniteList<Integer> prefetched = InfiniteList.iterate(1, x -> x + 1)
+        .map(x -> {
+          evaluated.incrementAndGet();
+          return x * 10;
+        })
+        .prefetch(4, executor);
+    i.expect("AtomicInteger evaluated = new AtomicInteger()\n" +
+        "InfiniteList<Integer> prefetched = InfiniteList.iterate(1, x -> x + 1)\n" +
+        "    .map(x -> { evaluated.incrementAndGet(); return x * 10; })\n" +
+        "    .prefetch(4, executor)\n" +
+        " ..evaluates the first 5 elements without being consumed",
+        Test18.awaitEvaluated(evaluated, 5), 5);
+    i.expect("prefetched.head() returns 10",
+        prefetched.head(), 10);
+    i.expect(" ..then 5 elements have been evaluated",
+        Test18.awaitEvaluated(evaluated, 5), 5);
+    i.expect("prefetched.limit(10).toList() returns [10, 20, 30, 40, 50, 60, 70, 80, 90, 100]",
+        prefetched.limit(10).toList(), List.of(10, 20, 30, 40, 50, 60, 70, 80, 90, 100));
+    i.expect(" ..then the 11th element, reached by limit(10), and the 4 after it" +
+        " have been evaluated",
+        Test18.awaitEvaluated(evaluated, 15), 15);
+    i.expect("prefetched.limit(10).toList() again returns the memoised elements",
+        prefetched.limit(10).toList(), List.of(10, 20, 30, 40, 50, 60, 70, 80, 90, 100));
+    i.expect(" ..without evaluating any element again",
+        Test18.awaitEvaluated(evaluated, 15), 15);
+
+    AtomicInteger stepped = new AtomicInteger();
+    InfiniteList<Integer> mapped = InfiniteList.iterate(1, x -> {
+      stepped.incrementAndGet();
+      return x + 1;
+    }).prefetch(4, executor).map(x -> x * 10);
+    i.expect("AtomicInteger stepped = new AtomicInteger()\n" +
+        "InfiniteList<Integer> mapped = InfiniteList.iterate(1, x -> { stepped.incrementAndGet();" +
+        " return x + 1; })\n" +
+        "    .prefetch(4, executor).map(x -> x * 10)\n" +
+        "mapped.limit(10).toList() returns [10, 20, 30, 40, 50, 60, 70, 80, 90, 100]",
+        mapped.limit(10).toList(), List.of(10, 20, 30, 40, 50, 60, 70, 80, 90, 100));
+    i.expect(" ..then the view's nodes up to the 11th, reached by limit(10), and the 4" +
+        " after it have been evaluated",
+        Test18.awaitEvaluated(stepped, 15), 15);
+
+    List<Integer> consumed = new ArrayList<>();
+    for (int x : InfiniteList.iterate(1, x -> x + 1).limit(1_000).prefetch(16, executor)) {
+      consumed.add(x);
+    }
+    i.expect("Iterating over InfiniteList.iterate(1, x -> x + 1).limit(1_000)" +
+        ".prefetch(16, executor)\n" +
+        " ..consumes 1000 elements in order",
+        consumed.equals(InfiniteList.iterate(1, x -> x + 1).limit(1_000).toList()), true);
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).prefetch(2, executor)" +
+        ".filter(x -> x % 3 == 0).map(x -> x * 2).limit(4).toList()" +
+        " returns [6, 12, 18, 24]",
+        InfiniteList.iterate(1, x -> x + 1).prefetch(2, executor)
+            .filter(x -> x % 3 == 0).map(x -> x * 2).limit(4).toList(),
+        List.of(6, 12, 18, 24));
+    i.expect("InfiniteList.generate(() -> 1).limit(3).prefetch(8, executor).count()" +
+        " returns 3",
+        InfiniteList.generate(() -> 1).limit(3).prefetch(8, executor).count(), 3L);
+
+    InfiniteList<Integer> failing = InfiniteList.iterate(1, x -> x + 1)
+        .map(x -> 10 / (3 - x))
+        .prefetch(4, executor);
+    i.expect("InfiniteList<Integer> failing = InfiniteList.iterate(1, x -> x + 1)\n" +
+        "    .map(x -> 10 / (3 - x)).prefetch(4, executor)\n" +
+        "failing.limit(2).toList() returns [5, 10]",
+        failing.limit(2).toList(), List.of(5, 10));
+    i.expectException("failing.limit(3).toList()",
+        () -> failing.limit(3).toList(), new ArithmeticException("/ by zero"));
+
+    i.expectException("InfiniteList.iterate(1, x -> x + 1).prefetch(0, executor)" +
+        "",
+        () -> InfiniteList.iterate(1, x -> x + 1).prefetch(0, executor),
+        new IllegalArgumentException("depth must be positive: 0"));
+    i.expect("InfiniteList.sentinel().prefetch(4, executor).isSentinel() returns true",
+        InfiniteList.sentinel().prefetch(4, executor).isSentinel(), true);
+
+    executor.shutdown();
+  }
+
+  /**
+   * Waits for prefetching to evaluate 'expected' elements, giving up after
+   * 10 seconds, then a little longer in case it evaluates more.
+   *
+   * @param evaluated The number of elements evaluated so far.
+   * @param expected The number of elements expected to be evaluated.
+   * @return The number of elements evaluated.
+   */
+  private static int awaitEvaluated(AtomicInteger evaluated, int expected) {
+    try {
+      long deadline = System.nanoTime() + 10_000_000_000L;
+      while (evaluated.get() < expected && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      Thread.sleep(100);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return evaluated.get();
+  }
+}
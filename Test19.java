@@ -0,0 +1,114 @@
+import cs2030s.fp.InfiniteList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 19 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that mapParallel()
+ * transforms the elements of an InfiniteList concurrently, in order, and
+ * with a bounded number of elements in flight.
+ */
+class Test19 {
+  /**
+   * Main method for Test19.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).mapParallel(x -> x * 2, 4).limit(5).toList()" +
+        " returns [2, 4, 6, 8, 10]",
+        InfiniteList.iterate(1, x -> x + 1).mapParallel(x -> x * 2, 4).limit(5).toList(),
+        List.of(2, 4, 6, 8, 10));
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(200)" +
+        ".mapParallel(x -> sleepFor(200 - x, x), 16, executor).toList()\n" +
+        " ..returns the elements in order, though later elements finish first",
+        InfiniteList.iterate(1, x -> x + 1).limit(200)
+            .mapParallel(x -> Test19.sleepFor(200 - x, x), 16, executor).toList(),
+        InfiniteList.iterate(1, x -> x + 1).limit(200).toList());
+
+    AtomicInteger started = new AtomicInteger();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    InfiniteList<Integer> mapped = InfiniteList.iterate(1, x -> x + 1)
+        .mapParallel(x -> {
+          started.incrementAndGet();
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Test19.sleepFor(20, x);
+          running.decrementAndGet();
+          return x;
+        }, 4, executor);
+    i.expect("InfiniteList<Integer> mapped = InfiniteList.iterate(1, x -> x + 1)" +
+        ".mapParallel(x -> sleepFor(20, x), 4, executor)\n" +
+        "mapped.head() returns 1",
+        mapped.head(), 1);
+    Test19.sleepFor(100, 0);
+    i.expect(" ..and only started transforming the first 4 elements",
+        started.get(), 4);
+    i.expect("mapped.limit(40).reduce(0, (x, y) -> x + y) returns 820",
+        mapped.limit(40).reduce(0, (x, y) -> x + y), 820);
+    i.expect(" ..with more than 1 and at most 4 elements transformed at once",
+        maxRunning.get() > 1 && maxRunning.get() <= 4, true);
+    Test19.sleepFor(100, 0);
+    i.expect(" ..and at most 4 elements started past the 40th",
+        started.get() <= 44, true);
+
+    AtomicInteger evaluated = new AtomicInteger();
+    InfiniteList<Integer> once = InfiniteList.iterate(1, x -> x + 1).limit(10)
+        .mapParallel(x -> {
+          evaluated.incrementAndGet();
+          return x;
+        }, 3, executor);
+    once.toList();
+    once.toList();
+    i.expect("Calling toList() twice on a mapParallel list transforms each element once",
+        evaluated.get(), 10);
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 3 == 0)" +
+        ".mapParallel(x -> x + 1, 2, executor).limit(3).toList() returns [4, 7, 10]",
+        InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 3 == 0)
+            .mapParallel(x -> x + 1, 2, executor).limit(3).toList(),
+        List.of(4, 7, 10));
+    i.expect("InfiniteList.iterate(1, x -> x + 1, 4).limit(10)" +
+        ".mapParallel(x -> x * x, 3, executor).count() returns 10",
+        InfiniteList.iterate(1, x -> x + 1, 4).limit(10)
+            .mapParallel(x -> x * x, 3, executor).count(), 10L);
+
+    InfiniteList<Integer> failing = InfiniteList.iterate(1, x -> x + 1)
+        .mapParallel(x -> 10 / (3 - x), 8, executor);
+    i.expect("InfiniteList<Integer> failing = InfiniteList.iterate(1, x -> x + 1)\n" +
+        "    .mapParallel(x -> 10 / (3 - x), 8, executor)\n" +
+        "failing.limit(2).toList() returns [5, 10]",
+        failing.limit(2).toList(), List.of(5, 10));
+    i.expectException("failing.limit(3).toList()",
+        () -> failing.limit(3).toList(), new ArithmeticException("/ by zero"));
+
+    i.expectException("InfiniteList.iterate(1, x -> x + 1).mapParallel(x -> x, 0)",
+        () -> InfiniteList.iterate(1, x -> x + 1).mapParallel(x -> x, 0),
+        new IllegalArgumentException("maxInFlight must be positive: 0"));
+    i.expect("InfiniteList.sentinel().mapParallel(x -> x, 4).isSentinel() returns true",
+        InfiniteList.sentinel().mapParallel(x -> x, 4).isSentinel(), true);
+
+    executor.shutdown();
+  }
+
+  /**
+   * Returns 'value' after sleeping for 'millis' ms, standing in for an I/O-heavy lookup.
+   *
+   * @param <T> The type of the value.
+   * @param millis The time to sleep for.
+   * @param value The value to return.
+   * @return 'value'.
+   */
+  private static <T> T sleepFor(long millis, T value) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return value;
+  }
+}
@@ -0,0 +1,143 @@
+import cs2030s.fp.InfiniteList;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 20 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests InfiniteLists of the
+ * records of memory-mapped files, via records() and lines().
+ */
+class Test20 {
+  /**
+   * Main method for Test20.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) throws IOException {
+    CS2030STest i = new CS2030STest();
+
+    Path text = Test20.write("alpha\nbeta\r\n\ngamma \u00e9");
+    i.expect("For a file containing \"alpha\\nbeta\\r\\n\\ngamma \\u00e9\"\n" +
+        "InfiniteList.lines(file).toList() returns [alpha, beta, , gamma \\u00e9]",
+        InfiniteList.lines(text).toList(), List.of("alpha", "beta", "", "gamma \u00e9"));
+    i.expect("InfiniteList.records(file, bytes -> bytes.remaining()).toList()" +
+        " returns [5, 5, 0, 8]",
+        InfiniteList.records(text, bytes -> bytes.remaining()).toList(),
+        List.of(5, 5, 0, 8));
+    Files.delete(text);
+
+    Path trailing = Test20.write("one\ntwo\n");
+    i.expect("For a file containing \"one\\ntwo\\n\"\n" +
+        "InfiniteList.lines(file).toList() returns [one, two]",
+        InfiniteList.lines(trailing).toList(), List.of("one", "two"));
+    Files.delete(trailing);
+
+    Path empty = Test20.write("");
+    i.expect("For an empty file, InfiniteList.lines(file).isSentinel() returns true",
+        InfiniteList.lines(empty).isSentinel(), true);
+    Files.delete(empty);
+
+    Path fixed = Test20.write("0001000200030004005");
+    AtomicInteger decoded = new AtomicInteger();
+    InfiniteList<Integer> numbers = InfiniteList.records(fixed, 4, bytes -> {
+      decoded.incrementAndGet();
+      return Integer.parseInt(StandardCharsets.US_ASCII.decode(bytes).toString());
+    });
+    i.expect("For a file containing \"0001000200030004005\"\n" +
+        "InfiniteList<Integer> numbers = InfiniteList.records(file, 4, " +
+        "bytes -> Integer.parseInt(..))\n" +
+        " ..doesn't decode any record",
+        decoded.get(), 0);
+    i.expect("numbers.head() returns 1",
+        numbers.head(), 1);
+    i.expect(" ..decoding only the first record",
+        decoded.get(), 1);
+    i.expect("numbers.toList() returns [1, 2, 3, 4, 5]",
+        numbers.toList(), List.of(1, 2, 3, 4, 5));
+    i.expect(" ..decoding each record once",
+        numbers.toList().size() == 5 && decoded.get() == 5, true);
+    i.expectException("InfiniteList.records(file, 0, bytes -> bytes)",
+        () -> Test20.records(fixed, 0),
+        new IllegalArgumentException("recordSize must be positive: 0"));
+    Files.delete(fixed);
+
+    long window = 1L << 28;
+    Path spanning = Test20.sparse(window + 7, 0, "a\n", window - 2, "\nxyz\nlast");
+    i.expect("For a sparse file of 2^28 + 7 bytes, with \"a\\n\" at 0 and" +
+        " \"\\nxyz\\nlast\" at 2^28 - 2\n" +
+        "InfiniteList.records(file, bytes -> bytes.remaining()).toList()" +
+        " returns [1, 268435452, 3, 4]",
+        InfiniteList.records(spanning, bytes -> bytes.remaining()).toList(),
+        List.of(1, (int) window - 4, 3, 4));
+    i.expect("InfiniteList.lines(file).toList().subList(2, 4) returns [xyz, last]",
+        InfiniteList.lines(spanning).toList().subList(2, 4), List.of("xyz", "last"));
+    Files.delete(spanning);
+
+    long gigabyte = 1L << 30;
+    Path large = Test20.sparse(3 * gigabyte + 5, 3 * gigabyte, "large", 0, "x");
+    i.expect("For a sparse file of 3 GB + 5 bytes, with \"x\" at 0 and \"large\" at 3 GB\n" +
+        "InfiniteList.records(file, 1 << 30, bytes -> bytes.remaining() + \":\" +" +
+        " (char) bytes.get(0)).toList()\n" +
+        " ..returns [1073741824:x, 1073741824:\\0, 1073741824:\\0, 5:l]",
+        InfiniteList.records(large, 1 << 30,
+            bytes -> bytes.remaining() + ":" + (char) bytes.get(0)).toList(),
+        List.of(gigabyte + ":x", gigabyte + ":\0", gigabyte + ":\0", "5:l"));
+    Files.delete(large);
+  }
+
+  /**
+   * Returns a new temporary file containing 'content' in UTF-8.
+   *
+   * @param content The content of the file.
+   * @return The path of the file.
+   */
+  private static Path write(String content) throws IOException {
+    Path file = Files.createTempFile("Test20", ".txt");
+    Files.writeString(file, content);
+    return file;
+  }
+
+  /**
+   * Returns a new sparse temporary file of 'size' bytes, which are zeros
+   * apart from 'first' at 'firstOffset' and 'second' at 'secondOffset'.
+   *
+   * @param size The size of the file.
+   * @param firstOffset The offset of 'first'.
+   * @param first The first content.
+   * @param secondOffset The offset of 'second'.
+   * @param second The second content.
+   * @return The path of the file.
+   */
+  private static Path sparse(long size, long firstOffset, String first,
+      long secondOffset, String second) throws IOException {
+    Path file = Files.createTempFile("Test20", ".bin");
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.setLength(size);
+      raf.seek(firstOffset);
+      raf.write(first.getBytes(StandardCharsets.UTF_8));
+      raf.seek(secondOffset);
+      raf.write(second.getBytes(StandardCharsets.UTF_8));
+    }
+    return file;
+  }
+
+  /**
+   * Calls 'InfiniteList.records(file, recordSize, bytes -> bytes)', for
+   * 'expectException', which only takes Runnables.
+   *
+   * @param file The file to read.
+   * @param recordSize The number of bytes in each record.
+   */
+  private static void records(Path file, int recordSize) {
+    try {
+      InfiniteList.records(file, recordSize, bytes -> bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
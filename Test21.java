@@ -0,0 +1,111 @@
+import cs2030s.fp.Codec;
+import cs2030s.fp.InfiniteList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 21 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests writing the evaluated
+ * prefix of an InfiniteList with snapshot(), and reloading it with load().
+ */
+class Test21 {
+  /**
+   * Main method for Test21.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) throws IOException {
+    CS2030STest i = new CS2030STest();
+    Path file = Files.createTempFile("Test21", ".bin");
+
+    InfiniteList<Integer> nums = InfiniteList.iterate(1, x -> x * 2);
+    nums.limit(10).toList();
+    i.expect("InfiniteList<Integer> nums = InfiniteList.iterate(1, x -> x * 2)\n" +
+        "After nums.limit(10).toList()\n" +
+        "nums.snapshot(file, Codec.ints()) returns 11, as the 11th node was reached",
+        nums.snapshot(file, Codec.ints()), 11L);
+    i.expect(" ..writing 5 header bytes, 5 bytes per element and an end byte",
+        Files.size(file), 61L);
+
+    AtomicInteger applied = new AtomicInteger();
+    InfiniteList<Integer> loaded = InfiniteList.load(file, Codec.ints(), x -> {
+      applied.incrementAndGet();
+      return x * 2;
+    });
+    i.expect("InfiniteList<Integer> loaded = InfiniteList.load(file, Codec.ints(), x -> x * 2)\n" +
+        "loaded.limit(10).toList() returns [1, 2, 4, .., 512]",
+        loaded.limit(10).toList(), nums.limit(10).toList());
+    i.expect(" ..without applying x -> x * 2",
+        applied.get(), 0);
+    i.expect("loaded.limit(13).toList() returns [1, 2, 4, .., 4096]",
+        loaded.limit(13).toList(), nums.limit(13).toList());
+    i.expect(" ..applying x -> x * 2 3 times, from the last loaded element",
+        applied.get(), 3);
+    i.expect("loaded.snapshot(file, Codec.ints()) then returns 14",
+        loaded.snapshot(file, Codec.ints()), 14L);
+    i.expect("InfiniteList.load(file, Codec.ints()).toList() returns [1, 2, 4, .., 8192]",
+        InfiniteList.load(file, Codec.ints()).toList(), nums.limit(14).toList());
+
+    InfiniteList<String> words = InfiniteList.iterate("a", x -> x + "b").limit(3);
+    words.toList();
+    i.expect("InfiniteList<String> words = InfiniteList.iterate(\"a\", x -> x + \"b\").limit(3)\n" +
+        "After words.toList(), words.snapshot(file, Codec.strings()) returns 3",
+        words.snapshot(file, Codec.strings()), 3L);
+    i.expect("InfiniteList.load(file, Codec.strings(), x -> x + \"b\").toList()" +
+        " returns [a, ab, abb], as the list had ended",
+        InfiniteList.load(file, Codec.strings(), x -> x + "b").toList(),
+        List.of("a", "ab", "abb"));
+
+    InfiniteList<Integer> evens = InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0);
+    evens.limit(3).toList();
+    i.expect("InfiniteList<Integer> evens = InfiniteList.iterate(1, x -> x + 1)" +
+        ".filter(x -> x % 2 == 0)\n" +
+        "After evens.limit(3).toList(), evens.snapshot(file, Codec.ints()) returns 3",
+        evens.snapshot(file, Codec.ints()), 3L);
+    i.expect("InfiniteList.load(file, Codec.ints()).toList() returns [2, 4, 6]",
+        InfiniteList.load(file, Codec.ints()).toList(), List.of(2, 4, 6));
+
+    InfiniteList<Long> chunked = InfiniteList.iterate(1L, x -> x + 1, 4);
+    chunked.limit(5).toList();
+    i.expect("InfiniteList<Long> chunked = InfiniteList.iterate(1L, x -> x + 1, 4)\n" +
+        "After chunked.limit(5).toList(), chunked.snapshot(file, Codec.longs())" +
+        " returns 8, as 2 chunks were evaluated",
+        chunked.snapshot(file, Codec.longs()), 8L);
+    i.expect("InfiniteList.load(file, Codec.longs(), x -> x + 1).limit(10).toList()" +
+        " returns [1, .., 10]",
+        InfiniteList.load(file, Codec.longs(), x -> x + 1).limit(10).toList(),
+        InfiniteList.iterate(1L, x -> x + 1).limit(10).toList());
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).snapshot(file, Codec.ints()) returns 1," +
+        " as only the seed is evaluated",
+        InfiniteList.iterate(1, x -> x + 1).snapshot(file, Codec.ints()), 1L);
+    i.expect("InfiniteList.generate(() -> 1).snapshot(file, Codec.ints()) returns 0",
+        InfiniteList.generate(() -> 1).snapshot(file, Codec.ints()), 0L);
+    i.expectException("InfiniteList.load(file, Codec.ints(), x -> x)",
+        () -> Test21.load(file, Codec.ints()), new UncheckedIOException(new IOException()));
+
+    Files.writeString(file, "not a snapshot");
+    i.expectException("After overwriting the file, InfiniteList.load(file, Codec.ints())",
+        () -> Test21.load(file, Codec.ints()), new UncheckedIOException(new IOException()));
+    Files.delete(file);
+  }
+
+  /**
+   * Calls 'InfiniteList.load(file, codec, x -> x)', for 'expectException',
+   * which only takes Runnables.
+   *
+   * @param <T> The value type of the list.
+   * @param file The file to read.
+   * @param codec The Codec decoding the elements.
+   */
+  private static <T> void load(Path file, Codec<T> codec) {
+    try {
+      InfiniteList.load(file, codec, x -> x);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+import cs2030s.fp.InfiniteList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Test 22 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests indexed access to
+ * InfiniteList elements via get() and drop().
+ */
+class Test22 {
+  /**
+   * Main method for Test22.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+
+    InfiniteList<Integer> nums = InfiniteList.iterate(0, x -> x + 1);
+    i.expect("InfiniteList<Integer> nums = InfiniteList.iterate(0, x -> x + 1)\n" +
+        "nums.get(0) returns 0",
+        nums.get(0), 0);
+    i.expect("nums.get(5) returns 5",
+        nums.get(5), 5);
+    i.expect("nums.get(5_000_000) returns 5000000",
+        nums.get(5_000_000), 5_000_000);
+    i.expect("nums.get(5_000_100) returns 5000100",
+        nums.get(5_000_100), 5_000_100);
+    i.expect("nums.get(1_000) returns 1000",
+        nums.get(1_000), 1_000);
+    i.expect("nums.get(63), get(64) and get(65) return 63, 64 and 65",
+        List.of(nums.get(63), nums.get(64), nums.get(65)), List.of(63, 64, 65));
+    i.expect("nums.drop(3).limit(3).toList() returns [3, 4, 5]",
+        nums.drop(3).limit(3).toList(), List.of(3, 4, 5));
+    i.expect("nums.drop(0).head() returns 0",
+        nums.drop(0).head(), 0);
+
+    InfiniteList<Integer> evens = InfiniteList.iterate(0, x -> x + 1).filter(x -> x % 2 == 0);
+    boolean isSameAsTail = true;
+    InfiniteList<Integer> curr = evens;
+    for (int k = 0; k < 300; k++) {
+      isSameAsTail &= evens.get(k).equals(curr.head());
+      curr = curr.tail();
+    }
+    i.expect("InfiniteList<Integer> evens = InfiniteList.iterate(0, x -> x + 1)" +
+        ".filter(x -> x % 2 == 0)\n" +
+        "evens.get(k) returns the same as k calls of tail() then head(), for k < 300",
+        isSameAsTail, true);
+    i.expect("evens.get(100_000) returns 200000",
+        evens.get(100_000), 200_000);
+    i.expect("evens.drop(100_000).tail().head() returns 200002",
+        evens.drop(100_000).tail().head(), 200_002);
+    i.expect("evens.get(99_999) returns 199998",
+        evens.get(99_999), 199_998);
+
+    InfiniteList<Integer> chunked = InfiniteList.iterate(0, x -> x + 1, 16)
+        .filter(x -> x % 3 == 0).limit(1_000);
+    i.expect("InfiniteList.iterate(0, x -> x + 1, 16).filter(x -> x % 3 == 0).limit(1_000)" +
+        ".get(999) returns 2997",
+        chunked.get(999), 2997);
+    i.expectException("InfiniteList.iterate(0, x -> x + 1, 16).filter(x -> x % 3 == 0)" +
+        ".limit(1_000).get(1_000)",
+        () -> chunked.get(1_000), new NoSuchElementException());
+    i.expect("InfiniteList.iterate(0, x -> x + 1).limit(100).drop(100).isSentinel()" +
+        " returns true",
+        InfiniteList.iterate(0, x -> x + 1).limit(100).drop(100).isSentinel(), true);
+    i.expect("InfiniteList.iterate(0, x -> x + 1).limit(100).drop(500).isSentinel()" +
+        " returns true",
+        InfiniteList.iterate(0, x -> x + 1).limit(100).drop(500).isSentinel(), true);
+    i.expectException("InfiniteList.iterate(0, x -> x + 1).limit(100).get(100)",
+        () -> InfiniteList.iterate(0, x -> x + 1).limit(100).get(100),
+        new NoSuchElementException());
+    i.expectException("nums.get(-1)",
+        () -> nums.get(-1), new IllegalArgumentException("n must be non-negative: -1"));
+    i.expectException("InfiniteList.sentinel().get(0)",
+        () -> InfiniteList.sentinel().get(0), new NoSuchElementException());
+    i.expect("InfiniteList.sentinel().drop(1_000).isSentinel() returns true",
+        InfiniteList.sentinel().drop(1_000).isSentinel(), true);
+  }
+}
@@ -0,0 +1,107 @@
+import cs2030s.fp.InfiniteList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 23 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that flatMap()
+ * concatenates the inner lists lazily, and skips long runs of empty inner
+ * lists without overflowing the stack.
+ */
+class Test23 {
+  /**
+   * Main method for Test23.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).flatMap(x -> InfiniteList.generate(() -> x)" +
+        ".limit(x)).limit(10).toList()\n" +
+        " ..returns [1, 2, 2, 3, 3, 3, 4, 4, 4, 4]",
+        InfiniteList.iterate(1, x -> x + 1)
+            .flatMap(x -> InfiniteList.generate(() -> x).limit(x)).limit(10).toList(),
+        List.of(1, 2, 2, 3, 3, 3, 4, 4, 4, 4));
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(3)" +
+        ".flatMap(x -> InfiniteList.iterate(x * 10, y -> y + 1).limit(2)).toList()" +
+        " returns [10, 11, 20, 21, 30, 31]",
+        InfiniteList.iterate(1, x -> x + 1).limit(3)
+            .flatMap(x -> InfiniteList.iterate(x * 10, y -> y + 1).limit(2)).toList(),
+        List.of(10, 11, 20, 21, 30, 31));
+
+    AtomicInteger mapped = new AtomicInteger();
+    InfiniteList<Integer> lazy = InfiniteList.iterate(1, x -> x + 1).flatMap(x -> {
+      mapped.incrementAndGet();
+      return InfiniteList.iterate(x, y -> y);
+    });
+    i.expect("InfiniteList<Integer> lazy = InfiniteList.iterate(1, x -> x + 1)" +
+        ".flatMap(x -> InfiniteList.iterate(x, y -> y))\n" +
+        " ..doesn't apply the mapper",
+        mapped.get(), 0);
+    i.expect("lazy.limit(5).toList() returns [1, 1, 1, 1, 1]",
+        lazy.limit(5).toList(), List.of(1, 1, 1, 1, 1));
+    i.expect(" ..applying the mapper once, to the first element of the infinite inner list",
+        mapped.get(), 1);
+
+    AtomicInteger evaluated = new AtomicInteger();
+    InfiniteList<Integer> fanOut = InfiniteList.iterate(1, x -> x + 1)
+        .flatMap(x -> InfiniteList.iterate(0, y -> y + 1).map(y -> {
+          evaluated.incrementAndGet();
+          return x * 1_000 + y;
+        }).limit(1_000_000));
+    i.expect("InfiniteList<Integer> fanOut = InfiniteList.iterate(1, x -> x + 1)\n" +
+        "    .flatMap(x -> InfiniteList.iterate(0, y -> y + 1).map(y -> x * 1_000 + y)" +
+        ".limit(1_000_000))\n" +
+        "fanOut.tail().tail().head() returns 1002",
+        fanOut.tail().tail().head(), 1002);
+    i.expect(" ..evaluating only the first 3 inner elements",
+        evaluated.get(), 3);
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).flatMap(x -> x % 1_000_000 == 0 ?" +
+        " InfiniteList.iterate(x, y -> y).limit(1) : InfiniteList.sentinel()).head()\n" +
+        " ..returns 1000000, skipping 999999 empty inner lists",
+        InfiniteList.iterate(1, x -> x + 1)
+            .flatMap(x -> x % 1_000_000 == 0
+                ? InfiniteList.iterate(x, y -> y).limit(1)
+                : InfiniteList.<Integer>sentinel())
+            .head(),
+        1_000_000);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(1_000_000)" +
+        ".flatMap(x -> InfiniteList.sentinel()).count() returns 0",
+        InfiniteList.iterate(1, x -> x + 1).limit(1_000_000)
+            .flatMap(x -> InfiniteList.<Integer>sentinel()).count(),
+        0L);
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(3)" +
+        ".flatMap(x -> InfiniteList.iterate(x, y -> y + 1).filter(y -> y % 3 != 0).limit(2))" +
+        ".toList()\n" +
+        " ..returns [2, 4, 4, 5, 7, 8]",
+        InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(3)
+            .flatMap(x -> InfiniteList.iterate(x, y -> y + 1).filter(y -> y % 3 != 0).limit(2))
+            .toList(),
+        List.of(2, 4, 4, 5, 7, 8));
+
+    List<Integer> streamed = new ArrayList<>();
+    Iterator<Integer> iterator = InfiniteList.iterate(1, x -> x + 1)
+        .flatMap(x -> InfiniteList.iterate(x, y -> y).limit(2)).streamingIterator();
+    for (int k = 0; k < 6; k++) {
+      streamed.add(iterator.next());
+    }
+    i.expect("Streaming 6 elements of InfiniteList.iterate(1, x -> x + 1)" +
+        ".flatMap(x -> InfiniteList.iterate(x, y -> y).limit(2))" +
+        " returns [1, 1, 2, 2, 3, 3]",
+        streamed, List.of(1, 1, 2, 2, 3, 3));
+
+    InfiniteList<Object> objects = InfiniteList.iterate(1, x -> x + 1).limit(2)
+        .<Object>flatMap(x -> InfiniteList.iterate("s" + x, y -> y).limit(1));
+    i.expect("InfiniteList<Object> objects = InfiniteList.iterate(1, x -> x + 1).limit(2)" +
+        ".<Object>flatMap(x -> InfiniteList.iterate(\"s\" + x, y -> y).limit(1))\n" +
+        "objects.toList() returns [s1, s2]",
+        objects.toList(), List.of("s1", "s2"));
+    i.expect("InfiniteList.sentinel().flatMap(x -> InfiniteList.sentinel()).isSentinel()" +
+        " returns true",
+        InfiniteList.sentinel().flatMap(x -> InfiniteList.sentinel()).isSentinel(), true);
+  }
+}
@@ -0,0 +1,161 @@
+import cs2030s.fp.InfiniteList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 24 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that zipWith()
+ * combines the elements of two InfiniteLists in order, ends with the
+ * shorter list, and evaluates both lists at the same time when given an
+ * Executor.
+ */
+class Test24 {
+  /**
+   * Main method for Test24.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).zipWith(InfiniteList.iterate(10, x -> x * 10)," +
+        " (x, y) -> x + y).limit(4).toList()\n" +
+        " ..returns [11, 102, 1003, 10004]",
+        InfiniteList.iterate(1, x -> x + 1)
+            .zipWith(InfiniteList.iterate(10, x -> x * 10), (x, y) -> x + y).limit(4).toList(),
+        List.of(11, 102, 1003, 10004));
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(3)" +
+        ".zipWith(InfiniteList.generate(() -> \"a\"), (x, y) -> y + x).toList()" +
+        " returns [a1, a2, a3]",
+        InfiniteList.iterate(1, x -> x + 1).limit(3)
+            .zipWith(InfiniteList.generate(() -> "a"), (x, y) -> y + x).toList(),
+        List.of("a1", "a2", "a3"));
+    i.expect("InfiniteList.generate(() -> 1)" +
+        ".zipWith(InfiniteList.iterate(1, x -> x + 1).limit(2), (x, y) -> x + y).count()" +
+        " returns 2",
+        InfiniteList.generate(() -> 1)
+            .zipWith(InfiniteList.iterate(1, x -> x + 1).limit(2), (x, y) -> x + y).count(),
+        2L);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0)" +
+        ".zipWith(InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 3 == 0)," +
+        " (x, y) -> x * y).limit(3).toList()\n" +
+        " ..returns [6, 24, 54]",
+        InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0)
+            .zipWith(InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 3 == 0),
+                (x, y) -> x * y)
+            .limit(3).toList(),
+        List.of(6, 24, 54));
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(5)" +
+        ".zipWith(InfiniteList.iterate(1, x -> x + 1).filter(x -> x > 2), (x, y) -> x * y)" +
+        ".toList()\n" +
+        " ..returns [3, 8, 15, 24, 35]",
+        InfiniteList.iterate(1, x -> x + 1).limit(5)
+            .zipWith(InfiniteList.iterate(1, x -> x + 1).filter(x -> x > 2), (x, y) -> x * y)
+            .toList(),
+        List.of(3, 8, 15, 24, 35));
+    i.expect("InfiniteList.iterate(0, x -> x + 1).filter(x -> x % 1_000_000 == 999_999)" +
+        ".zipWith(InfiniteList.generate(() -> 1), (x, y) -> x + y).head() returns 1000000",
+        InfiniteList.iterate(0, x -> x + 1).filter(x -> x % 1_000_000 == 999_999)
+            .zipWith(InfiniteList.generate(() -> 1), (x, y) -> x + y).head(),
+        1_000_000);
+
+    AtomicInteger evaluated = new AtomicInteger();
+    InfiniteList<Integer> lazy = InfiniteList.iterate(1, x -> {
+      evaluated.incrementAndGet();
+      return x + 1;
+    }).zipWith(InfiniteList.iterate(1, x -> x + 1), (x, y) -> x * y);
+    i.expect("InfiniteList<Integer> lazy = InfiniteList.iterate(1, x -> x + 1)" +
+        ".zipWith(InfiniteList.iterate(1, x -> x + 1), (x, y) -> x * y)\n" +
+        "lazy.tail().tail().head() returns 9",
+        lazy.tail().tail().head(), 9);
+    i.expect(" ..applying the first list's step only twice",
+        evaluated.get(), 2);
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).zipWith(InfiniteList.iterate(1, x -> x * 2)," +
+        " (x, y) -> x + y, executor).limit(5).toList()\n" +
+        " ..returns [2, 4, 7, 12, 21]",
+        InfiniteList.iterate(1, x -> x + 1)
+            .zipWith(InfiniteList.iterate(1, x -> x * 2), (x, y) -> x + y, executor)
+            .limit(5).toList(),
+        List.of(2, 4, 7, 12, 21));
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(2)" +
+        ".zipWith(InfiniteList.iterate(1, x -> x + 1), (x, y) -> x + y, executor).toList()" +
+        " returns [2, 4]",
+        InfiniteList.iterate(1, x -> x + 1).limit(2)
+            .zipWith(InfiniteList.iterate(1, x -> x + 1), (x, y) -> x + y, executor).toList(),
+        List.of(2, 4));
+
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    InfiniteList.iterate(1, x -> Test24.sleepFor(20, x + 1, running, maxRunning))
+        .zipWith(InfiniteList.iterate(1, x -> Test24.sleepFor(20, x + 1, running, maxRunning)),
+            (x, y) -> x + y, executor)
+        .limit(10).toList();
+    i.expect("Zipping two lists whose elements take 20 ms each, with an executor\n" +
+        " ..evaluates the elements of both lists at the same time",
+        maxRunning.get(), 2);
+
+    running.set(0);
+    maxRunning.set(0);
+    InfiniteList.iterate(1, x -> Test24.sleepFor(5, x + 1, running, maxRunning))
+        .zipWith(InfiniteList.iterate(1, x -> Test24.sleepFor(5, x + 1, running, maxRunning)),
+            (x, y) -> x + y)
+        .limit(10).toList();
+    i.expect(" ..but one at a time without an executor",
+        maxRunning.get(), 1);
+
+    i.expectException("InfiniteList.iterate(1, x -> x + 1)" +
+        ".zipWith(InfiniteList.iterate(3, x -> x - 1).map(x -> 10 / x), (x, y) -> x + y," +
+        " executor).limit(5).toList()\n" +
+        " ..throws the exception from the second list",
+        () -> InfiniteList.iterate(1, x -> x + 1)
+            .zipWith(InfiniteList.iterate(3, x -> x - 1).map(x -> 10 / x), (x, y) -> x + y,
+                executor)
+            .limit(5).toList(),
+        new ArithmeticException("/ by zero"));
+
+    i.expect("InfiniteList.sentinel().zipWith(InfiniteList.generate(() -> 1), (x, y) -> y)" +
+        ".isSentinel() returns true",
+        InfiniteList.sentinel().zipWith(InfiniteList.generate(() -> 1), (x, y) -> y)
+            .isSentinel(),
+        true);
+    i.expect("InfiniteList.generate(() -> 1).zipWith(InfiniteList.sentinel(), (x, y) -> x)" +
+        ".isSentinel() returns true",
+        InfiniteList.generate(() -> 1).zipWith(InfiniteList.sentinel(), (x, y) -> x)
+            .isSentinel(),
+        true);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(100).filter(x -> x < 0)" +
+        ".zipWith(InfiniteList.generate(() -> 1).limit(3), (x, y) -> x).toList()\n" +
+        " ..returns []",
+        InfiniteList.iterate(1, x -> x + 1).limit(100).filter(x -> x < 0)
+            .zipWith(InfiniteList.generate(() -> 1).limit(3), (x, y) -> x).toList(),
+        List.of());
+
+    executor.shutdown();
+  }
+
+  /**
+   * Returns 'value' after sleeping for 'millis' ms, standing in for a slow
+   * step of a simulation, and tracks the number of steps running at once.
+   *
+   * @param <T> The type of the value.
+   * @param millis The time to sleep for.
+   * @param value The value to return.
+   * @param running The number of steps running.
+   * @param maxRunning The maximum number of steps that ran at once.
+   * @return 'value'.
+   */
+  private static <T> T sleepFor(long millis, T value, AtomicInteger running,
+      AtomicInteger maxRunning) {
+    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    running.decrementAndGet();
+    return value;
+  }
+}
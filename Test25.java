@@ -0,0 +1,98 @@
+import cs2030s.fp.InfiniteList;
+import cs2030s.fp.Maybe;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 25 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests the short-circuiting
+ * terminal operations findFirst(), anyMatch(), allMatch() and noneMatch().
+ */
+class Test25 {
+  /**
+   * Main method for Test25.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).findFirst(x -> x % 7 == 0)" +
+        " returns Some[7]",
+        InfiniteList.iterate(1, x -> x + 1).findFirst(x -> x % 7 == 0), Maybe.some(7));
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(5).findFirst(x -> x > 5)" +
+        " returns None",
+        InfiniteList.iterate(1, x -> x + 1).limit(5).findFirst(x -> x > 5), Maybe.none());
+    i.expect("InfiniteList.iterate(1, x -> x + 1).anyMatch(x -> x > 100) returns true",
+        InfiniteList.iterate(1, x -> x + 1).anyMatch(x -> x > 100), true);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(100).anyMatch(x -> x > 100)" +
+        " returns false",
+        InfiniteList.iterate(1, x -> x + 1).limit(100).anyMatch(x -> x > 100), false);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).allMatch(x -> x < 100) returns false",
+        InfiniteList.iterate(1, x -> x + 1).allMatch(x -> x < 100), false);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(99).allMatch(x -> x < 100)" +
+        " returns true",
+        InfiniteList.iterate(1, x -> x + 1).limit(99).allMatch(x -> x < 100), true);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).noneMatch(x -> x == 50) returns false",
+        InfiniteList.iterate(1, x -> x + 1).noneMatch(x -> x == 50), false);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(49).noneMatch(x -> x == 50)" +
+        " returns true",
+        InfiniteList.iterate(1, x -> x + 1).limit(49).noneMatch(x -> x == 50), true);
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0)" +
+        ".findFirst(x -> x % 3 == 0) returns Some[6]",
+        InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0)
+            .findFirst(x -> x % 3 == 0),
+        Maybe.some(6));
+    i.expect("InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(10)" +
+        ".allMatch(x -> x % 2 == 0) returns true",
+        InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(10)
+            .allMatch(x -> x % 2 == 0),
+        true);
+    i.expect("InfiniteList.iterate(1, x -> x + 1, 8).findFirst(x -> x == 20) returns Some[20]",
+        InfiniteList.iterate(1, x -> x + 1, 8).findFirst(x -> x == 20), Maybe.some(20));
+
+    AtomicInteger evaluated = new AtomicInteger();
+    InfiniteList<Integer> counted = InfiniteList.iterate(1, x -> x + 1).map(x -> {
+      evaluated.incrementAndGet();
+      return x;
+    });
+    i.expect("InfiniteList<Integer> counted = InfiniteList.iterate(1, x -> x + 1).map(x -> x)\n" +
+        "counted.anyMatch(x -> x == 5) returns true",
+        counted.anyMatch(x -> x == 5), true);
+    i.expect(" ..evaluating only the first 5 elements",
+        evaluated.get(), 5);
+    i.expect("counted.findFirst(x -> x == 5) returns Some[5]",
+        counted.findFirst(x -> x == 5), Maybe.some(5));
+    i.expect(" ..without evaluating any more elements",
+        evaluated.get(), 5);
+    i.expect("counted.allMatch(x -> x < 8) returns false",
+        counted.allMatch(x -> x < 8), false);
+    i.expect(" ..evaluating only up to the 8th element",
+        evaluated.get(), 8);
+
+    i.expect("InfiniteList.iterate(0, x -> x + 1).findFirst(x -> x == 1_000_000)" +
+        " returns Some[1000000]",
+        InfiniteList.iterate(0, x -> x + 1).findFirst(x -> x == 1_000_000),
+        Maybe.some(1_000_000));
+    i.expect("InfiniteList.iterate(0, x -> x + 1).filter(x -> x > 1_000_000).anyMatch(x -> true)" +
+        " returns true",
+        InfiniteList.iterate(0, x -> x + 1).filter(x -> x > 1_000_000).anyMatch(x -> true),
+        true);
+    i.expect("InfiniteList.iterate(0, x -> x + 1).limit(1_000_000).noneMatch(x -> x < 0)" +
+        " returns true",
+        InfiniteList.iterate(0, x -> x + 1).limit(1_000_000).noneMatch(x -> x < 0), true);
+
+    i.expect("InfiniteList.sentinel().findFirst(x -> true) returns None",
+        InfiniteList.sentinel().findFirst(x -> true), Maybe.none());
+    i.expect("InfiniteList.sentinel().anyMatch(x -> true) returns false",
+        InfiniteList.sentinel().anyMatch(x -> true), false);
+    i.expect("InfiniteList.sentinel().allMatch(x -> false) returns true",
+        InfiniteList.sentinel().allMatch(x -> false), true);
+    i.expect("InfiniteList.sentinel().noneMatch(x -> true) returns true",
+        InfiniteList.sentinel().noneMatch(x -> true), true);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(10).filter(x -> x > 10)" +
+        ".allMatch(x -> false) returns true",
+        InfiniteList.iterate(1, x -> x + 1).limit(10).filter(x -> x > 10)
+            .allMatch(x -> false),
+        true);
+  }
+}
@@ -0,0 +1,107 @@
+import cs2030s.fp.InfiniteList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.StreamSupport;
+
+/**
+ * Test 26 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that the number of
+ * elements known from 'limit' is carried through 'map' and 'filter', so
+ * that count() doesn't evaluate the elements of exactly sized lists, and
+ * toList(), toArray() and spliterator() give the same results as before.
+ */
+class Test26 {
+  /**
+   * Main method for Test26.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+
+    AtomicInteger stepped = new AtomicInteger();
+    AtomicInteger mapped = new AtomicInteger();
+    InfiniteList<Integer> nums = InfiniteList.iterate(0, x -> {
+      stepped.incrementAndGet();
+      return x + 1;
+    }).map(x -> {
+      mapped.incrementAndGet();
+      return x * 2;
+    });
+    i.expect("InfiniteList<Integer> nums = InfiniteList.iterate(0, x -> x + 1).map(x -> x * 2)\n" +
+        "nums.limit(1_000_000).count() returns 1000000",
+        nums.limit(1_000_000).count(), 1_000_000L);
+    i.expect(" ..without evaluating any element",
+        stepped.get() + mapped.get(), 0);
+    i.expect("nums.limit(10).map(x -> x + 1).limit(20).count() returns 10",
+        nums.limit(10).map(x -> x + 1).limit(20).count(), 10L);
+    i.expect("nums.limit(20).limit(10).count() returns 10",
+        nums.limit(20).limit(10).count(), 10L);
+    i.expect(" ..without evaluating any element",
+        stepped.get() + mapped.get(), 0);
+    i.expect("nums.limit(10).filter(x -> x % 4 == 0).count() returns 5",
+        nums.limit(10).filter(x -> x % 4 == 0).count(), 5L);
+    i.expect(" ..evaluating the elements",
+        mapped.get(), 10);
+    i.expect("nums.filter(x -> x % 4 == 0).limit(10).map(x -> x + 1).count() returns 10",
+        nums.filter(x -> x % 4 == 0).limit(10).map(x -> x + 1).count(), 10L);
+    i.expect("nums.limit(10).toList() returns [0, 2, 4, 6, 8, 10, 12, 14, 16, 18]",
+        nums.limit(10).toList(), List.of(0, 2, 4, 6, 8, 10, 12, 14, 16, 18));
+    i.expect("nums.limit(5).tail().count() returns 4",
+        nums.limit(5).tail().count(), 4L);
+
+    i.expect("InfiniteList.iterate(3, x -> x - 1).map(x -> 10 / x).limit(5).count()" +
+        " returns 5, as no element is evaluated",
+        InfiniteList.iterate(3, x -> x - 1).map(x -> 10 / x).limit(5).count(), 5L);
+    i.expectException("InfiniteList.iterate(3, x -> x - 1).map(x -> 10 / x).limit(5).toList()",
+        () -> InfiniteList.iterate(3, x -> x - 1).map(x -> 10 / x).limit(5).toList(),
+        new ArithmeticException("/ by zero"));
+
+    AtomicInteger generated = new AtomicInteger();
+    i.expect("InfiniteList.generate(() -> ++generated, 8).map(x -> x + 1).limit(100).count()" +
+        " returns 100",
+        InfiniteList.generate(() -> generated.incrementAndGet(), 8).map(x -> x + 1).limit(100)
+            .count(),
+        100L);
+    i.expect(" ..without evaluating any element",
+        generated.get(), 0);
+    i.expect("InfiniteList.iterate(1, x -> x + 1, 8).filter(x -> x % 3 == 0).limit(4).count()" +
+        " returns 4",
+        InfiniteList.iterate(1, x -> x + 1, 8).filter(x -> x % 3 == 0).limit(4).count(), 4L);
+    i.expect("InfiniteList.iterate(1, x -> x + 1, 8).limit(10).filter(x -> x % 3 == 0).count()" +
+        " returns 3",
+        InfiniteList.iterate(1, x -> x + 1, 8).limit(10).filter(x -> x % 3 == 0).count(), 3L);
+    i.expect("InfiniteList.iterate(1, x -> x + 1, 8).limit(5).toList() returns [1, 2, 3, 4, 5]",
+        InfiniteList.iterate(1, x -> x + 1, 8).limit(5).toList(), List.of(1, 2, 3, 4, 5));
+    i.expect("InfiniteList.iterate(1, x -> x + 1).takeWhile(x -> x < 4).limit(10).count()" +
+        " returns 3",
+        InfiniteList.iterate(1, x -> x + 1).takeWhile(x -> x < 4).limit(10).count(), 3L);
+
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(4).toArray() returns [1, 2, 3, 4]",
+        Arrays.toString(InfiniteList.iterate(1, x -> x + 1).limit(4).toArray()),
+        "[1, 2, 3, 4]");
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(10).filter(x -> x % 4 == 0).toArray()" +
+        " returns [4, 8]",
+        Arrays.toString(InfiniteList.iterate(1, x -> x + 1).limit(10).filter(x -> x % 4 == 0)
+            .toArray()),
+        "[4, 8]");
+    i.expect("InfiniteList.sentinel().toArray() returns []",
+        Arrays.toString(InfiniteList.sentinel().toArray()), "[]");
+
+    Spliterator<Integer> sized = InfiniteList.iterate(1, x -> x + 1).limit(10).spliterator();
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(10).spliterator()" +
+        ".getExactSizeIfKnown() returns 10",
+        sized.getExactSizeIfKnown(), 10L);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(10).filter(x -> x > 5).spliterator()" +
+        ".getExactSizeIfKnown() returns -1",
+        InfiniteList.iterate(1, x -> x + 1).limit(10).filter(x -> x > 5).spliterator()
+            .getExactSizeIfKnown(),
+        -1L);
+    i.expect("Streaming InfiniteList.iterate(1, x -> x + 1).limit(10).spliterator()" +
+        " sums to 55",
+        StreamSupport.stream(InfiniteList.iterate(1, x -> x + 1).limit(10).spliterator(), false)
+            .mapToInt(x -> x).sum(),
+        55);
+  }
+}
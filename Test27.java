@@ -0,0 +1,114 @@
+import cs2030s.fp.InfiniteList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 27 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that the elements and
+ * tails of InfiniteList nodes are evaluated once and memoised, and that
+ * toString() shows what has been evaluated, for lists whose nodes share
+ * their heads (limit, flatMap) or are read from other threads (prefetch,
+ * mapParallel), and that long chains of such lists are evaluated without
+ * overflowing the stack.
+ */
+class Test27 {
+  /**
+   * Main method for Test27.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    AtomicInteger mapped = new AtomicInteger();
+    InfiniteList<Integer> nums = InfiniteList.iterate(1, x -> x + 1).map(x -> {
+      mapped.incrementAndGet();
+      return x * 10;
+    });
+    i.expect("InfiniteList<Integer> nums = InfiniteList.iterate(1, x -> x + 1).map(x -> x * 10)\n" +
+        "nums.toString() returns [? ?]",
+        nums.toString(), "[? ?]");
+    i.expect("nums.head() returns 10",
+        nums.head(), 10);
+    i.expect("nums.head() returns 10",
+        nums.head(), 10);
+    i.expect(" ..mapping the element only once",
+        mapped.get(), 1);
+    i.expect("nums.toString() returns [[10] ?]",
+        nums.toString(), "[[10] ?]");
+    i.expect("nums.tail() == nums.tail() returns true",
+        nums.tail() == nums.tail(), true);
+    i.expect("nums.toString() returns [[10] [[20] ?]]",
+        nums.toString(), "[[10] [[20] ?]]");
+
+    InfiniteList<Integer> limited = nums.limit(2);
+    i.expect("InfiniteList<Integer> limited = nums.limit(2)\n" +
+        "limited.toString() returns [[10] ?]",
+        limited.toString(), "[[10] ?]");
+    i.expect("limited.tail().toString() returns [[20] ?]",
+        limited.tail().toString(), "[[20] ?]");
+    i.expect("limited.tail().head() returns 20",
+        limited.tail().head(), 20);
+    i.expect("limited.toList() returns [10, 20]",
+        limited.toList(), List.of(10, 20));
+    i.expect(" ..mapping each element only once",
+        mapped.get(), 2);
+
+    InfiniteList<Integer> evens = InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0);
+    i.expect("InfiniteList<Integer> evens = InfiniteList.iterate(1, x -> x + 1)" +
+        ".filter(x -> x % 2 == 0)\n" +
+        "evens.head() returns 2",
+        evens.head(), 2);
+    i.expect("evens.toString() returns [[] [[2] ?]]",
+        evens.toString(), "[[] [[2] ?]]");
+
+    InfiniteList<Integer> flat = InfiniteList.iterate(1, x -> x + 1)
+        .flatMap(x -> InfiniteList.iterate(x, y -> y).limit(x));
+    i.expect("InfiniteList<Integer> flat = InfiniteList.iterate(1, x -> x + 1)" +
+        ".flatMap(x -> InfiniteList.iterate(x, y -> y).limit(x))\n" +
+        "flat.limit(6).toList() returns [1, 2, 2, 3, 3, 3]",
+        flat.limit(6).toList(), List.of(1, 2, 2, 3, 3, 3));
+    i.expect("flat.tail().head() returns 2",
+        flat.tail().head(), 2);
+
+    InfiniteList<Integer> ahead = InfiniteList.iterate(1, x -> x + 1).prefetch(4, executor);
+    i.expect("InfiniteList<Integer> ahead = InfiniteList.iterate(1, x -> x + 1)" +
+        ".prefetch(4, executor)\n" +
+        "ahead.limit(10).toList() returns [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]",
+        ahead.limit(10).toList(), List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    i.expect("Reading it again returns [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]",
+        ahead.limit(10).toList(), List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    i.expect("ahead.tail() == ahead.tail() returns true",
+        ahead.tail() == ahead.tail(), true);
+    i.expect("InfiniteList.iterate(1, x -> x + 1).mapParallel(x -> x * x, 3, executor)" +
+        ".limit(5).toList()\n" +
+        " ..returns [1, 4, 9, 16, 25]",
+        InfiniteList.iterate(1, x -> x + 1).mapParallel(x -> x * x, 3, executor)
+            .limit(5).toList(),
+        List.of(1, 4, 9, 16, 25));
+
+    InfiniteList<Integer> deep = InfiniteList.iterate(0, x -> x + 1);
+    for (int k = 0; k < 1_000_000; k++) {
+      deep = deep.map(x -> x + 1).limit(Long.MAX_VALUE);
+    }
+    i.expect("Mapping and limiting InfiniteList.iterate(0, x -> x + 1) 1_000_000 times\n" +
+        " ..evaluates head() to 1000000 without overflowing the stack",
+        deep.head(), 1_000_000);
+    InfiniteList<Integer> limits = InfiniteList.iterate(0, x -> x + 1);
+    for (int k = 0; k < 1_000_000; k++) {
+      limits = limits.limit(Long.MAX_VALUE);
+    }
+    i.expect("Limiting InfiniteList.iterate(0, x -> x + 1) 1_000_000 times\n" +
+        " ..shows the shared head without overflowing the stack, toString() returns [[0] ?]",
+        limits.toString(), "[[0] ?]");
+
+    i.expect("InfiniteList.sentinel().toString() returns -",
+        InfiniteList.sentinel().toString(), "-");
+    i.expect("InfiniteList.iterate(1, x -> x + 1).limit(1).tail().toString() returns -",
+        InfiniteList.iterate(1, x -> x + 1).limit(1).tail().toString(), "-");
+
+    executor.shutdown();
+  }
+}
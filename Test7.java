@@ -0,0 +1,67 @@
+import cs2030s.fp.InfiniteList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Test 7 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that
+ * InfiniteList head(), tail(), reduce(), count() and toList() do not
+ * overflow the stack on long lists.
+ */
+class Test7 {
+  /**
+   * Main method for Test7.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+
+    i.expectReturn(
+        "InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 100_000 == 0).head()",
+        () -> InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 100_000 == 0).head(), 100_000);
+    i.expectReturn(
+        "InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 100_000 == 0).tail().head()",
+        () -> InfiniteList.iterate(1, x -> x + 1).filter(x -> x % 100_000 == 0).tail().head(),
+        200_000);
+    i.expectException(
+        "InfiniteList.iterate(1, x -> x + 1).limit(100_000).filter(x -> x < 0).head()",
+        () -> InfiniteList.iterate(1, x -> x + 1).limit(100_000).filter(x -> x < 0).head(),
+        new NoSuchElementException());
+    i.expectReturn(
+        "InfiniteList.iterate(1, x -> x + 1).takeWhile(x -> x <= 100_000)" +
+        ".filter(x -> x % 100_000 == 0).toList()",
+        () -> InfiniteList.iterate(1, x -> x + 1).takeWhile(x -> x <= 100_000)
+        .filter(x -> x % 100_000 == 0).toList(),
+        List.of(100_000));
+
+    i.expectReturn(
+        "InfiniteList.iterate(0, x -> x + 1).limit(1_000_000).count()",
+        () -> InfiniteList.iterate(0, x -> x + 1).limit(1_000_000).count(), 1_000_000L);
+    i.expectReturn(
+        "InfiniteList.iterate(0L, x -> x + 1).limit(1_000_000).reduce(0L, (x, y) -> x + y)",
+        () -> InfiniteList.iterate(0L, x -> x + 1).limit(1_000_000).reduce(0L, (x, y) -> x + y),
+        499_999_500_000L);
+    i.expectReturn(
+        "InfiniteList.iterate(0, x -> x + 1).map(x -> x * 2).filter(x -> x % 3 == 0)" +
+        ".limit(100_000).count()",
+        () -> InfiniteList.iterate(0, x -> x + 1).map(x -> x * 2).filter(x -> x % 3 == 0)
+        .limit(100_000).count(),
+        100_000L);
+    i.expectReturn(
+        "InfiniteList.generate(() -> 1).limit(1_000_000).toList().size()",
+        () -> InfiniteList.generate(() -> 1).limit(1_000_000).toList().size(), 1_000_000);
+
+    List<Integer> incrHistory = new ArrayList<>();
+    InfiniteList<Integer> nums = InfiniteList.iterate(0, x -> {
+      incrHistory.add(x);
+      return x + 1;
+    }).limit(100_000);
+    nums.toList();
+    nums.toList();
+    i.expect("InfiniteList<Integer> nums = InfiniteList.iterate(0, x -> x + 1).limit(100_000)\n" +
+        "After nums.toList() twice\n" +
+        " ..causes 100_000 evals of x -> x + 1",
+        () -> incrHistory.size(), 100_000);
+  }
+}
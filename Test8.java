@@ -0,0 +1,80 @@
+import cs2030s.fp.Lazy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test 8 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests that
+ * Lazy.concurrent() evaluates its producer exactly once when raced
+ * by several threads.
+ */
+class Test8 {
+  /** Number of threads racing on the same Lazy instances. */
+  private static final int THREADS = 8;
+  /** Number of Lazy instances raced on. */
+  private static final int CELLS = 20_000;
+
+  /**
+   * Main method for Test8.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    CS2030STest i = new CS2030STest();
+
+    i.expectReturn("Lazy.concurrent(() -> 1).toString()",
+        () -> Lazy.concurrent(() -> 1).toString(), "?");
+    i.expectReturn("Lazy.concurrent(() -> 1).map(x -> x + 1).get()",
+        () -> Lazy.concurrent(() -> 1).map(x -> x + 1).get(), 2);
+    i.expectReturn("Lazy.concurrent(() -> 1).equals(Lazy.of(1))",
+        () -> Lazy.concurrent(() -> 1).equals(Lazy.of(1)), true);
+
+    AtomicInteger evalCount = new AtomicInteger();
+    List<Lazy<Integer>> cells = new ArrayList<>();
+    List<Lazy<Integer>> mappedCells = new ArrayList<>();
+    for (int c = 0; c < CELLS; c++) {
+      int value = c;
+      Lazy<Integer> cell = Lazy.concurrent(() -> {
+        evalCount.incrementAndGet();
+        return value;
+      });
+      cells.add(cell);
+      mappedCells.add(cell.map(x -> {
+        evalCount.incrementAndGet();
+        return x * 2;
+      }));
+    }
+
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger wrongValues = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int c = 0; c < CELLS; c++) {
+          if (cells.get(c).get() != c || mappedCells.get(c).get() != c * 2) {
+            wrongValues.incrementAndGet();
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    i.expect(THREADS + " threads racing get() on " + CELLS + " Lazy.concurrent(..)" +
+        " and their map(..)\n" +
+        " ..causes every producer to be evaluated exactly once",
+        evalCount.get(), 2 * CELLS);
+    i.expect(" ..every thread sees the evaluated values",
+        wrongValues.get(), 0);
+  }
+}
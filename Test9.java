@@ -0,0 +1,83 @@
+import cs2030s.fp.DoubleInfiniteList;
+import cs2030s.fp.IntInfiniteList;
+import cs2030s.fp.IntTransformer;
+import cs2030s.fp.LongInfiniteList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Test 9 for CS2030S Lab 7 (AY21/22 Sem 2).  Tests
+ * for IntInfiniteList, LongInfiniteList and DoubleInfiniteList.
+ */
+class Test9 {
+  /**
+   * Main method for Test9.
+   *
+   * @param args Ignored and unused command line arguments.
+   */
+  public static void main(String[] args) {
+    CS2030STest i = new CS2030STest();
+
+    i.expectReturn("IntInfiniteList.iterate(1, x -> x + 1).toString()",
+        () -> IntInfiniteList.iterate(1, x -> x + 1).toString(), "[[1] ?]");
+    i.expectReturn("IntInfiniteList.generate(() -> 1).map(x -> x * 2).toString()",
+        () -> IntInfiniteList.generate(() -> 1).map(x -> x * 2).toString(), "[? ?]");
+    i.expectReturn("IntInfiniteList.iterate(1, x -> x + 1).map(x -> x * 2).tail().head()",
+        () -> IntInfiniteList.iterate(1, x -> x + 1).map(x -> x * 2).tail().head(), 4);
+    i.expectReturn("IntInfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).tail().head()",
+        () -> IntInfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).tail().head(), 4);
+    i.expectReturn("IntInfiniteList.iterate(1, x -> x + 1).limit(4).sum()",
+        () -> IntInfiniteList.iterate(1, x -> x + 1).limit(4).sum(), 10);
+    i.expectReturn("IntInfiniteList.iterate(1, x -> x + 1).limit(10).filter(x -> x % 2 == 0)" +
+        ".count()",
+        () -> IntInfiniteList.iterate(1, x -> x + 1).limit(10).filter(x -> x % 2 == 0).count(),
+        5L);
+    i.expectReturn("IntInfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0).limit(3)" +
+        ".toArray()",
+        () -> Arrays.toString(IntInfiniteList.iterate(1, x -> x + 1).filter(x -> x % 2 == 0)
+            .limit(3).toArray()),
+        "[2, 4, 6]");
+    i.expectReturn("IntInfiniteList.iterate(1, x -> x + 1).takeWhile(x -> x < 5)" +
+        ".reduce(1, (x, y) -> x * y)",
+        () -> IntInfiniteList.iterate(1, x -> x + 1).takeWhile(x -> x < 5)
+            .reduce(1, (x, y) -> x * y),
+        24);
+    i.expectReturn("IntInfiniteList.sentinel().sum()",
+        () -> IntInfiniteList.sentinel().sum(), 0);
+    i.expectException("IntInfiniteList.iterate(1, x -> x + 1).limit(1).tail().head()",
+        () -> IntInfiniteList.iterate(1, x -> x + 1).limit(1).tail().head(),
+        new NoSuchElementException());
+
+    List<Integer> incrHistory = new ArrayList<>();
+    IntTransformer incr = x -> {
+      incrHistory.add(x);
+      return x + 1;
+    };
+    IntInfiniteList nums = IntInfiniteList.iterate(1, incr);
+    IntInfiniteList evens = nums.filter(x -> x % 2 == 0);
+    evens.tail().head();
+    i.expect("IntInfiniteList nums = IntInfiniteList.iterate(1, x -> x + 1)\n" +
+        "IntInfiniteList evens = nums.filter(x -> x % 2 == 0)\n" +
+        "After evens.tail().head()\n" +
+        " ..causes three evals on x -> x + 1",
+        incrHistory, List.of(1, 2, 3));
+    i.expect(" ..evens.toString() returns [[] [[2] [[] [[4] ?]]]]",
+        evens.toString(), "[[] [[2] [[] [[4] ?]]]]");
+    evens.tail().head();
+    i.expect(" ..calling evens.tail().head() again causes zero evals on x -> x + 1",
+        incrHistory, List.of(1, 2, 3));
+
+    i.expectReturn("LongInfiniteList.iterate(0, x -> x + 1).limit(1_000_000).sum()",
+        () -> LongInfiniteList.iterate(0, x -> x + 1).limit(1_000_000).sum(), 499_999_500_000L);
+    i.expectReturn("LongInfiniteList.iterate(1, x -> x + 1).filter(x -> x % 100_000 == 0).head()",
+        () -> LongInfiniteList.iterate(1, x -> x + 1).filter(x -> x % 100_000 == 0).head(),
+        100_000L);
+    i.expectReturn("DoubleInfiniteList.iterate(1, x -> x / 2).limit(4).sum()",
+        () -> DoubleInfiniteList.iterate(1, x -> x / 2).limit(4).sum(), 1.875);
+    i.expectReturn("DoubleInfiniteList.generate(() -> 0.5).map(x -> x * 3).limit(2).toString()",
+        () -> DoubleInfiniteList.generate(() -> 0.5).map(x -> x * 3).limit(2).toString(),
+        "[? ?]");
+  }
+}
@@ -0,0 +1,116 @@
+package cs2030s.fp;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represent a binary encoding of values, for writing the elements of an
+ * 'InfiniteList' to a snapshot and reading them back. See
+ * 'InfiniteList.snapshot'.
+ * CS2030S Lab 7
+ * AY21/22 Semester 2
+ *
+ * @param <T> The type of the values encoded.
+ */
+public interface Codec<T> {
+  /**
+   * Writes 'value' to 'out'.
+   *
+   * @param value The value to write.
+   * @param out The output to write to.
+   * @throws IOException If 'out' can't be written to.
+   */
+  void encode(T value, DataOutput out) throws IOException;
+
+  /**
+   * Reads a value written by 'encode' from 'in'.
+   *
+   * @param in The input to read from.
+   * @return The value read.
+   * @throws IOException If 'in' can't be read from.
+   */
+  T decode(DataInput in) throws IOException;
+
+  /**
+   * Returns a Codec of non-null Integers, as 4 bytes each.
+   *
+   * @return The Codec.
+   */
+  static Codec<Integer> ints() {
+    return new Codec<>() {
+      @Override
+      public void encode(Integer value, DataOutput out) throws IOException {
+        out.writeInt(value);
+      }
+
+      @Override
+      public Integer decode(DataInput in) throws IOException {
+        return in.readInt();
+      }
+    };
+  }
+
+  /**
+   * Returns a Codec of non-null Longs, as 8 bytes each.
+   *
+   * @return The Codec.
+   */
+  static Codec<Long> longs() {
+    return new Codec<>() {
+      @Override
+      public void encode(Long value, DataOutput out) throws IOException {
+        out.writeLong(value);
+      }
+
+      @Override
+      public Long decode(DataInput in) throws IOException {
+        return in.readLong();
+      }
+    };
+  }
+
+  /**
+   * Returns a Codec of non-null Doubles, as 8 bytes each.
+   *
+   * @return The Codec.
+   */
+  static Codec<Double> doubles() {
+    return new Codec<>() {
+      @Override
+      public void encode(Double value, DataOutput out) throws IOException {
+        out.writeDouble(value);
+      }
+
+      @Override
+      public Double decode(DataInput in) throws IOException {
+        return in.readDouble();
+      }
+    };
+  }
+
+  /**
+   * Returns a Codec of non-null Strings, as their length in UTF-8 bytes
+   * followed by the bytes.
+   *
+   * @return The Codec.
+   */
+  static Codec<String> strings() {
+    return new Codec<>() {
+      @Override
+      public void encode(String value, DataOutput out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+
+      @Override
+      public String decode(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+      }
+    };
+  }
+}
@@ -0,0 +1,18 @@
+package cs2030s.fp;
+
+/**
+ * Represent a function that combines two double values into one, without boxing them.
+ * CS2030S Lab 7
+ * AY21/22 Semester 2
+ */
+@FunctionalInterface
+public interface DoubleCombiner {
+  /**
+   * The function method to combines two values into one.
+   *
+   * @param s The first input value
+   * @param t The second input value
+   * @return The value after combining s and t.
+   */
+  double combine(double s, double t);
+}
@@ -0,0 +1,479 @@
+package cs2030s.fp;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An 'InfiniteList' specialised for double elements. The elements are stored
+ * unboxed inside the list's nodes, instead of being wrapped in an 'Double',
+ * a 'Maybe' and a 'Lazy' each.
+ *
+ * @author Tan Zong Zhi, Shaun (Group 16A)
+ * @version CS2030S AY 21/22 Sem 2
+ */
+public class DoubleInfiniteList {
+  /** State of a head that hasn't been evaluated yet. */
+  private static final byte UNEVALUATED = 0;
+  /** State of a head that has been evaluated to an element. */
+  private static final byte PRESENT = 1;
+  /** State of a head that has been evaluated, but was filtered out. */
+  private static final byte FILTERED = 2;
+  /** Cached sentinel instance, to mark the end of DoubleInfiniteList. */
+  private static final DoubleInfiniteList SENTINEL = new Sentinel();
+
+  /** The head value, only meaningful if 'state' is PRESENT. */
+  private double head;
+  /** Whether the head is unevaluated, present or filtered out. */
+  private byte state;
+  /** Evaluates the head, set to null after evaluation. */
+  private Head pendingHead;
+  /** The tail value, only meaningful once 'pendingTail' is null. */
+  private DoubleInfiniteList tail;
+  /** Evaluates the tail, set to null after evaluation. */
+  private Tail pendingTail;
+
+  /**
+   * To initialise an DoubleInfiniteList with no head nor tail values.
+   */
+  private DoubleInfiniteList() {
+    this.state = FILTERED;
+  }
+
+  /**
+   * To initialise an DoubleInfiniteList with an already evaluated head value, but an
+   * unevalutated tail.
+   *
+   * @param head The already evaluated head value.
+   * @param tail Evaluates the tail value.
+   */
+  private DoubleInfiniteList(double head, Tail tail) {
+    this.head = head;
+    this.state = PRESENT;
+    this.pendingTail = tail;
+  }
+
+  /**
+   * To initialise an DoubleInfiniteList with the head and tail that's not evaluated yet.
+   *
+   * @param head Evaluates the head value.
+   * @param tail Evaluates the tail value.
+   */
+  private DoubleInfiniteList(Head head, Tail tail) {
+    this.pendingHead = head;
+    this.pendingTail = tail;
+  }
+
+  /**
+   * Factory method for initialising an DoubleInfiniteList with elements all just being
+   * the producer's produced value.
+   *
+   * @param producer The DoubleProducer producing the value.
+   * @return The initialised DoubleInfiniteList.
+   */
+  public static DoubleInfiniteList generate(DoubleProducer producer) {
+    return new DoubleInfiniteList(
+        node -> {
+          node.head = producer.produce();
+          return true;
+        },
+        node -> DoubleInfiniteList.generate(producer)
+    );
+  }
+
+  /**
+   * Factory method for initialising an DoubleInfiniteList with the first element being
+   * the 'seed', and subsequent elements are DoubleTransformer 'next' being applied to
+   * the previous element.
+   *
+   * @param seed The first element.
+   * @param next The DoubleTransformer that is applied to the seed.
+   * @return The initialised DoubleInfiniteList.
+   */
+  public static DoubleInfiniteList iterate(double seed, DoubleTransformer next) {
+    return new DoubleInfiniteList(
+        seed,
+        node -> DoubleInfiniteList.iterate(next.transform(node.head), next)
+    );
+  }
+
+  /**
+   * Returns a sentinel, which denotes the end of an DoubleInfiniteList.
+   *
+   * @return The sentinel.
+   */
+  public static DoubleInfiniteList sentinel() {
+    return DoubleInfiniteList.SENTINEL;
+  }
+
+  /**
+   * Evaluates the head if it hasn't been, and returns whether it's an
+   * element (ie. it isn't filtered out).
+   *
+   * @return Whether the head is an element.
+   */
+  private boolean isHeadPresent() {
+    if (this.state == UNEVALUATED) {
+      this.state = this.pendingHead.evaluate(this) ? PRESENT : FILTERED;
+      this.pendingHead = null;
+    }
+    return this.state == PRESENT;
+  }
+
+  /**
+   * Evaluates the tail if it hasn't been, and returns it.
+   *
+   * @return The tail.
+   */
+  private DoubleInfiniteList evaluateTail() {
+    if (this.pendingTail != null) {
+      this.tail = this.pendingTail.evaluate(this);
+      this.pendingTail = null;
+    }
+    return this.tail;
+  }
+
+  /**
+   * Returns the first element that isn't filtered out.
+   *
+   * @return The first element.
+   */
+  public double head() {
+    DoubleInfiniteList next = this.getNextNonNoneHead();
+    if (next.isSentinel()) {
+      // Throws, as sentinels don't have a head.
+      return next.head();
+    }
+    return next.head;
+  }
+
+  /**
+   * Returns the next DoubleInfiniteList tail that has a head that isn't filtered out.
+   *
+   * @return The next DoubleInfiniteList tail with an element as its head.
+   */
+  public DoubleInfiniteList tail() {
+    DoubleInfiniteList next = this.getNextNonNoneHead();
+    if (next.isSentinel()) {
+      return next;
+    }
+    return next.evaluateTail().getNextNonNoneHead();
+  }
+
+  /**
+   * Helper method for 'head' and 'tail'. Returns 'this' if its head isn't filtered
+   * out, else walks down its tails in a loop until one that isn't.
+   *
+   * @return 'this' if its head isn't filtered out, else the next such DoubleInfiniteList.
+   */
+  protected DoubleInfiniteList getNextNonNoneHead() {
+    DoubleInfiniteList curr = this;
+    while (!curr.isSentinel() && !curr.isHeadPresent()) {
+      curr = curr.evaluateTail();
+    }
+    return curr;
+  }
+
+  /**
+   * Returns a new DoubleInfiniteList that has the 'mapper' DoubleTransformer applied to all
+   * elements.
+   *
+   * @param mapper The DoubleTransformer that will be applied.
+   * @return The new DoubleInfiniteList that has 'mapper' applied to all its elements.
+   */
+  public DoubleInfiniteList map(DoubleTransformer mapper) {
+    return new DoubleInfiniteList(
+        node -> {
+          if (!this.isHeadPresent()) {
+            return false;
+          }
+          node.head = mapper.transform(this.head);
+          return true;
+        },
+        node -> this.evaluateTail().map(mapper)
+    );
+  }
+
+  /**
+   * Returns a new DoubleInfiniteList with all elements not satisfying the
+   * 'predicate' filtered out.
+   *
+   * @param predicate The predicate function to filter the elements by.
+   * @return The new DoubleInfiniteList with elements failing the 'predicate' filtered out.
+   */
+  public DoubleInfiniteList filter(DoubleBooleanCondition predicate) {
+    return new DoubleInfiniteList(
+        node -> {
+          if (!this.isHeadPresent() || !predicate.test(this.head)) {
+            return false;
+          }
+          node.head = this.head;
+          return true;
+        },
+        node -> this.evaluateTail().filter(predicate)
+    );
+  }
+
+  /**
+   * Returns a new DoubleInfiniteList that's a finite copy of 'this' with a
+   * length less than/equals to 'n'.
+   *
+   * @param n The number of elements in the returned finite DoubleInfiniteList.
+   * @return A finite DoubleInfiniteList copy.
+   */
+  public DoubleInfiniteList limit(long n) {
+    if (n <= 0) {
+      return DoubleInfiniteList.sentinel();
+    }
+    return new DoubleInfiniteList(
+        node -> {
+          if (!this.isHeadPresent()) {
+            return false;
+          }
+          node.head = this.head;
+          return true;
+        },
+        node -> this.evaluateTail().limit(this.isHeadPresent() ? n - 1 : n)
+    );
+  }
+
+  /**
+   * Returns a new DoubleInfiniteList which terminates the moment an element fails
+   * the 'predicate'.
+   *
+   * @param predicate The predicate which determines when to terminate.
+   * @return The new DoubleInfiniteList that terminates upon failing the 'predicate'.
+   */
+  public DoubleInfiniteList takeWhile(DoubleBooleanCondition predicate) {
+    return new DoubleInfiniteList(
+        node -> {
+          DoubleInfiniteList next = this.getNextNonNoneHead();
+          if (next.isSentinel() || !predicate.test(next.head)) {
+            return false;
+          }
+          node.head = next.head;
+          return true;
+        },
+        node -> node.isHeadPresent()
+            ? this.tail().takeWhile(predicate)
+            : DoubleInfiniteList.sentinel()
+    );
+  }
+
+  /**
+   * Returns whether 'this' is a 'Sentinel' instance, which is always false.
+   *
+   * @return Always false.
+   */
+  public boolean isSentinel() {
+    return false;
+  }
+
+  /**
+   * Reduces all elements to a single value by combining them using 'accumulator'.
+   *
+   * @param identity Initial value.
+   * @param accumulator Binary function for combining the elements.
+   * @return The value obtained by combining all the elements.
+   */
+  public double reduce(double identity, DoubleCombiner accumulator) {
+    double result = identity;
+    for (DoubleInfiniteList curr = this; !curr.isSentinel(); curr = curr.evaluateTail()) {
+      if (curr.isHeadPresent()) {
+        result = accumulator.combine(result, curr.head);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the sum of all the elements.
+   *
+   * @return The sum of the elements.
+   */
+  public double sum() {
+    return this.reduce(0.0, (x, y) -> x + y);
+  }
+
+  /**
+   * Returns the number of elements in the DoubleInfiniteList.
+   *
+   * @return The number of elements.
+   */
+  public long count() {
+    long count = 0;
+    for (DoubleInfiniteList curr = this; !curr.isSentinel(); curr = curr.evaluateTail()) {
+      if (curr.isHeadPresent()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Evalutes all the elements in this DoubleInfiniteList, and returns them
+   * in an array in the same order.
+   *
+   * @return An array of all the elements in this DoubleInfiniteList.
+   */
+  public double[] toArray() {
+    double[] elements = new double[16];
+    int size = 0;
+    for (DoubleInfiniteList curr = this; !curr.isSentinel(); curr = curr.evaluateTail()) {
+      if (curr.isHeadPresent()) {
+        if (size == elements.length) {
+          elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = curr.head;
+      }
+    }
+    return Arrays.copyOf(elements, size);
+  }
+
+  /**
+   * Returns the string representation of this DoubleInfiniteList, in the same
+   * format as 'InfiniteList'. If the element has not been evaluated before,
+   * it'd be shown as "?".
+   *
+   * @return The string representation of this DoubleInfiniteList.
+   */
+  @Override
+  public String toString() {
+    String headString = this.state == UNEVALUATED
+        ? "?"
+        : this.state == PRESENT
+        ? "[" + this.head + "]"
+        : "[]";
+    String tailString = this.pendingTail == null
+        ? String.valueOf(this.tail)
+        : "?";
+    return "[" + headString + " " + tailString + "]";
+  }
+
+
+  // ============================ Nested Classes ============================
+
+  /**
+   * Evaluates the head of a node.
+   */
+  @FunctionalInterface
+  private interface Head {
+    /**
+     * Evaluates the head, storing it in 'node.head' if it's an element.
+     *
+     * @param node The node whose head is evaluated.
+     * @return Whether the head is an element, or false if it's filtered out.
+     */
+    boolean evaluate(DoubleInfiniteList node);
+  }
+
+  /**
+   * Evaluates the tail of a node.
+   */
+  @FunctionalInterface
+  private interface Tail {
+    /**
+     * Evaluates the tail of 'node'.
+     *
+     * @param node The node whose tail is evaluated.
+     * @return The tail of 'node'.
+     */
+    DoubleInfiniteList evaluate(DoubleInfiniteList node);
+  }
+
+  private static class Sentinel extends DoubleInfiniteList {
+    /**
+     * Returns the string representation of a 'Sentinel', which is "-".
+     *
+     * @return "-".
+     */
+    @Override
+    public String toString() {
+      return "-";
+    }
+
+    /**
+     * Always throws a 'NoSuchElementException', as a 'Sentinel' doesn't
+     * have a head.
+     *
+     * @return Never returns, always throws 'NoSuchElementException'.
+     * @throws NoSuchElementException Always thrown, as sentinels don't have any elements.
+     */
+    @Override
+    public double head() throws NoSuchElementException {
+      throw new NoSuchElementException();
+    }
+
+    /**
+     * Always throws a 'NoSuchElementException', as a 'Sentinel' doesn't
+     * have a tail.
+     *
+     * @return Never returns, always throws 'NoSuchElementException'.
+     * @throws NoSuchElementException Always thrown, as sentinels don't have any elements.
+     */
+    @Override
+    public DoubleInfiniteList tail() throws NoSuchElementException {
+      throw new NoSuchElementException();
+    }
+
+    /**
+     * Helper method for 'tail'. Returns a sentinel, as sentinels has
+     * no elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    protected DoubleInfiniteList getNextNonNoneHead() {
+      return this;
+    }
+
+    /**
+     * Returns whether 'this' is a 'Sentinel' instance, which is always true.
+     *
+     * @return Always true.
+     */
+    @Override
+    public boolean isSentinel() {
+      return true;
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public DoubleInfiniteList map(DoubleTransformer mapper) {
+      return this;
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public DoubleInfiniteList filter(DoubleBooleanCondition predicate) {
+      return this;
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public DoubleInfiniteList limit(long n) {
+      return this;
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public DoubleInfiniteList takeWhile(DoubleBooleanCondition predicate) {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package cs2030s.fp;
+
+/**
+ * Represent a function that produce a double value, without boxing it.
+ * CS2030S Lab 7
+ * AY21/22 Semester 2
+ */
+@FunctionalInterface
+public interface DoubleProducer {
+  /**
+   * The functional method to produce a value.
+   *
+   * @return The value produced.
+   */
+  double produce();
+}
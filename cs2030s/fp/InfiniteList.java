@@ -1,8 +1,38 @@
 package cs2030s.fp;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * An lazily evaluated infinite linked list, where the next elements are 
@@ -14,42 +44,142 @@ import java.util.NoSuchElementException;
  *
  * @param <T> The type of the value in the list, returned by the 'head' method.
  */
-public class InfiniteList<T> {
-  /** Lazily evaluted head value. */
-  private final Lazy<Maybe<T>> head;
-  /** Lazily evaluted tail value. */
-  private final Lazy<InfiniteList<T>> tail;
+public class InfiniteList<T> implements Iterable<T> {
+  /** Set in 'state' once the head has been evaluated. */
+  private static final byte HEAD_EVALUATED = 1;
+  /** Set in 'state' if the evaluated head is an element, ie. it wasn't filtered out. */
+  private static final byte HEAD_PRESENT = 2;
+  /** Set in 'state' once the tail has been evaluated. */
+  private static final byte TAIL_EVALUATED = 4;
+  /** Set in 'state' while the head is that of the node in 'head', until it's copied. */
+  private static final byte HEAD_SHARED = 8;
+  /**
+   * Set in 'state' with 'HEAD_SHARED' if the head is derived from that of the
+   * node in 'head' via 'deriveHead', rather than copied.
+   */
+  private static final byte HEAD_DERIVED = 16;
+  /** Set in 'state' once this node has a SkipIndex in 'SKIP_INDEXES'. */
+  private static final byte INDEXED = 32;
+  /**
+   * How many nodes whose heads are shared 'isHeadPresent' evaluates via
+   * recursive calls before it switches to an explicit stack, like 'Lazy'.
+   */
+  private static final int MAX_RECURSION = 32;
+
+  /**
+   * The head's element once evaluated (or null if it was filtered out), or
+   * else the Producer that evaluates it, or the node whose head is shared,
+   * which are then dropped.
+   */
+  private Object head;
+  /** The evaluated tail, or else the 'Tail' that evaluates it, which is then dropped. */
+  private Object tail;
+  /** Which of the head and tail have been evaluated, see 'HEAD_EVALUATED'. */
+  private byte state;
   /** Cached sentinel instance, to mark the end of InfiniteList. */
   private static final InfiniteList<?> SENTINEL = new Sentinel();
+  /**
+   * The indexes of 'get' and 'drop' from the nodes they were created on by
+   * a deep lookup, kept here rather than in a field of every node, as only
+   * the few nodes looked up from have one. Weakly keyed, so that an index
+   * goes with its node.
+   */
+  private static final Map<InfiniteList<?>, SkipIndex<?>> SKIP_INDEXES =
+      Collections.synchronizedMap(new WeakHashMap<>());
+  /** The first bytes of a 'snapshot' file, ie. "CS2S". */
+  private static final int SNAPSHOT_MAGIC = 0x43533253;
+  /** The version of the 'snapshot' file format. */
+  private static final int SNAPSHOT_VERSION = 1;
+  /** Precedes each element in a 'snapshot' file. */
+  private static final int SNAPSHOT_ELEMENT = 1;
+  /** Ends a 'snapshot' file of a list that has more elements. */
+  private static final int SNAPSHOT_MORE = 2;
+  /** Ends a 'snapshot' file of a list that has ended. */
+  private static final int SNAPSHOT_END = 3;
+  /**
+   * The largest capacity 'toList' presizes to, even if the size is exact,
+   * as evaluating the elements may still fail part way. Larger lists grow.
+   */
+  private static final int PRESIZE_LIMIT = 1 << 16;
+  /** Counts the elements it's combined with, for 'count'. */
+  private static final Combiner<Long, Object, Long> COUNTER = (acc, x) -> acc + 1;
 
   /**
-   * To initialise an InfiniteList with no head nor tail values.
+   * To initialise an InfiniteList with no head nor tail values, for nodes
+   * that evaluate them otherwise.
    */
   private InfiniteList() {
-    this.head = null;
-    this.tail = null;
   }
 
   /**
    * To initialise an InfiniteList with an already evaluated head value, but an unevalutated tail.
    *
    * @param head The already evaluated head value.
-   * @param tail Producer for the unevaluted tail value.
+   * @param tail Tail for the unevaluted tail value.
+   */
+  private InfiniteList(T head, Tail<T> tail) {
+    this.head = head;
+    this.tail = tail;
+    this.state = InfiniteList.HEAD_EVALUATED | InfiniteList.HEAD_PRESENT;
+    Metrics.nodeCreated();
+  }
+
+  /**
+   * To initialise an InfiniteList with an already evaluated head value and tail.
+   *
+   * @param head The already evaluated head value.
+   * @param tail The already evaluated tail.
+   */
+  private InfiniteList(T head, InfiniteList<T> tail) {
+    this.head = head;
+    this.tail = tail;
+    this.state = InfiniteList.HEAD_EVALUATED | InfiniteList.HEAD_PRESENT
+        | InfiniteList.TAIL_EVALUATED;
+    Metrics.nodeCreated();
+  }
+
+  /**
+   * To initialise an InfiniteList whose head is that of 'source', which is
+   * copied from 'source' when it's asked for, and an unevaluated tail. So
+   * no Producer is needed, and the head shows as evaluated as soon as it is
+   * in 'source'.
+   *
+   * @param source The node whose head is shared.
+   * @param tail Tail for the unevaluted tail value.
+   */
+  private InfiniteList(InfiniteList<T> source, Tail<T> tail) {
+    this(source, false, tail);
+  }
+
+  /**
+   * To initialise an InfiniteList whose head is that of 'source', which is
+   * copied from 'source' or derived from it via 'deriveHead' when it's
+   * asked for, and an unevaluated tail.
+   *
+   * @param source The node whose head is shared, or for a node whose head is
+   *     derived, whatever its 'sharedHead' finds that node from.
+   * @param isDerived Whether the head is derived from that of 'source' via 'deriveHead'.
+   * @param tail Tail for the unevaluted tail value.
    */
-  private InfiniteList(T head, Producer<InfiniteList<T>> tail) {
-    this.head = Lazy.of(Maybe.some(head));
-    this.tail = Lazy.of(tail);
+  private InfiniteList(Object source, boolean isDerived, Tail<T> tail) {
+    this.head = source;
+    this.tail = tail;
+    this.state = isDerived
+        ? InfiniteList.HEAD_SHARED | InfiniteList.HEAD_DERIVED
+        : InfiniteList.HEAD_SHARED;
+    Metrics.nodeCreated();
   }
 
   /**
    * To initialise a InfiniteList with the head and tail that's not evaluated yet.
    *
-   * @param head The Lazily evaluated head value.
-   * @param tail The Lazily evaluated tail value.
+   * @param head Evaluates the head value, which is Maybe.none() if it's filtered out.
+   * @param tail Tail for the unevaluted tail value.
    */
-  private InfiniteList(Lazy<Maybe<T>> head, Lazy<InfiniteList<T>> tail) {
+  private InfiniteList(Producer<Maybe<T>> head, Tail<T> tail) {
     this.head = head;
     this.tail = tail;
+    Metrics.nodeCreated();
   }
 
   /**
@@ -61,9 +191,9 @@ public class InfiniteList<T> {
    * @return The initialised InfiniteList.
    */
   public static <T> InfiniteList<T> generate(Producer<T> producer) {
-    return new InfiniteList<>(
-        Lazy.of(() -> Maybe.some(producer.produce())),
-        Lazy.of(() -> InfiniteList.generate(producer))
+    return new Endless<T>(
+        () -> Maybe.some(producer.produce()),
+        isStreaming -> InfiniteList.generate(producer)
     );
   }
 
@@ -78,20 +208,165 @@ public class InfiniteList<T> {
    * @return The initialised InfiniteList.
    */
   public static <T> InfiniteList<T> iterate(T seed, Transformer<T, T> next) {
-    return new InfiniteList<>(
+    return new Endless<>(
         seed,
-        () -> InfiniteList.iterate(next.transform(seed), next)
+        isStreaming -> InfiniteList.iterate(next.transform(seed), next)
     );
   }
 
+  /**
+   * Factory method like 'generate(Producer)', but for a chunked list, whose
+   * elements are evaluated and held in arrays of 'chunkSize' at a time rather
+   * than in a node each. Evaluating any element of a chunk calls 'producer'
+   * for the whole chunk, in order. See 'Chunked'.
+   *
+   * @param <T> The value type of the initialised InfiniteList.
+   * @param producer The Producer producing the value.
+   * @param chunkSize The number of elements evaluated at a time.
+   * @return The initialised InfiniteList.
+   * @throws IllegalArgumentException If 'chunkSize' isn't positive.
+   */
+  public static <T> InfiniteList<T> generate(Producer<T> producer, int chunkSize) {
+    return Chunked.of(new GeneratedChunk<>(producer, Chunked.checkSize(chunkSize)));
+  }
+
+  /**
+   * Factory method like 'iterate(T, Transformer)', but for a chunked list,
+   * whose elements are evaluated and held in arrays of 'chunkSize' at a time
+   * rather than in a node each. Evaluating any element of a chunk applies
+   * 'next' for the whole chunk. See 'Chunked'.
+   *
+   * @param <T> The value type of the initialised InfiniteList.
+   * @param seed The first element.
+   * @param next The Transformer that is applied to the seed.
+   * @param chunkSize The number of elements evaluated at a time.
+   * @return The initialised InfiniteList.
+   * @throws IllegalArgumentException If 'chunkSize' isn't positive.
+   */
+  public static <T> InfiniteList<T> iterate(T seed, Transformer<T, T> next, int chunkSize) {
+    return Chunked.of(new IteratedChunk<>(null, seed, next, Chunked.checkSize(chunkSize)));
+  }
+
+  /**
+   * Factory method for initialising a finite InfiniteList of the fixed-width
+   * records of 'file', read via memory-mapping rather than copying. Each
+   * element is 'decoder' applied to a read-only ByteBuffer over the bytes of
+   * its record, which is only done when the element is evaluated. The last
+   * record is shorter than 'recordSize' if the file's size isn't a multiple
+   * of it. Files larger than 2 GB are mapped a window at a time. See
+   * 'MappedRecords'.
+   *
+   * @param <T> The value type of the initialised InfiniteList.
+   * @param file The file to read.
+   * @param recordSize The number of bytes in each record.
+   * @param decoder The Transformer decoding a record's bytes into an element.
+   * @return The initialised InfiniteList, ending with a sentinel.
+   * @throws IllegalArgumentException If 'recordSize' isn't positive.
+   * @throws IOException If 'file' can't be read. Mapping later windows of the
+   *     file throws an UncheckedIOException instead.
+   */
+  public static <T> InfiniteList<T> records(Path file, int recordSize,
+      Transformer<? super ByteBuffer, ? extends T> decoder) throws IOException {
+    if (recordSize <= 0) {
+      throw new IllegalArgumentException("recordSize must be positive: " + recordSize);
+    }
+    return new MappedRecords<T>(file, recordSize, decoder).first();
+  }
+
+  /**
+   * Factory method like 'records(Path, int, Transformer)', but for records
+   * delimited by newlines ('\n'), which are excluded from the records. The
+   * last record doesn't need a trailing newline.
+   *
+   * @param <T> The value type of the initialised InfiniteList.
+   * @param file The file to read.
+   * @param decoder The Transformer decoding a record's bytes into an element.
+   * @return The initialised InfiniteList, ending with a sentinel.
+   * @throws IOException If 'file' can't be read. Mapping later windows of the
+   *     file throws an UncheckedIOException instead.
+   */
+  public static <T> InfiniteList<T> records(Path file,
+      Transformer<? super ByteBuffer, ? extends T> decoder) throws IOException {
+    return new MappedRecords<T>(file, 0, decoder).first();
+  }
+
+  /**
+   * Factory method for initialising a finite InfiniteList of the UTF-8 lines
+   * of 'file', without their line terminators ('\n' or "\r\n"). See
+   * 'records(Path, Transformer)'.
+   *
+   * @param file The file to read.
+   * @return The initialised InfiniteList, ending with a sentinel.
+   * @throws IOException If 'file' can't be read.
+   */
+  public static InfiniteList<String> lines(Path file) throws IOException {
+    return InfiniteList.records(file, bytes -> {
+      int length = bytes.remaining();
+      byte[] line = new byte[length > 0 && bytes.get(length - 1) == '\r' ? length - 1 : length];
+      bytes.get(line);
+      return new String(line, StandardCharsets.UTF_8);
+    });
+  }
+
+  /**
+   * Factory method for initialising a finite InfiniteList of the elements
+   * written to 'file' by 'snapshot', all already evaluated.
+   *
+   * @param <T> The value type of the initialised InfiniteList.
+   * @param file The file to read.
+   * @param codec The Codec decoding the elements.
+   * @return The initialised InfiniteList, ending with a sentinel.
+   * @throws IOException If 'file' can't be read or isn't a snapshot, or 'codec' throws.
+   */
+  public static <T> InfiniteList<T> load(Path file, Codec<? extends T> codec)
+      throws IOException {
+    Snapshot<T> snapshot = Snapshot.read(file, codec);
+    return snapshot.prefix(InfiniteList.sentinel());
+  }
+
+  /**
+   * Factory method for warm-starting an InfiniteList from the elements
+   * written to 'file' by 'snapshot' of an 'iterate' list. The elements are
+   * already evaluated, and the list resumes like 'iterate(T, Transformer)'
+   * after the last of them, applying 'next' lazily from there. If the
+   * snapshotted list had ended, so does the loaded list.
+   *
+   * @param <T> The value type of the initialised InfiniteList.
+   * @param file The file to read.
+   * @param codec The Codec decoding the elements.
+   * @param next The Transformer that was applied to each element to get the next.
+   * @return The initialised InfiniteList.
+   * @throws IOException If 'file' can't be read or isn't a snapshot, if the
+   *     snapshot has no element to resume from, or if 'codec' throws.
+   */
+  public static <T> InfiniteList<T> load(Path file, Codec<? extends T> codec,
+      Transformer<T, T> next) throws IOException {
+    Snapshot<T> snapshot = Snapshot.read(file, codec);
+    if (snapshot.isComplete) {
+      return snapshot.prefix(InfiniteList.sentinel());
+    }
+    if (snapshot.elements.isEmpty()) {
+      throw new IOException("No element to resume from in snapshot: " + file);
+    }
+    T last = snapshot.elements.remove(snapshot.elements.size() - 1);
+    return snapshot.prefix(new InfiniteList<>(
+        last,
+        isStreaming -> InfiniteList.iterate(next.transform(last), next)
+    ));
+  }
+
   /**
    * Returns the first evaluated value that isn't equals to 'Maybe.none()'.
    *
    * @return The first evaluated value that's != Maybe.none().
    */
   public T head() {
-    return this.head.get()
-        .orElseGet(() -> this.tail.get().head());
+    InfiniteList<T> next = this.getNextNonNoneHead();
+    if (next.isSentinel()) {
+      // Throws, as sentinels don't have a head.
+      return next.head();
+    }
+    return next.headValue();
   }
 
   /**
@@ -100,310 +375,3621 @@ public class InfiniteList<T> {
    * @return The next InfiniteList tail with a non-None head.
    */
   public InfiniteList<T> tail() {
-    return Maybe.some(this.getNextNonNoneHead())
-        .filter(x -> !x.isSentinel())
-        .map(x -> x.tail.get())
-        .orElseGet(InfiniteList::sentinel)
-        .getNextNonNoneHead();
+    InfiniteList<T> next = this.getNextNonNoneHead();
+    if (next.isSentinel()) {
+      return next;
+    }
+    return next.evaluateTail().getNextNonNoneHead();
   }
-  
+
+  /**
+   * Returns the element at index 'n', ie. 'head' after calling 'tail' 'n'
+   * times, but in a single loop. Lookups walking over memoised nodes record
+   * checkpoints every 'SkipIndex.STRIDE' elements, so that later lookups
+   * from this list start from the nearest checkpoint instead. See 'SkipIndex'.
+   *
+   * @param n The index of the element.
+   * @return The element at index 'n'.
+   * @throws IllegalArgumentException If 'n' is negative.
+   * @throws NoSuchElementException If this list has 'n' or fewer elements.
+   */
+  public T get(long n) {
+    // Walks in its own loop rather than calling 'drop', as this frame would
+    // otherwise hold on to 'this', and so the whole walked prefix, until
+    // the JIT compiles it.
+    if (n < 0) {
+      throw new IllegalArgumentException("n must be non-negative: " + n);
+    }
+    SkipIndex<T> index = this.skipIndex();
+    InfiniteList<T> root = index != null || this.isTailEvaluated() ? this : null;
+    int checkpoint = index == null ? 0 : index.floor(n);
+    long position = (long) checkpoint << SkipIndex.STRIDE_BITS;
+    InfiniteList<T> curr = checkpoint == 0 ? this : index.get(checkpoint);
+    while (!curr.isSentinel()) {
+      if (!curr.isHeadPresent()) {
+        Metrics.nodeSkipped();
+      } else if (position == n) {
+        return curr.headValue();
+      } else if ((++position & (SkipIndex.STRIDE - 1)) == 0 && root != null
+          && curr.isTailEvaluated()) {
+        curr = curr.evaluateTail();
+        root.checkpoint(position, curr);
+        continue;
+      }
+      curr = curr.evaluateTail();
+    }
+    // Throws, as sentinels don't have a head.
+    return curr.head();
+  }
+
+  /**
+   * Returns this list without its first 'n' elements, ie. after calling
+   * 'tail' 'n' times, but in a single loop, and as a sentinel if this list
+   * has 'n' or fewer elements. Uses the same checkpoints as 'get'.
+   *
+   * @param n The number of elements to drop.
+   * @return The list from the element at index 'n'.
+   * @throws IllegalArgumentException If 'n' is negative.
+   */
+  public InfiniteList<T> drop(long n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("n must be non-negative: " + n);
+    }
+    SkipIndex<T> index = this.skipIndex();
+    // Not referring to 'this' in the loop unless it's memoised, so that it
+    // can be collected while walking a fresh list.
+    InfiniteList<T> root = index != null || this.isTailEvaluated() ? this : null;
+    int checkpoint = index == null ? 0 : index.floor(n);
+    long position = (long) checkpoint << SkipIndex.STRIDE_BITS;
+    InfiniteList<T> curr = checkpoint == 0 ? this : index.get(checkpoint);
+    while (!curr.isSentinel()) {
+      if (!curr.isHeadPresent()) {
+        Metrics.nodeSkipped();
+      } else if (position == n) {
+        return curr;
+      } else if ((++position & (SkipIndex.STRIDE - 1)) == 0 && root != null
+          && curr.isTailEvaluated()) {
+        curr = curr.evaluateTail();
+        root.checkpoint(position, curr);
+        continue;
+      }
+      curr = curr.evaluateTail();
+    }
+    return curr;
+  }
+
+  /**
+   * Returns the SkipIndex of this list in 'SKIP_INDEXES', or null if it has
+   * none, which is only looked up if 'INDEXED' is set.
+   *
+   * @return The SkipIndex of this list, or null.
+   */
+  private SkipIndex<T> skipIndex() {
+    if ((this.state & InfiniteList.INDEXED) == 0) {
+      return null;
+    }
+    // The index of a list is only ever created by 'checkpoint' with its own type.
+    @SuppressWarnings("unchecked")
+    SkipIndex<T> index = (SkipIndex<T>) InfiniteList.SKIP_INDEXES.get(this);
+    return index;
+  }
+
+  /**
+   * Records 'node' as the checkpoint for the element at index 'position'
+   * in the SkipIndex of this list, creating it if there's none yet. Only
+   * done for memoised nodes, which this list already holds on to, so that
+   * a one-off lookup into a fresh list doesn't keep its prefix alive. Only
+   * called once the head and tail of this node are evaluated, so setting
+   * 'INDEXED' can't race with their evaluation.
+   *
+   * @param position The index of the first element of 'node', a multiple of 'STRIDE'.
+   * @param node The node to record.
+   */
+  private void checkpoint(long position, InfiniteList<T> node) {
+    SkipIndex<T> index = this.skipIndex();
+    if (index == null) {
+      index = new SkipIndex<>();
+      InfiniteList.SKIP_INDEXES.put(this, index);
+      this.state |= InfiniteList.INDEXED;
+    }
+    index.add((int) (position >>> SkipIndex.STRIDE_BITS), node);
+  }
+
   /**
-   * Helper method for 'tail'. Returns 'this' if head != Maybe.none(),
-   * else continue to recurse on its tail.
+   * Helper method for 'head' and 'tail'. Returns 'this' if head != Maybe.none(),
+   * else continue to walk down its tails. The walk is done in a loop, so
+   * long runs of filtered-out elements don't grow the stack.
    *
    * @return 'this' if head != Maybe.none(), else next non-None-head InfiniteList.
    */
   protected InfiniteList<T> getNextNonNoneHead() {
-    return this.head.get()
-        .map(x -> this)
-        .orElseGet(() -> this.tail.get()
-            .getNextNonNoneHead()
-        );
+    return this.getNextNonNoneHead(false);
   }
 
   /**
-   * Returns a new InfiniteList that has the 'mapper' Transformer applied to all
-   * elements.
+   * Returns 'this' if head != Maybe.none(), else walks down its tails to the
+   * next non-None-head InfiniteList, via 'streamTail' if 'isStreaming'.
    *
-   * @param <R> The value type of the returned InfiniteList.
-   * @param mapper The Transformer that will be applied.
-   * @return The new InfiniteList that has 'mapper' applied to all its elements.
+   * @param isStreaming Whether to walk without memoising the tails.
+   * @return 'this' if head != Maybe.none(), else next non-None-head InfiniteList.
    */
-  public <R> InfiniteList<R> map(Transformer<? super T, ? extends R> mapper) {
-    return new InfiniteList<>(
-        this.head.map(x -> x.map(mapper)),
-        this.tail.map(x -> x.map(mapper))
-    );
+  InfiniteList<T> getNextNonNoneHead(boolean isStreaming) {
+    InfiniteList<T> curr = this;
+    while (!curr.isSentinel() && !curr.isHeadPresent()) {
+      Metrics.nodeSkipped();
+      curr = curr.evaluateTail(isStreaming);
+    }
+    return curr;
   }
 
   /**
-   * Returns a new InfiniteList with all elements not satisfying the
-   * 'predicate' replaced with Maybe.none().
+   * Returns whether the head of this node is an element, ie. it wasn't
+   * filtered out, evaluating it if it hasn't been. The element is then
+   * returned by 'headValue'.
    *
-   * @param predicate The predicate function to filter the elements by.
-   * @return The new InfiniteList with elements failing the 'predicate' replaced with Maybe.none().
+   * @return Whether the head of this node is an element.
    */
-  public InfiniteList<T> filter(BooleanCondition<? super T> predicate) {
-    return new InfiniteList<>(
-        this.head.map(x -> x.filter(predicate)),
-        this.tail.map(x -> x.filter(predicate))
-    );
+  boolean isHeadPresent() {
+    if ((this.state & InfiniteList.HEAD_EVALUATED) == 0) {
+      this.evaluatePendingHead();
+    }
+    return (this.state & InfiniteList.HEAD_PRESENT) != 0;
   }
 
   /**
-   * Returns a sentinel, which denotes the end of an InfiniteList.
+   * Returns the element at the head of this node, once 'isHeadPresent' has
+   * returned true.
    *
-   * @param <T> The generic type of the returned InfiniteList.
-   * @return The sentinel.
+   * @return The element at the head of this node.
    */
-  public static <T> InfiniteList<T> sentinel() {
-    // 'InfiniteList.SENTINEL' is final, cannot be modified, and doesn't 
-    // contain any contents. Thus, its safe to typecast.
+  T headValue() {
+    // 'this.head' holds an element once 'isHeadPresent' has returned true.
     @SuppressWarnings("unchecked")
-    InfiniteList<T> output = (InfiniteList<T>) InfiniteList.SENTINEL;
-    return output;
+    T value = (T) this.head;
+    return value;
   }
 
   /**
-   * Returns a new InfiniteList that's a finite copy of 'this' with a
-   * length less than/equals to 'n'.
+   * Returns the head of this node, evaluating it if it hasn't been, which is
+   * Maybe.none() if it was filtered out. Walks over many nodes use
+   * 'isHeadPresent' and 'headValue' instead, which don't allocate.
    *
-   * @param n The number of elements in the returned finite InfiniteList.
-   * @return A finite InfiniteList copy.
+   * @return The evaluated head of this node.
    */
-  public InfiniteList<T> limit(long n) {
-    return Maybe.some(n)
-        .filter(x -> x > 0)
-        .map(unused -> new InfiniteList<>(
-            this.head,
-            this.tail.map(x -> x.limit(
-                this.head.get()
-                    .map(unused2 -> n - 1)
-                    .orElse(n)
-            ))
-        ))
-        .orElseGet(InfiniteList::sentinel);
+  Maybe<T> evaluateHead() {
+    return this.isHeadPresent()
+        ? Maybe.some(this.headValue())
+        : Maybe.none();
   }
 
   /**
-   * Returns a new InfiniteList which terminates the moment an element fails
-   * the 'predicate'.
-   *
-   * @param predicate The predicate which determines when to terminate.
-   * @return The new InfiniteList that terminates upon failing the 'predicate'.
+   * Evaluates the head via the Producer in 'this.head', or from the node in
+   * 'this.head' if it's shared, which is then replaced by the element, so
+   * that whatever the Producer captured can be garbage collected. If the
+   * Producer throws, the head stays unevaluated. Running the Producer is
+   * recorded like a Lazy evaluation, see 'record'.
    */
-  public InfiniteList<T> takeWhile(BooleanCondition<? super T> predicate) {
-    Lazy<Maybe<T>> newHead = Lazy.of(() -> Maybe.some(this.head())
-        .filter(predicate)
-    );
-    return new InfiniteList<>(
-      newHead,
-      Lazy.of(() -> newHead.get()
-          .map(unused -> this.tail()
-              .takeWhile(predicate)
-          )
-          .orElseGet(InfiniteList::sentinel)
-      )
-    );
+  private void evaluatePendingHead() {
+    if ((this.state & InfiniteList.HEAD_SHARED) != 0) {
+      this.evaluateSharedHead(0);
+      return;
+    }
+    // 'this.head' holds a Producer until the head has been evaluated.
+    @SuppressWarnings("unchecked")
+    Producer<Maybe<T>> pending = (Producer<Maybe<T>>) this.head;
+    LazyEvaluationEvent event = new LazyEvaluationEvent();
+    event.begin();
+    Maybe<T> head = Metrics.ENABLED ? Metrics.timed(pending) : pending.produce();
+    this.memoiseHead(head == Maybe.none() ? null : head.get(), head != Maybe.none());
+    InfiniteList.record(event, "head", pending);
   }
 
   /**
-   * Returns whether 'this' is a 'Sentinel' instance, which is always false.
+   * Records the evaluation of the head or tail of a node by 'function' like
+   * 'Lazy' records the evaluations by its producers, as nodes evaluate them
+   * in place of Lazys: in the metrics, and by committing 'event' if it took
+   * longer than the event's threshold.
    *
-   * @return Always false.
+   * @param event The event, begun before 'function' ran.
+   * @param operation What was evaluated, ie. "head" or "tail".
+   * @param function The function that evaluated it.
    */
-  public boolean isSentinel() {
-    return false;
+  private static void record(LazyEvaluationEvent event, String operation, Object function) {
+    Metrics.lazyEvaluated();
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.function = function.getClass();
+      event.commit();
+    }
   }
 
   /**
-   * Reduces all elements to a single value of type 'U' by combining them
-   * using 'accumulator'.
+   * Evaluates the shared head of this node from the node in 'this.head',
+   * whose own head is first evaluated by a nested call if it's shared too,
+   * unless 'depth' has reached 'MAX_RECURSION'. The evaluation then
+   * continues on an explicit stack, see 'trampoline'. So long chains of
+   * 'map' and 'limit' lists are evaluated in bounded stack depth.
    *
-   * @param <U> Return value type.
-   * @param identity Initial value.
-   * @param accumulator Binary function for combining the elements.
-   * @return The value obtained by combining all the elements.
+   * @param depth The number of nested calls evaluating this node's head.
    */
-  public <U> U reduce(U identity, Combiner<? super U, ? super T, U> accumulator) {
-    return this.head.get()
-        .map(headValue -> this.tail.get().reduce(
-              accumulator.combine(identity, headValue),
-              accumulator
-        ))
-        .orElseGet(() -> this.tail.get().reduce(
-              identity,
-              accumulator
-        ));
+  private void evaluateSharedHead(int depth) {
+    InfiniteList<?> source = this.sharedHead();
+    if ((source.state & InfiniteList.HEAD_SHARED) != 0) {
+      if (depth >= InfiniteList.MAX_RECURSION) {
+        InfiniteList.trampoline(this);
+        return;
+      }
+      source.evaluateSharedHead(depth + 1);
+    }
+    this.deriveHead(source);
   }
 
   /**
-   * Returns the number of elements in the InfiniteList.
+   * Evaluates the shared head of 'root' without nesting calls, by keeping
+   * the nodes that are waiting for the heads they share on an explicit
+   * stack.
    *
-   * @return The number of elements.
+   * @param root The node to evaluate the head of.
    */
-  public long count() {
-    return this.reduce(0, (acc, x) -> acc + 1);
+  private static void trampoline(InfiniteList<?> root) {
+    Deque<InfiniteList<?>> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      InfiniteList<?> node = stack.peek();
+      InfiniteList<?> source = node.sharedHead();
+      if ((source.state & InfiniteList.HEAD_SHARED) != 0) {
+        stack.push(source);
+      } else {
+        node.deriveHead(source);
+        stack.pop();
+      }
+    }
   }
 
   /**
-   * Evalutes all the elements in this InfiniteList, and returns them 
-   * in a 'List' in the same order.
+   * Memoises the head of this node from 'source', the node in 'this.head'
+   * whose head is shared, which isn't itself shared. Copies the head of
+   * 'source' by default, which runs no function and so isn't recorded as
+   * an evaluation, but a node whose head is derived (see 'HEAD_DERIVED')
+   * computes it from the head of 'source' instead, and records that.
    *
-   * @return A 'List' of all the elements in this InfiniteList.
+   * @param source The node whose head is shared.
    */
-  public List<T> toList() {
-    return this.reduce(
-        new ArrayList<>(),
-        (list, x) -> {
-          list.add(x);
-          return list;
-        }
-    );
+  void deriveHead(InfiniteList<?> source) {
+    // A node only copies the head of a node of the same value type.
+    @SuppressWarnings("unchecked")
+    InfiniteList<T> copied = (InfiniteList<T>) source;
+    boolean isPresent = copied.isHeadPresent();
+    this.memoiseHead(isPresent ? copied.headValue() : null, isPresent);
   }
 
   /**
-   * Returns the string representation of this InfiniteList. If the element
-   * has not been evaluated before, it'd be shown as "?".
+   * Memoises the evaluated head of this node.
    *
-   * @return The string representation of this InfiniteList.
+   * @param value The element, or null if it was filtered out.
+   * @param isPresent Whether the head is an element.
    */
-  public String toString() {
-    return "[" + this.head + " " + this.tail + "]";
+  void memoiseHead(T value, boolean isPresent) {
+    this.head = value;
+    this.state = (byte) (this.state & (InfiniteList.TAIL_EVALUATED | InfiniteList.INDEXED)
+        | InfiniteList.HEAD_EVALUATED
+        | (isPresent ? InfiniteList.HEAD_PRESENT : 0));
   }
 
-  
-  // ============================ Nested Classes ============================
+  /**
+   * Returns the node in 'this.head' whose head is shared, while it hasn't
+   * been copied.
+   *
+   * @return The node whose head is shared.
+   */
+  InfiniteList<?> sharedHead() {
+    // 'this.head' holds an InfiniteList while 'HEAD_SHARED' is set.
+    return (InfiniteList<?>) this.head;
+  }
 
-  private static class Sentinel extends InfiniteList<Object> {
-    /**
-     * Returns the string representation of a 'Sentinel', which is "-".
-     *
-     * @return "-".
-     */
-    @Override
-    public String toString() {
-      return "-";
+  /**
+   * Returns the node whose head this node's head is a copy of, walking down
+   * the nodes whose heads are shared in a loop, or 'this' if its head isn't
+   * a copy of another node's.
+   *
+   * @return The node holding this node's head.
+   */
+  private InfiniteList<?> headOwner() {
+    InfiniteList<?> curr = this;
+    while ((curr.state & (InfiniteList.HEAD_SHARED | InfiniteList.HEAD_DERIVED))
+        == InfiniteList.HEAD_SHARED) {
+      curr = curr.sharedHead();
     }
+    return curr;
+  }
 
-    /**
-     * Always throws a 'NoSuchElementException', as a 'Sentinel' doesn't
-     * have a head.
-     *
-     * @return Never returns, always throws 'NoSuchElementException'.
-     * @throws NoSuchElementException Always thrown, as sentinels don't have any elements.
-     */
-    @Override
-    public Object head() throws NoSuchElementException {
-      throw new NoSuchElementException();
+  /**
+   * Returns the tail of this node, evaluating it if it hasn't been.
+   *
+   * @return The evaluated tail of this node.
+   */
+  InfiniteList<T> evaluateTail() {
+    if ((this.state & InfiniteList.TAIL_EVALUATED) == 0) {
+      return this.evaluatePendingTail();
     }
+    // 'this.tail' holds an InfiniteList<T> once the tail has been evaluated.
+    @SuppressWarnings("unchecked")
+    InfiniteList<T> tail = (InfiniteList<T>) this.tail;
+    return tail;
+  }
 
-    /**
-     * Always throws a 'NoSuchElementException', as a 'Sentinel' doesn't
-     * have a tail.
-     *
-     * @return Never returns, always throws 'NoSuchElementException'.
-     * @throws NoSuchElementException Always thrown, as sentinels don't have any elements.
-     */
-    @Override
-    public InfiniteList<Object> tail() throws NoSuchElementException {
-      throw new NoSuchElementException();
-    }
+  /**
+   * Evaluates the tail via the 'Tail' in 'this.tail', which is then replaced
+   * by the evaluated tail, so that whatever the 'Tail' captured can be
+   * garbage collected. If the 'Tail' throws, the tail stays unevaluated.
+   * Running the 'Tail' is recorded like a Lazy evaluation, see 'record'.
+   *
+   * @return The evaluated tail of this node.
+   */
+  private InfiniteList<T> evaluatePendingTail() {
+    Tail<T> pending = this.pendingTail();
+    LazyEvaluationEvent event = new LazyEvaluationEvent();
+    event.begin();
+    InfiniteList<T> tail = Metrics.ENABLED
+        ? Metrics.timed(() -> pending.evaluate(false))
+        : pending.evaluate(false);
+    this.tail = tail;
+    this.state |= InfiniteList.TAIL_EVALUATED;
+    InfiniteList.record(event, "tail", pending);
+    return tail;
+  }
 
-    /**
-     * Helper method for 'tail'. Returns a sentinel, as sentinels has
-     * no elements.
-     *
-     * @return A sentinel.
-     */
-    @Override
-    protected InfiniteList<Object> getNextNonNoneHead() {
-      return this;
-    }
+  /**
+   * Returns the 'Tail' in 'this.tail', while the tail hasn't been evaluated.
+   *
+   * @return The 'Tail' evaluating the tail of this node.
+   */
+  private Tail<T> pendingTail() {
+    // 'this.tail' holds a 'Tail' until the tail has been evaluated.
+    @SuppressWarnings("unchecked")
+    Tail<T> pending = (Tail<T>) this.tail;
+    return pending;
+  }
 
-    /**
+  /**
+   * Returns the tail of this node, via 'streamTail' if 'isStreaming'.
+   *
+   * @param isStreaming Whether to avoid memoising the tail.
+   * @return The tail of this node.
+   */
+  InfiniteList<T> evaluateTail(boolean isStreaming) {
+    return isStreaming
+        ? this.streamTail()
+        : this.evaluateTail();
+  }
+
+  /**
+   * Returns the tail of this node like 'evaluateTail', but without memoising
+   * it if it hasn't been evaluated. The returned list is then a fresh copy
+   * that's only referenced by the caller, and whose own tails don't memoise
+   * into any list it was derived from, so walking it keeps no elements alive.
+   *
+   * @return The tail of this node, which is a fresh copy if it wasn't evaluated.
+   */
+  InfiniteList<T> streamTail() {
+    return (this.state & InfiniteList.TAIL_EVALUATED) == 0
+        ? this.pendingTail().evaluate(true)
+        : this.evaluateTail();
+  }
+
+  /**
+   * Returns whether the head of this node has been evaluated.
+   *
+   * @return Whether the head of this node has been evaluated.
+   */
+  boolean isHeadEvaluated() {
+    InfiniteList<?> owner = this.headOwner();
+    return owner == this
+        ? (this.state & InfiniteList.HEAD_EVALUATED) != 0
+        : owner.isHeadEvaluated();
+  }
+
+  /**
+   * Returns whether the tail of this node has been evaluated.
+   *
+   * @return Whether the tail of this node has been evaluated.
+   */
+  boolean isTailEvaluated() {
+    return (this.state & InfiniteList.TAIL_EVALUATED) != 0;
+  }
+
+  /**
+   * Returns an upper bound on the number of elements from this node on,
+   * known without evaluating anything, which is Long.MAX_VALUE if there's
+   * none. Carried through 'limit', 'map' and 'filter'.
+   *
+   * @return The upper bound on the number of elements.
+   */
+  long sizeBound() {
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns whether the list has exactly 'sizeBound()' elements from this
+   * node on, which is false if it's unknown, eg. after a 'filter'. A list
+   * with exactly Long.MAX_VALUE elements never ends.
+   *
+   * @return Whether the list has exactly 'sizeBound()' elements.
+   */
+  boolean isSizeExact() {
+    return false;
+  }
+
+  /**
+   * Returns the capacity to presize a collection of the elements from this
+   * node on with, ie. the list's size or its upper bound, up to
+   * 'PRESIZE_LIMIT', or 0 if neither is known.
+   *
+   * @return The capacity.
+   */
+  private int presize() {
+    long bound = this.sizeBound();
+    if (bound == Long.MAX_VALUE) {
+      return 0;
+    }
+    return (int) Math.min(bound, InfiniteList.PRESIZE_LIMIT);
+  }
+
+  /**
+   * Returns a new InfiniteList that has the 'mapper' Transformer applied to all
+   * elements. Consecutive 'map' and 'filter' calls are fused into a single
+   * list over the same source, see 'Fused'.
+   *
+   * @param <R> The value type of the returned InfiniteList.
+   * @param mapper The Transformer that will be applied.
+   * @return The new InfiniteList that has 'mapper' applied to all its elements.
+   */
+  public <R> InfiniteList<R> map(Transformer<? super T, ? extends R> mapper) {
+    return Fused.of(this, x -> Maybe.some(x).map(mapper), false);
+  }
+
+  /**
+   * Returns a new InfiniteList with all elements not satisfying the
+   * 'predicate' replaced with Maybe.none(). Consecutive 'map' and 'filter'
+   * calls are fused into a single list over the same source, see 'Fused'.
+   *
+   * @param predicate The predicate function to filter the elements by.
+   * @return The new InfiniteList with elements failing the 'predicate' replaced with Maybe.none().
+   */
+  public InfiniteList<T> filter(BooleanCondition<? super T> predicate) {
+    return Fused.of(this, x -> Maybe.some(x).filter(predicate), true);
+  }
+
+  /**
+   * Returns a new InfiniteList of the elements of the lists that 'mapper'
+   * returns for each element, concatenated in order. 'mapper' is only
+   * applied to an element when the list after it is needed, and the inner
+   * lists are only evaluated as far as the returned list is, with a node
+   * for each of their nodes reached. Runs of empty inner lists are skipped
+   * in a loop. See 'FlatMapped'.
+   *
+   * @param <R> The value type of the returned InfiniteList.
+   * @param mapper The Transformer returning the list for each element.
+   * @return The new InfiniteList of the elements of the returned lists.
+   */
+  public <R> InfiniteList<R> flatMap(
+      Transformer<? super T, ? extends InfiniteList<? extends R>> mapper) {
+    Lazy<InfiniteList<R>> first = Lazy.of(() -> FlatMapped.seek(this, null, mapper, false));
+    return new InfiniteList<R>(
+        () -> first.get().isSentinel() ? Maybe.none() : first.get().evaluateHead(),
+        isStreaming -> first.get().isSentinel()
+            ? InfiniteList.sentinel()
+            : first.get().evaluateTail(isStreaming)
+    );
+  }
+
+  /**
+   * Returns a new InfiniteList of the elements of 'this' and 'other' paired
+   * up in order and combined via 'combiner', which ends with the shorter of
+   * the two. Elements filtered out of either list are skipped, so the n-th
+   * element is combined from the n-th elements of each. See 'Zipped'.
+   *
+   * @param <S> The value type of 'other'.
+   * @param <R> The value type of the returned InfiniteList.
+   * @param other The list to pair the elements of 'this' with.
+   * @param combiner The Combiner combining each pair of elements.
+   * @return The new InfiniteList of the combined elements.
+   */
+  public <S, R> InfiniteList<R> zipWith(InfiniteList<S> other,
+      Combiner<? super T, ? super S, ? extends R> combiner) {
+    return Zipped.first(this, other, combiner, null);
+  }
+
+  /**
+   * Returns a new InfiniteList of the elements of 'this' and 'other' combined
+   * like 'zipWith(InfiniteList, Combiner)', but evaluating the next element
+   * of 'other' on 'executor' while the calling thread evaluates the next
+   * element of 'this', for when evaluating the elements of both lists is
+   * slow. Each element then takes as long as the slower of the two rather
+   * than both, but also the time to hand over to 'executor', so it's slower
+   * for cheap elements.
+   *
+   * <p>'this' and 'other' are still each evaluated one element at a time, but
+   * on different threads, so they mustn't share unevaluated nodes (eg.
+   * 'list.zipWith(list.tail(), ..)' is unsafe, unless 'list' is a view from
+   * 'prefetch' or 'mapParallel'). An exception evaluating either list is
+   * thrown to the reader.
+   *
+   * @param <S> The value type of 'other'.
+   * @param <R> The value type of the returned InfiniteList.
+   * @param other The list to pair the elements of 'this' with.
+   * @param combiner The Combiner combining each pair of elements.
+   * @param executor The Executor to evaluate the elements of 'other' on.
+   * @return The new InfiniteList of the combined elements.
+   */
+  public <S, R> InfiniteList<R> zipWith(InfiniteList<S> other,
+      Combiner<? super T, ? super S, ? extends R> combiner, Executor executor) {
+    return Zipped.first(this, other, combiner, executor);
+  }
+
+  /**
+   * Returns a new InfiniteList that has the 'mapper' Transformer applied to
+   * all elements like 'map', but with up to 'maxInFlight' elements being
+   * transformed at once, each on a thread of its own. See
+   * 'mapParallel(Transformer, int, Executor)'.
+   *
+   * @param <R> The value type of the returned InfiniteList.
+   * @param mapper The Transformer that will be applied.
+   * @param maxInFlight The maximum number of elements being transformed at once.
+   * @return The new InfiniteList that has 'mapper' applied to all its elements.
+   * @throws IllegalArgumentException If 'maxInFlight' isn't positive.
+   */
+  public <R> InfiniteList<R> mapParallel(Transformer<? super T, ? extends R> mapper,
+      int maxInFlight) {
+    return this.mapParallel(mapper, maxInFlight, Dispatcher.THREADS);
+  }
+
+  /**
+   * Returns a new InfiniteList that has the 'mapper' Transformer applied to
+   * all elements like 'map', but transformed concurrently on 'executor', for
+   * when 'mapper' mostly waits (eg. on I/O). Reading an element starts
+   * transforming it and the elements after it, so that up to 'maxInFlight'
+   * elements are being transformed at once, and then waits for it. The
+   * elements stay in order, and an element whose transformation threw
+   * throws the same exception when read.
+   *
+   * <p>The elements of 'this' are evaluated by the reading thread, one at a
+   * time, as this list isn't thread-safe. See 'Dispatcher'.
+   *
+   * @param <R> The value type of the returned InfiniteList.
+   * @param mapper The Transformer that will be applied.
+   * @param maxInFlight The maximum number of elements being transformed at once.
+   * @param executor The Executor to transform the elements on.
+   * @return The new InfiniteList that has 'mapper' applied to all its elements.
+   * @throws IllegalArgumentException If 'maxInFlight' isn't positive.
+   */
+  public <R> InfiniteList<R> mapParallel(Transformer<? super T, ? extends R> mapper,
+      int maxInFlight, Executor executor) {
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+    }
+    return new Dispatcher<T, R>(this, mapper, maxInFlight, executor).first();
+  }
+
+  /**
+   * Returns a sentinel, which denotes the end of an InfiniteList.
+   *
+   * @param <T> The generic type of the returned InfiniteList.
+   * @return The sentinel.
+   */
+  public static <T> InfiniteList<T> sentinel() {
+    // 'InfiniteList.SENTINEL' is final, cannot be modified, and doesn't 
+    // contain any contents. Thus, its safe to typecast.
+    @SuppressWarnings("unchecked")
+    InfiniteList<T> output = (InfiniteList<T>) InfiniteList.SENTINEL;
+    return output;
+  }
+
+  /**
+   * Returns a new InfiniteList that's a finite copy of 'this' with a
+   * length less than/equals to 'n'.
+   *
+   * @param n The number of elements in the returned finite InfiniteList.
+   * @return A finite InfiniteList copy.
+   */
+  public InfiniteList<T> limit(long n) {
+    return Maybe.some(n)
+        .filter(x -> x > 0)
+        .map(unused -> Limited.of(this, n))
+        .orElseGet(InfiniteList::sentinel);
+  }
+
+  /**
+   * Returns a finite copy of 'this' like 'limit', but of plain nodes that
+   * don't know their upper bound, for the nodes after the first of a
+   * 'limit' list. So the bound only costs a field once per 'limit' call.
+   *
+   * @param n The maximum number of elements in the returned list.
+   * @return A finite InfiniteList copy.
+   */
+  InfiniteList<T> truncate(long n) {
+    return Maybe.some(n)
+        .filter(x -> x > 0)
+        .map(unused -> new InfiniteList<T>(
+            this,
+            isStreaming -> this.evaluateTail(isStreaming).truncate(
+                this.isHeadPresent() ? n - 1 : n)
+        ))
+        .orElseGet(InfiniteList::sentinel);
+  }
+
+  /**
+   * Returns a new InfiniteList which terminates the moment an element fails
+   * the 'predicate'.
+   *
+   * @param predicate The predicate which determines when to terminate.
+   * @return The new InfiniteList that terminates upon failing the 'predicate'.
+   */
+  public InfiniteList<T> takeWhile(BooleanCondition<? super T> predicate) {
+    Lazy<Maybe<T>> newHead = Lazy.of(() -> Maybe.some(this.head())
+        .filter(predicate)
+    );
+    return new InfiniteList<T>(
+      newHead::get,
+      isStreaming -> newHead.get()
+          .map(unused -> this.getNextNonNoneHead(isStreaming)
+              .evaluateTail(isStreaming)
+              .getNextNonNoneHead(isStreaming)
+              .takeWhile(predicate)
+          )
+          .orElseGet(InfiniteList::sentinel)
+    );
+  }
+
+  /**
+   * Returns a view of this InfiniteList whose elements are evaluated up to
+   * 'depth' elements ahead of the consumer on 'executor', so that slow
+   * producers run while the consumer works on the previous elements. The
+   * elements are memoised into the view (and this list) in order as usual,
+   * and consuming an element that isn't evaluated yet waits for it, or
+   * evaluates it if it isn't being prefetched. Prefetching starts as soon
+   * as this method is called, and stops on the first element whose
+   * evaluation throws, which then throws again for the consumer.
+   *
+   * <p>The elements are still evaluated one at a time, as this list isn't
+   * thread-safe. So prefetching only helps if the producers wait (eg. on
+   * I/O) or the consumer runs on another core. See 'Prefetcher'.
+   *
+   * @param depth The number of elements to evaluate ahead of the consumer.
+   * @param executor The Executor to evaluate the elements on.
+   * @return The prefetching view of this InfiniteList.
+   * @throws IllegalArgumentException If 'depth' isn't positive.
+   */
+  public InfiniteList<T> prefetch(int depth, Executor executor) {
+    if (depth <= 0) {
+      throw new IllegalArgumentException("depth must be positive: " + depth);
+    }
+    return new Prefetcher<T>(depth, executor).start(this);
+  }
+
+  /**
+   * Returns whether 'this' is a 'Sentinel' instance, which is always false.
+   *
+   * @return Always false.
+   */
+  public boolean isSentinel() {
+    return false;
+  }
+
+  /**
+   * Reduces all elements to a single value of type 'U' by combining them
+   * using 'accumulator'.
+   *
+   * @param <U> Return value type.
+   * @param identity Initial value.
+   * @param accumulator Binary function for combining the elements.
+   * @return The value obtained by combining all the elements.
+   */
+  public <U> U reduce(U identity, Combiner<? super U, ? super T, U> accumulator) {
+    // Walks the nodes in a loop rather than recursing on the tail, so that
+    // the stack depth stays constant regardless of the list's length.
+    ReduceEvent event = new ReduceEvent();
+    event.begin();
+    long elements = 0;
+    U result = identity;
+    InfiniteList<T> curr = this;
+    while (!curr.isSentinel()) {
+      if (curr.isHeadPresent()) {
+        Metrics.elementMaterialised();
+        result = accumulator.combine(result, curr.headValue());
+        elements++;
+      } else {
+        Metrics.nodeSkipped();
+      }
+      curr = curr.evaluateTail();
+    }
+    InfiniteList.record(event, accumulator, elements);
+    return result;
+  }
+
+  /**
+   * Commits 'event' for a 'reduce' (which 'toList' is implemented by), a
+   * 'parallelReduce' or a 'count' if it took longer than the event's
+   * threshold.
+   *
+   * @param event The event, begun before the first element was evaluated.
+   * @param accumulator The function the elements were combined with.
+   * @param elements The number of elements reduced.
+   */
+  private static void record(ReduceEvent event, Object accumulator, long elements) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.accumulator = accumulator.getClass();
+      event.elements = elements;
+      event.commit();
+    }
+  }
+
+  /**
+   * Reduces all elements to a single value of type 'U' like 'reduce', but
+   * evaluates and accumulates the elements in parallel on the common
+   * ForkJoinPool. See 'parallelReduce(U, Combiner, Combiner, ForkJoinPool)'.
+   *
+   * @param <U> Return value type.
+   * @param identity Initial value, which must be an identity for 'combiner'.
+   * @param accumulator Binary function for combining an element into a partial result.
+   * @param combiner Binary function for combining two partial results.
+   * @return The value obtained by combining all the elements.
+   */
+  public <U> U parallelReduce(U identity, Combiner<? super U, ? super T, U> accumulator,
+      Combiner<U, U, U> combiner) {
+    return this.parallelReduce(identity, accumulator, combiner, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reduces all elements to a single value of type 'U' like 'reduce', but
+   * evaluates and accumulates the elements in parallel on 'pool'. Only
+   * meaningful on finite lists, eg. ones bounded by 'limit' or 'takeWhile'.
+   *
+   * <p>The tails are first walked on the calling thread, as each depends on
+   * the previous one. The heads are then evaluated (and memoised into the
+   * list as usual) by splitting the nodes across 'pool', and the partial
+   * results are merged in order with 'combiner'. As 'limit' and 'takeWhile'
+   * evaluate the heads before them to find their tails, expensive 'map's
+   * should come after them for their work to be parallelised.
+   *
+   * @param <U> Return value type.
+   * @param identity Initial value, which must be an identity for 'combiner'.
+   * @param accumulator Binary function for combining an element into a partial result.
+   * @param combiner Binary function for combining two partial results.
+   * @param pool The ForkJoinPool to evaluate the elements on.
+   * @return The value obtained by combining all the elements.
+   */
+  public <U> U parallelReduce(U identity, Combiner<? super U, ? super T, U> accumulator,
+      Combiner<U, U, U> combiner, ForkJoinPool pool) {
+    ReduceEvent event = new ReduceEvent();
+    event.begin();
+    List<InfiniteList<T>> nodes = new ArrayList<>();
+    for (InfiniteList<T> curr = this; !curr.isSentinel(); curr = curr.evaluateTail()) {
+      nodes.add(curr);
+    }
+    int threshold = Math.max(1, nodes.size() / (pool.getParallelism() * 4));
+    LongAdder elements = new LongAdder();
+    U result = pool.invoke(new ReduceTask<>(nodes, 0, nodes.size(), threshold,
+        identity, accumulator, combiner, elements));
+    InfiniteList.record(event, accumulator, elements.sum());
+    return result;
+  }
+
+  /**
+   * Returns the number of elements in the InfiniteList. If the number is
+   * known exactly without evaluating anything (eg. for
+   * 'iterate(..).map(..).limit(n)'), it's returned without evaluating any
+   * element, so no mapper is applied and none of their exceptions thrown.
+   *
+   * @return The number of elements.
+   */
+  public long count() {
+    // Walks in its own loop rather than calling 'reduce', as this frame would
+    // otherwise hold on to 'this', and so the whole walked prefix, until the
+    // JIT compiles it.
+    ReduceEvent event = new ReduceEvent();
+    event.begin();
+    long elements = this.sizeBound();
+    if (elements == Long.MAX_VALUE || !this.isSizeExact()) {
+      elements = 0;
+      for (InfiniteList<T> curr = this; !curr.isSentinel(); curr = curr.evaluateTail()) {
+        if (curr.isHeadPresent()) {
+          Metrics.elementMaterialised();
+          elements++;
+        } else {
+          Metrics.nodeSkipped();
+        }
+      }
+    }
+    InfiniteList.record(event, InfiniteList.COUNTER, elements);
+    return elements;
+  }
+
+  /**
+   * Returns the first element satisfying 'predicate', evaluating the
+   * elements up to it and no further.
+   *
+   * @param predicate The predicate the element must satisfy.
+   * @return The first element satisfying 'predicate', or Maybe.none() if
+   *     there's none.
+   */
+  public Maybe<T> findFirst(BooleanCondition<? super T> predicate) {
+    // Walks the nodes in a loop, so the stack depth stays constant however
+    // many elements fail 'predicate'. Each short-circuiting operation has
+    // its own loop rather than sharing one, as this frame would otherwise
+    // hold on to 'this', and so the whole walked prefix, until the JIT
+    // compiles it.
+    InfiniteList<T> curr = this;
+    while (!curr.isSentinel()) {
+      if (!curr.isHeadPresent()) {
+        Metrics.nodeSkipped();
+      } else if (predicate.test(curr.headValue())) {
+        return Maybe.some(curr.headValue());
+      }
+      curr = curr.evaluateTail();
+    }
+    return Maybe.none();
+  }
+
+  /**
+   * Returns whether any element satisfies 'predicate', evaluating the
+   * elements up to the first that does. See 'findFirst'.
+   *
+   * @param predicate The predicate to test the elements with.
+   * @return Whether any element satisfies 'predicate'.
+   */
+  public boolean anyMatch(BooleanCondition<? super T> predicate) {
+    InfiniteList<T> curr = this;
+    while (!curr.isSentinel()) {
+      if (!curr.isHeadPresent()) {
+        Metrics.nodeSkipped();
+      } else if (predicate.test(curr.headValue())) {
+        return true;
+      }
+      curr = curr.evaluateTail();
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether all elements satisfy 'predicate', which is true if there
+   * are none, evaluating the elements up to the first that doesn't. See
+   * 'findFirst'.
+   *
+   * @param predicate The predicate to test the elements with.
+   * @return Whether all elements satisfy 'predicate'.
+   */
+  public boolean allMatch(BooleanCondition<? super T> predicate) {
+    InfiniteList<T> curr = this;
+    while (!curr.isSentinel()) {
+      if (!curr.isHeadPresent()) {
+        Metrics.nodeSkipped();
+      } else if (!predicate.test(curr.headValue())) {
+        return false;
+      }
+      curr = curr.evaluateTail();
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether no element satisfies 'predicate', which is true if there
+   * are none, evaluating the elements up to the first that does. See
+   * 'findFirst'.
+   *
+   * @param predicate The predicate to test the elements with.
+   * @return Whether no element satisfies 'predicate'.
+   */
+  public boolean noneMatch(BooleanCondition<? super T> predicate) {
+    InfiniteList<T> curr = this;
+    while (!curr.isSentinel()) {
+      if (!curr.isHeadPresent()) {
+        Metrics.nodeSkipped();
+      } else if (predicate.test(curr.headValue())) {
+        return false;
+      }
+      curr = curr.evaluateTail();
+    }
+    return true;
+  }
+
+  /**
+   * Evalutes all the elements in this InfiniteList, and returns them 
+   * in a 'List' in the same order. The 'List' is presized if the number of
+   * elements is known, or bounded by a 'limit'.
+   *
+   * @return A 'List' of all the elements in this InfiniteList.
+   */
+  public List<T> toList() {
+    return this.reduce(
+        new ArrayList<>(this.presize()),
+        (list, x) -> {
+          list.add(x);
+          return list;
+        }
+    );
+  }
+
+  /**
+   * Evalutes all the elements in this InfiniteList, and returns them in an
+   * array in the same order, presized like 'toList'.
+   *
+   * @return An array of all the elements in this InfiniteList.
+   */
+  public Object[] toArray() {
+    return this.toList().toArray();
+  }
+
+  /**
+   * Writes the already evaluated prefix of this InfiniteList to 'file',
+   * encoding each element with 'codec', without evaluating anything. The
+   * prefix ends at the first node whose head or tail hasn't been evaluated,
+   * and filtered-out elements are left out. Whether the list ended with the
+   * prefix is written too. See 'load' for reading it back.
+   *
+   * <p>The file is a header, then each element as a 'SNAPSHOT_ELEMENT' byte
+   * followed by its encoding, then a 'SNAPSHOT_MORE' or 'SNAPSHOT_END' byte.
+   *
+   * @param file The file to write to, which is replaced if it exists.
+   * @param codec The Codec encoding the elements.
+   * @return The number of elements written.
+   * @throws IOException If 'file' can't be written to, or 'codec' throws.
+   */
+  public long snapshot(Path file, Codec<? super T> codec) throws IOException {
+    long elements = 0;
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(InfiniteList.SNAPSHOT_MAGIC);
+      out.writeByte(InfiniteList.SNAPSHOT_VERSION);
+      InfiniteList<T> curr = this;
+      while (!curr.isSentinel() && curr.isHeadEvaluated()) {
+        if (curr.isHeadPresent()) {
+          out.writeByte(InfiniteList.SNAPSHOT_ELEMENT);
+          codec.encode(curr.headValue(), out);
+          elements++;
+        }
+        if (!curr.isTailEvaluated()) {
+          break;
+        }
+        curr = curr.evaluateTail();
+      }
+      out.writeByte(curr.isSentinel()
+          ? InfiniteList.SNAPSHOT_END
+          : InfiniteList.SNAPSHOT_MORE);
+    }
+    return elements;
+  }
+
+  /**
+   * Returns an Iterator over the elements of this InfiniteList, which walks
+   * the list with a single cursor. Elements are evaluated (and memoised) only
+   * as the Iterator reaches them.
+   *
+   * @return An Iterator over the elements.
+   */
+  @Override
+  public Iterator<T> iterator() {
+    return new Cursor<>(this, false);
+  }
+
+  /**
+   * Returns an Iterator over the elements of this InfiniteList which, unlike
+   * 'iterator', doesn't memoise the elements it evaluates into the list.
+   * Elements that were already evaluated are read from the list, and the
+   * rest of the pipeline is evaluated on fresh nodes that are dropped as soon
+   * as the Iterator moves past them. So consuming an unbounded list this way
+   * runs in constant memory, even while the list itself is still referenced.
+   * However, elements it evaluates would be evaluated again if the list is
+   * traversed later.
+   *
+   * @return An Iterator over the elements, which doesn't memoise them.
+   */
+  public Iterator<T> streamingIterator() {
+    return new Cursor<>(this, true);
+  }
+
+  /**
+   * Returns an ordered Spliterator over the elements of this InfiniteList,
+   * backed by 'iterator', which is sized if the number of elements is known
+   * exactly.
+   *
+   * @return A Spliterator over the elements.
+   */
+  @Override
+  public Spliterator<T> spliterator() {
+    long size = this.sizeBound();
+    return size != Long.MAX_VALUE && this.isSizeExact()
+        ? Spliterators.spliterator(this.iterator(), size, Spliterator.ORDERED)
+        : Spliterators.spliteratorUnknownSize(this.iterator(), Spliterator.ORDERED);
+  }
+
+  /**
+   * Returns the string representation of this InfiniteList. If the element
+   * has not been evaluated before, it'd be shown as "?".
+   *
+   * @return The string representation of this InfiniteList.
+   */
+  public String toString() {
+    Object tail = (this.state & InfiniteList.TAIL_EVALUATED) == 0 ? "?" : this.tail;
+    return "[" + this.headString() + " " + tail + "]";
+  }
+
+  /**
+   * Returns the string representation of the head of this node, without
+   * evaluating it, which is "?" if it hasn't been evaluated.
+   *
+   * @return The string representation of the head.
+   */
+  String headString() {
+    InfiniteList<?> owner = this.headOwner();
+    if (owner != this) {
+      return owner.headString();
+    }
+    if ((this.state & InfiniteList.HEAD_EVALUATED) == 0) {
+      return "?";
+    }
+    return ((this.state & InfiniteList.HEAD_PRESENT) == 0
+        ? Maybe.none()
+        : Maybe.some(this.head)).toString();
+  }
+
+  
+  // ============================ Nested Classes ============================
+
+  /**
+   * Produces the tail of a node. Besides producing the tail to be memoised
+   * by 'evaluateTail', it can produce a fresh copy of the tail for
+   * 'streamTail', by walking the lists it's derived from via 'streamTail'.
+   *
+   * @param <T> The value type of the list.
+   */
+  @FunctionalInterface
+  private interface Tail<T> {
+    /**
+     * Produces the tail, memoising into the lists it's derived from unless
+     * 'isStreaming'.
+     *
+     * @param isStreaming Whether to produce a fresh copy of the tail.
+     * @return The tail.
+     */
+    InfiniteList<T> evaluate(boolean isStreaming);
+  }
+
+  private static class Sentinel extends InfiniteList<Object> {
+    /**
+     * Returns the string representation of a 'Sentinel', which is "-".
+     *
+     * @return "-".
+     */
+    @Override
+    public String toString() {
+      return "-";
+    }
+
+    /**
+     * Always throws a 'NoSuchElementException', as a 'Sentinel' doesn't
+     * have a head.
+     *
+     * @return Never returns, always throws 'NoSuchElementException'.
+     * @throws NoSuchElementException Always thrown, as sentinels don't have any elements.
+     */
+    @Override
+    public Object head() throws NoSuchElementException {
+      throw new NoSuchElementException();
+    }
+
+    /**
+     * Always throws a 'NoSuchElementException', as a 'Sentinel' doesn't
+     * have a tail.
+     *
+     * @return Never returns, always throws 'NoSuchElementException'.
+     * @throws NoSuchElementException Always thrown, as sentinels don't have any elements.
+     */
+    @Override
+    public InfiniteList<Object> tail() throws NoSuchElementException {
+      throw new NoSuchElementException();
+    }
+
+    /**
+     * Helper method for 'tail'. Returns a sentinel, as sentinels has
+     * no elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    protected InfiniteList<Object> getNextNonNoneHead() {
+      return this;
+    }
+
+    /**
+     * Always throws a 'NoSuchElementException', as sentinels don't have any
+     * elements, unless 'n' is negative.
+     *
+     * @param n The index of the element.
+     * @return Never returns, always throws.
+     * @throws IllegalArgumentException If 'n' is negative.
+     * @throws NoSuchElementException Otherwise, as sentinels don't have any elements.
+     */
+    @Override
+    public Object get(long n) throws NoSuchElementException {
+      this.drop(n);
+      throw new NoSuchElementException();
+    }
+
+    /**
+     * Returns a sentinel, as sentinels has no elements, unless 'n' is
+     * negative.
+     *
+     * @param n The number of elements to drop.
+     * @return A sentinel.
+     * @throws IllegalArgumentException If 'n' is negative.
+     */
+    @Override
+    public InfiniteList<Object> drop(long n) {
+      if (n < 0) {
+        throw new IllegalArgumentException("n must be non-negative: " + n);
+      }
+      return this;
+    }
+
+    /**
      * Returns whether 'this' is a 'Sentinel' instance, which is always true.
      *
-     * @return Always true.
+     * @return Always true.
+     */
+    @Override
+    public boolean isSentinel() {
+      return true;
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     * 'InfiniteList.sentinel()' is used for typecasting purposes.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public <R> InfiniteList<R> map(Transformer<Object, ? extends R> mapper) {
+      return InfiniteList.sentinel();
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public InfiniteList<Object> filter(BooleanCondition<Object> predicate) {
+      return this;
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public InfiniteList<Object> limit(long n) {
+      return this;
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    InfiniteList<Object> truncate(long n) {
+      return this;
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public InfiniteList<Object> takeWhile(BooleanCondition<Object> predicate) {
+      return this;
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public InfiniteList<Object> prefetch(int depth, Executor executor) {
+      return this;
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public <R> InfiniteList<R> flatMap(
+        Transformer<Object, ? extends InfiniteList<? extends R>> mapper) {
+      return InfiniteList.sentinel();
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public <S, R> InfiniteList<R> zipWith(InfiniteList<S> other,
+        Combiner<Object, ? super S, ? extends R> combiner) {
+      return InfiniteList.sentinel();
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public <S, R> InfiniteList<R> zipWith(InfiniteList<S> other,
+        Combiner<Object, ? super S, ? extends R> combiner, Executor executor) {
+      return InfiniteList.sentinel();
+    }
+
+    /**
+     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     *
+     * @return A sentinel.
+     */
+    @Override
+    public <R> InfiniteList<R> mapParallel(Transformer<Object, ? extends R> mapper,
+        int maxInFlight, Executor executor) {
+      return InfiniteList.sentinel();
+    }
+
+    /**
+     * Always returns 'identity', as sentinels don't have any elements.
+     *
+     * @param <U> Return value type.
+     * @param identity Initial value.
+     * @param accumulator Binary function for combining the elements.
+     * @return The 'identity' param.
+     */
+    @Override
+    public <U> U reduce(U identity, Combiner<? super U, Object, U> accumulator) {
+      return identity;
+    }
+
+    /**
+     * Returns the number of elements in the InfiniteList, which is always
+     * zero, as sentinels don't have elements.
+     *
+     * @return 0.
+     */
+    @Override
+    public long count() {
+      return 0;
+    }
+
+    /**
+     * Always returns Maybe.none(), as sentinels don't have any elements.
+     *
+     * @param predicate The predicate the element must satisfy.
+     * @return Maybe.none().
+     */
+    @Override
+    public Maybe<Object> findFirst(BooleanCondition<Object> predicate) {
+      return Maybe.none();
+    }
+
+    /**
+     * Always returns false, as sentinels don't have any elements.
+     *
+     * @param predicate The predicate to test the elements with.
+     * @return false.
+     */
+    @Override
+    public boolean anyMatch(BooleanCondition<Object> predicate) {
+      return false;
+    }
+
+    /**
+     * Always returns true, as sentinels don't have any elements.
+     *
+     * @param predicate The predicate to test the elements with.
+     * @return true.
+     */
+    @Override
+    public boolean allMatch(BooleanCondition<Object> predicate) {
+      return true;
+    }
+
+    /**
+     * Always returns true, as sentinels don't have any elements.
+     *
+     * @param predicate The predicate to test the elements with.
+     * @return true.
+     */
+    @Override
+    public boolean noneMatch(BooleanCondition<Object> predicate) {
+      return true;
+    }
+
+    /**
+     * Returns an empty 'List', as sentinels don't have any elements.
+     *
+     * @return An empty 'List'.
+     */
+    @Override
+    public List<Object> toList() {
+      return new ArrayList<>();
+    }
+
+    /**
+     * Returns 0, as sentinels don't have any elements.
+     *
+     * @return 0.
+     */
+    @Override
+    long sizeBound() {
+      return 0;
+    }
+
+    /**
+     * Returns true, as sentinels have exactly 0 elements.
+     *
+     * @return true.
+     */
+    @Override
+    boolean isSizeExact() {
+      return true;
+    }
+  }
+
+  /**
+   * An Iterator that walks down an InfiniteList, skipping over the
+   * filtered-out elements.
+   *
+   * @param <T> The value type of the InfiniteList.
+   */
+  private static class Cursor<T> implements Iterator<T> {
+    /** The node the cursor is at, which may have a filtered-out head. */
+    private InfiniteList<T> node;
+    /**
+     * Whether the head of 'node' has already been returned. Moving past it is
+     * delayed until the next element is asked for, so that the tail isn't
+     * evaluated before it's needed.
+     */
+    private boolean isHeadConsumed;
+    /** Whether the cursor walks via 'streamTail', so as not to memoise the tails. */
+    private final boolean isStreaming;
+
+    /**
+     * To initialise a Cursor at the start of 'list'.
+     *
+     * @param list The InfiniteList to walk.
+     * @param isStreaming Whether to walk without memoising the tails.
+     */
+    private Cursor(InfiniteList<T> list, boolean isStreaming) {
+      this.node = list;
+      this.isStreaming = isStreaming;
+    }
+
+    /**
+     * Returns whether there's a next element, moving the cursor past any
+     * filtered-out elements.
+     *
+     * @return Whether there's a next element.
+     */
+    @Override
+    public boolean hasNext() {
+      if (this.isHeadConsumed) {
+        this.node = this.node.evaluateTail(this.isStreaming);
+        this.isHeadConsumed = false;
+      }
+      this.node = this.node.getNextNonNoneHead(this.isStreaming);
+      return !this.node.isSentinel();
+    }
+
+    /**
+     * Returns the next element, and moves the cursor past it.
+     *
+     * @return The next element.
+     * @throws NoSuchElementException If there are no more elements.
+     */
+    @Override
+    public T next() {
+      if (!this.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      this.isHeadConsumed = true;
+      Metrics.elementMaterialised();
+      return this.node.headValue();
+    }
+  }
+
+  /**
+   * Evaluates and reduces the heads of a range of nodes for 'parallelReduce',
+   * splitting the range into subtasks until it's no larger than a threshold.
+   *
+   * @param <T> The value type of the InfiniteList.
+   * @param <U> The type of the reduced value.
+   */
+  private static class ReduceTask<T, U> extends RecursiveTask<U> {
+    /** For Serializable, which RecursiveTask is, though tasks are never serialised. */
+    private static final long serialVersionUID = 1L;
+    /** The nodes of the list being reduced. */
+    private final List<InfiniteList<T>> nodes;
+    /** The index of the first node in the range, inclusive. */
+    private final int from;
+    /** The index of the last node in the range, exclusive. */
+    private final int to;
+    /** The largest range that's reduced without splitting. */
+    private final int threshold;
+    /** Initial value of each partial result. */
+    private final U identity;
+    /** Binary function for combining an element into a partial result. */
+    private final Combiner<? super U, ? super T, U> accumulator;
+    /** Binary function for combining two partial results. */
+    private final Combiner<U, U, U> combiner;
+    /** The number of elements reduced by all the tasks of the 'parallelReduce'. */
+    private final LongAdder elements;
+
+    /**
+     * To initialise a ReduceTask over the nodes in the range ['from', 'to').
+     *
+     * @param nodes The nodes of the list being reduced.
+     * @param from The index of the first node in the range, inclusive.
+     * @param to The index of the last node in the range, exclusive.
+     * @param threshold The largest range that's reduced without splitting.
+     * @param identity Initial value of each partial result.
+     * @param accumulator Binary function for combining an element into a partial result.
+     * @param combiner Binary function for combining two partial results.
+     * @param elements The number of elements reduced by all the tasks.
+     */
+    private ReduceTask(List<InfiniteList<T>> nodes, int from, int to, int threshold,
+        U identity, Combiner<? super U, ? super T, U> accumulator, Combiner<U, U, U> combiner,
+        LongAdder elements) {
+      this.nodes = nodes;
+      this.from = from;
+      this.to = to;
+      this.threshold = threshold;
+      this.identity = identity;
+      this.accumulator = accumulator;
+      this.combiner = combiner;
+      this.elements = elements;
+    }
+
+    /**
+     * Reduces the range, forking a subtask for its left half if it's too large.
+     *
+     * @return The reduced value of the range.
+     */
+    @Override
+    protected U compute() {
+      if (this.to - this.from <= this.threshold) {
+        U result = this.identity;
+        int reduced = 0;
+        for (int i = this.from; i < this.to; i++) {
+          InfiniteList<T> node = this.nodes.get(i);
+          if (node.isHeadPresent()) {
+            Metrics.elementMaterialised();
+            result = this.accumulator.combine(result, node.headValue());
+            reduced++;
+          } else {
+            Metrics.nodeSkipped();
+          }
+        }
+        this.elements.add(reduced);
+        return result;
+      }
+      int mid = (this.from + this.to) >>> 1;
+      ReduceTask<T, U> left = new ReduceTask<>(this.nodes, this.from, mid, this.threshold,
+          this.identity, this.accumulator, this.combiner, this.elements);
+      ReduceTask<T, U> right = new ReduceTask<>(this.nodes, mid, this.to, this.threshold,
+          this.identity, this.accumulator, this.combiner, this.elements);
+      left.fork();
+      U rightResult = right.compute();
+      return this.combiner.combine(left.join(), rightResult);
+    }
+  }
+
+  /**
+   * Checkpoints of a list for 'get' and 'drop', where the 'k'-th checkpoint
+   * is a node whose first element is at index 'k * STRIDE' of the list. The
+   * checkpoints are recorded as lookups walk past them over memoised nodes,
+   * so they only cover the list's evaluated prefix. A lookup only walks
+   * from the nearest checkpoint before its index, ie. at most 'STRIDE'
+   * elements once the prefix is indexed. The checkpoints are a flat array
+   * rather than levels of pointers every 2^k nodes, as jumping to one is
+   * then O(1) instead of O(log n), and the array is only 1/STRIDE the size
+   * of the prefix.
+   *
+   * <p>Recording checkpoints is synchronized, so that lists shared between
+   * threads (eg. with 'prefetch') can be looked up concurrently. The list
+   * itself isn't recorded as the 0-th checkpoint, as 'SKIP_INDEXES' would
+   * then never drop it.
+   *
+   * @param <T> The value type of the list.
+   */
+  private static class SkipIndex<T> {
+    /** The log2 of 'STRIDE'. */
+    private static final int STRIDE_BITS = 6;
+    /** The number of elements between checkpoints. */
+    private static final int STRIDE = 1 << SkipIndex.STRIDE_BITS;
+
+    /** The checkpoints, the first 'size' of which are recorded, bar the list at 0. */
+    private InfiniteList<?>[] checkpoints = new InfiniteList<?>[16];
+    /** The number of checkpoints recorded. */
+    private int size;
+
+    /**
+     * To initialise a SkipIndex with only the 0-th checkpoint, ie. the list.
+     */
+    private SkipIndex() {
+      this.size = 1;
+    }
+
+    /**
+     * Returns the index of the last recorded checkpoint at or before the
+     * element at index 'n'.
+     *
+     * @param n The index of the element.
+     * @return The index of the checkpoint.
+     */
+    private synchronized int floor(long n) {
+      return (int) Math.min(n >>> SkipIndex.STRIDE_BITS, this.size - 1);
+    }
+
+    /**
+     * Returns the recorded checkpoint at index 'k'.
+     *
+     * @param k The index of the checkpoint.
+     * @return The checkpoint.
+     */
+    private synchronized InfiniteList<T> get(int k) {
+      // All the checkpoints are nodes of an 'InfiniteList<T>'.
+      @SuppressWarnings("unchecked")
+      InfiniteList<T> checkpoint = (InfiniteList<T>) this.checkpoints[k];
+      return checkpoint;
+    }
+
+    /**
+     * Records 'node' as the checkpoint at index 'k', if it's the next one.
+     *
+     * @param k The index of the checkpoint.
+     * @param node The node whose first element is at index 'k * STRIDE'.
+     */
+    private synchronized void add(int k, InfiniteList<T> node) {
+      if (k != this.size) {
+        return;
+      }
+      if (k == this.checkpoints.length) {
+        this.checkpoints = Arrays.copyOf(this.checkpoints, 2 * k);
+      }
+      this.checkpoints[k] = node;
+      this.size++;
+    }
+  }
+
+  /**
+   * The elements read from a 'snapshot' file, for 'load'.
+   *
+   * @param <T> The value type of the elements.
+   */
+  private static class Snapshot<T> {
+    /** The elements, in order. */
+    private final List<T> elements;
+    /** Whether the snapshotted list ended after the elements. */
+    private final boolean isComplete;
+
+    /**
+     * To initialise a Snapshot of 'elements'.
+     *
+     * @param elements The elements, in order.
+     * @param isComplete Whether the snapshotted list ended after the elements.
+     */
+    private Snapshot(List<T> elements, boolean isComplete) {
+      this.elements = elements;
+      this.isComplete = isComplete;
+    }
+
+    /**
+     * Reads the Snapshot written to 'file' by 'snapshot'.
+     *
+     * @param <T> The value type of the elements.
+     * @param file The file to read.
+     * @param codec The Codec decoding the elements.
+     * @return The Snapshot.
+     * @throws IOException If 'file' can't be read or isn't a snapshot, or 'codec' throws.
+     */
+    private static <T> Snapshot<T> read(Path file, Codec<? extends T> codec)
+        throws IOException {
+      try (DataInputStream in = new DataInputStream(
+          new BufferedInputStream(Files.newInputStream(file)))) {
+        if (in.readInt() != InfiniteList.SNAPSHOT_MAGIC
+            || in.readByte() != InfiniteList.SNAPSHOT_VERSION) {
+          throw new IOException("Not a version " + InfiniteList.SNAPSHOT_VERSION
+              + " InfiniteList snapshot: " + file);
+        }
+        List<T> elements = new ArrayList<>();
+        int tag = in.readByte();
+        while (tag == InfiniteList.SNAPSHOT_ELEMENT) {
+          elements.add(codec.decode(in));
+          tag = in.readByte();
+        }
+        if (tag != InfiniteList.SNAPSHOT_MORE && tag != InfiniteList.SNAPSHOT_END) {
+          throw new IOException("Corrupted InfiniteList snapshot: " + file);
+        }
+        return new Snapshot<>(elements, tag == InfiniteList.SNAPSHOT_END);
+      }
+    }
+
+    /**
+     * Returns a list of the elements, all already evaluated, followed by 'rest'.
+     *
+     * @param rest The list after the elements.
+     * @return The list of the elements.
+     */
+    private InfiniteList<T> prefix(InfiniteList<T> rest) {
+      InfiniteList<T> list = rest;
+      for (int i = this.elements.size() - 1; i >= 0; i--) {
+        list = new InfiniteList<>(this.elements.get(i), list);
+      }
+      return list;
+    }
+  }
+
+  /**
+   * Creates the nodes of a 'records' list. Each node's record is located
+   * (ie. its end is found) when the node is created, but is only decoded
+   * when its head is evaluated. As a MappedByteBuffer can't be larger than
+   * 2 GB, the file is mapped a 'Window' of 'WINDOW_SIZE' bytes at a time,
+   * starting from the first record that doesn't fit in the previous window.
+   * Each node holds on to its window, so that a window is unmapped once no
+   * node in it is reachable.
+   *
+   * @param <T> The value type of the list.
+   */
+  private static class MappedRecords<T> {
+    /** The number of bytes to map at a time, unless a record is longer. */
+    private static final long WINDOW_SIZE = 1L << 28;
+
+    /** The file being read. */
+    private final Path file;
+    /** The size of the file. */
+    private final long size;
+    /** The number of bytes in each record, or 0 if they're newline-delimited. */
+    private final int recordSize;
+    /** The Transformer decoding a record's bytes into an element. */
+    private final Transformer<? super ByteBuffer, ? extends T> decoder;
+
+    /**
+     * To initialise a MappedRecords of 'file'.
+     *
+     * @param file The file to read.
+     * @param recordSize The number of bytes in each record, or 0 if they're newline-delimited.
+     * @param decoder The Transformer decoding a record's bytes into an element.
+     * @throws IOException If the size of 'file' can't be read.
+     */
+    private MappedRecords(Path file, int recordSize,
+        Transformer<? super ByteBuffer, ? extends T> decoder) throws IOException {
+      this.file = file;
+      this.size = Files.size(file);
+      this.recordSize = recordSize;
+      this.decoder = decoder;
+    }
+
+    /**
+     * Returns the node of the first record.
+     *
+     * @return The node, or a sentinel if the file is empty.
+     * @throws IOException If the file can't be mapped.
+     */
+    private InfiniteList<T> first() throws IOException {
+      if (this.size == 0) {
+        return InfiniteList.sentinel();
+      }
+      try {
+        return this.from(this.map(0, 0), 0);
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    }
+
+    /**
+     * Returns the node of the record starting at 'offset', which is in
+     * 'window' if it's not at the end of the file.
+     *
+     * @param window The window the previous record was in.
+     * @param offset The offset of the record in the file.
+     * @return The node, or a sentinel if 'offset' is the end of the file.
+     * @throws UncheckedIOException If the file can't be mapped.
+     */
+    private InfiniteList<T> from(Window window, long offset) {
+      if (offset >= this.size) {
+        return InfiniteList.sentinel();
+      }
+      long end = this.recordSize > 0
+          ? Math.min(offset + this.recordSize, this.size)
+          : window.indexOf('\n', offset);
+      while (end < 0 || end > window.end()) {
+        window = this.map(offset, Math.max(0, (end < 0 ? window.end() : end) - offset));
+        end = this.recordSize > 0 ? end : window.indexOf('\n', offset);
+      }
+      Window recordWindow = window;
+      int position = (int) (offset - window.start);
+      int length = (int) (Math.min(end, this.size) - offset);
+      Transformer<? super ByteBuffer, ? extends T> decoder = this.decoder;
+      long next = end + (this.recordSize > 0 ? 0 : 1);
+      return new InfiniteList<T>(
+          () -> Maybe.some(decoder.transform(recordWindow.buffer.slice(position, length))),
+          isStreaming -> this.from(recordWindow, next)
+      );
+    }
+
+    /**
+     * Maps the window of the file starting at 'start', which is
+     * 'WINDOW_SIZE' bytes long, or longer if needed to find the end of a
+     * record of at least 'length' bytes.
+     *
+     * @param start The offset of the window in the file.
+     * @param length The number of bytes known to be in the record.
+     * @return The window.
+     * @throws UncheckedIOException If the file can't be mapped.
+     * @throws IllegalStateException If the record is longer than 2 GB.
+     */
+    private Window map(long start, long length) {
+      long windowSize = Math.max(MappedRecords.WINDOW_SIZE, 2 * length);
+      if (length >= Integer.MAX_VALUE) {
+        throw new IllegalStateException("Record at " + start + " is longer than 2 GB");
+      }
+      windowSize = Math.min(Math.min(windowSize, Integer.MAX_VALUE), this.size - start);
+      try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+        return new Window(start, channel.map(FileChannel.MapMode.READ_ONLY, start, windowSize),
+            start + windowSize == this.size);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * A mapped window of a file, for 'MappedRecords'.
+   */
+  private static class Window {
+    /** The offset of the window in the file. */
+    private final long start;
+    /** The mapped bytes of the window. */
+    private final MappedByteBuffer buffer;
+    /** Whether the window ends at the end of the file. */
+    private final boolean isLast;
+
+    /**
+     * To initialise a Window of 'buffer', mapped from 'start'.
+     *
+     * @param start The offset of the window in the file.
+     * @param buffer The mapped bytes of the window.
+     * @param isLast Whether the window ends at the end of the file.
+     */
+    private Window(long start, MappedByteBuffer buffer, boolean isLast) {
+      this.start = start;
+      this.buffer = buffer;
+      this.isLast = isLast;
+    }
+
+    /**
+     * Returns the offset of the end of the window in the file.
+     *
+     * @return The offset of the end of the window.
+     */
+    private long end() {
+      return this.start + this.buffer.capacity();
+    }
+
+    /**
+     * Returns the offset of the first 'delimiter' from 'offset' in the file,
+     * or the end of the file if this is the last window and there's none.
+     *
+     * @param delimiter The byte to look for.
+     * @param offset The offset to look from.
+     * @return The offset of the delimiter, or -1 if it's not in this window.
+     */
+    private long indexOf(char delimiter, long offset) {
+      int limit = this.buffer.capacity();
+      for (int i = (int) (offset - this.start); i < limit; i++) {
+        if (this.buffer.get(i) == delimiter) {
+          return this.start + i;
+        }
+      }
+      return this.isLast ? this.end() : -1;
+    }
+  }
+
+  /**
+   * A node that's shared between threads, whose head and tail are each
+   * evaluated while holding the node's lock. So even when raced by several
+   * threads, each is evaluated at most once, and every thread reads the
+   * values written by the one that evaluated them. The tail is memoised
+   * even by 'streamTail', as other threads may be walking it.
+   *
+   * @param <T> The value type of the list.
+   */
+  private static class Concurrent<T> extends InfiniteList<T> {
+    /**
+     * To initialise a Concurrent node with the head and tail that's not evaluated yet.
+     *
+     * @param head Evaluates the head value, which is Maybe.none() if it's filtered out.
+     * @param tail Tail for the unevaluated tail value.
+     */
+    private Concurrent(Producer<Maybe<T>> head, Tail<T> tail) {
+      super(head, tail);
+    }
+
+    /**
+     * Returns whether the head of this node is an element, evaluating it
+     * while holding the lock if it hasn't been.
+     *
+     * @return Whether the head of this node is an element.
+     */
+    @Override
+    synchronized boolean isHeadPresent() {
+      return super.isHeadPresent();
+    }
+
+    /**
+     * Returns the tail of this node, evaluating it while holding the lock if
+     * it hasn't been.
+     *
+     * @return The evaluated tail of this node.
+     */
+    @Override
+    synchronized InfiniteList<T> evaluateTail() {
+      return super.evaluateTail();
+    }
+
+    /**
+     * Returns the memoised tail like 'evaluateTail', as the node is shared.
+     *
+     * @return The evaluated tail of this node.
+     */
+    @Override
+    InfiniteList<T> streamTail() {
+      return this.evaluateTail();
+    }
+
+    /**
+     * Returns whether the head of this node has been evaluated.
+     *
+     * @return Whether the head of this node has been evaluated.
+     */
+    @Override
+    synchronized boolean isHeadEvaluated() {
+      return super.isHeadEvaluated();
+    }
+
+    /**
+     * Returns whether the tail of this node has been evaluated.
+     *
+     * @return Whether the tail of this node has been evaluated.
+     */
+    @Override
+    synchronized boolean isTailEvaluated() {
+      return super.isTailEvaluated();
+    }
+
+    /**
+     * Returns the string representation of this InfiniteList, reading this
+     * node while holding the lock.
+     *
+     * @return The string representation of this InfiniteList.
+     */
+    @Override
+    public synchronized String toString() {
+      return super.toString();
+    }
+
+    /**
+     * Returns the string representation of the head of this node, reading it
+     * while holding the lock.
+     *
+     * @return The string representation of the head.
+     */
+    @Override
+    synchronized String headString() {
+      return super.headString();
+    }
+  }
+
+  /**
+   * Evaluates the nodes of a 'prefetch' view ahead of its consumer. The
+   * view's nodes ('Prefetched') are 'Concurrent' nodes that evaluate the
+   * corresponding nodes of the source list. As the source's nodes aren't
+   * thread-safe, and may depend on each other (eg. the tail of a 'limit'
+   * evaluates its head), all evaluation of the source is done while holding
+   * 'sourceLock', by whichever thread gets to it first.
+   *
+   * <p>A single task at a time runs on the executor, walking the view from
+   * 'frontier' until 'target', which the consumer pushes ahead of itself as
+   * it reads the view's nodes.
+   *
+   * @param <T> The value type of the list.
+   */
+  private static class Prefetcher<T> {
+    /** The number of nodes to evaluate ahead of the consumer. */
+    private final int depth;
+    /** The Executor to evaluate the nodes on. */
+    private final Executor executor;
+    /** Held while evaluating the source list. */
+    private final Object sourceLock = new Object();
+    /** The next node of the view to evaluate, or null if there's none left. */
+    private InfiniteList<T> frontier;
+    /** The index of 'frontier' in the view. */
+    private long frontierIndex;
+    /** The index of the node at which to stop prefetching. */
+    private long target;
+    /** Whether a task is evaluating or about to evaluate the frontier. */
+    private boolean isRunning;
+
+    /**
+     * To initialise a Prefetcher.
+     *
+     * @param depth The number of nodes to evaluate ahead of the consumer.
+     * @param executor The Executor to evaluate the nodes on.
+     */
+    private Prefetcher(int depth, Executor executor) {
+      this.depth = depth;
+      this.executor = executor;
+    }
+
+    /**
+     * Returns the view of 'source', and starts prefetching its first nodes.
+     *
+     * @param source The list to prefetch.
+     * @return The view of 'source'.
+     */
+    private InfiniteList<T> start(InfiniteList<T> source) {
+      InfiniteList<T> view = this.view(source, 0);
+      synchronized (this) {
+        this.frontier = view.isSentinel() ? null : view;
+      }
+      this.request(0);
+      return view;
+    }
+
+    /**
+     * Returns the node of the view at 'index' for the node 'source'.
+     *
+     * @param source The node of the source list.
+     * @param index The index of the node.
+     * @return The node of the view, or a sentinel if 'source' is one.
+     */
+    private InfiniteList<T> view(InfiniteList<T> source, long index) {
+      return source.isSentinel()
+          ? InfiniteList.sentinel()
+          : new Prefetched<>(source, this, index);
+    }
+
+    /**
+     * Returns the result of 'producer', evaluated while holding 'sourceLock'.
+     *
+     * @param <U> The type of the result.
+     * @param producer Evaluates part of the source list.
+     * @return The result of 'producer'.
+     */
+    private <U> U evaluate(Producer<U> producer) {
+      synchronized (this.sourceLock) {
+        return producer.produce();
+      }
+    }
+
+    /**
+     * Notes that the consumer has reached the node at 'index', and starts a
+     * task to evaluate the 'depth' nodes after it, if none is running.
+     *
+     * @param index The index of the node the consumer has reached.
+     */
+    private void request(long index) {
+      synchronized (this) {
+        long target = index + this.depth + 1;
+        if (target <= this.target) {
+          return;
+        }
+        this.target = target;
+        if (this.isRunning || this.frontier == null) {
+          return;
+        }
+        this.isRunning = true;
+      }
+      this.executor.execute(this::run);
+    }
+
+    /**
+     * Evaluates the head and tail of each node from 'frontier' until
+     * 'target' or the end of the list. Stops for good if an evaluation
+     * throws, leaving the node for the consumer to evaluate (and throw).
+     */
+    private void run() {
+      while (true) {
+        InfiniteList<T> node;
+        synchronized (this) {
+          if (this.frontier == null || this.frontierIndex >= this.target) {
+            this.isRunning = false;
+            return;
+          }
+          node = this.frontier;
+        }
+        InfiniteList<T> next;
+        try {
+          // The frontier is a node of the view, as it's null instead of a sentinel.
+          next = ((Prefetched<T>) node).prefetch();
+        } catch (RuntimeException e) {
+          synchronized (this) {
+            this.frontier = null;
+            this.isRunning = false;
+          }
+          return;
+        }
+        synchronized (this) {
+          this.frontier = next.isSentinel() ? null : next;
+          this.frontierIndex++;
+        }
+      }
+    }
+  }
+
+  /**
+   * A node of a 'prefetch' view, whose head and tail evaluate the
+   * corresponding node of the source list. Reading either tells the
+   * 'Prefetcher' how far the consumer has got. Lists built over the view,
+   * eg. 'map' and 'filter' ones, which fuse over it, and 'limit' ones, read
+   * its nodes through 'isHeadPresent' and 'evaluateTail' like any consumer,
+   * so the request is sent whichever list reads the view.
+   *
+   * @param <T> The value type of the list.
+   */
+  private static class Prefetched<T> extends Concurrent<T> {
+    /** The Prefetcher evaluating the view this node belongs to. */
+    private final Prefetcher<T> prefetcher;
+    /** The index of this node in the view. */
+    private final long index;
+
+    /**
+     * To initialise a node of the view at 'index' for the node 'source'.
+     *
+     * @param source The non-sentinel node of the source list.
+     * @param prefetcher The Prefetcher evaluating the view.
+     * @param index The index of the node.
+     */
+    private Prefetched(InfiniteList<T> source, Prefetcher<T> prefetcher, long index) {
+      super(
+          () -> prefetcher.evaluate(source::evaluateHead),
+          isStreaming -> prefetcher.view(prefetcher.evaluate(source::evaluateTail), index + 1)
+      );
+      this.prefetcher = prefetcher;
+      this.index = index;
+    }
+
+    /**
+     * Returns whether the head of this node is an element, waiting for it if
+     * it's being prefetched.
+     *
+     * @return Whether the head of this node is an element.
+     */
+    @Override
+    boolean isHeadPresent() {
+      this.prefetcher.request(this.index);
+      return super.isHeadPresent();
+    }
+
+    /**
+     * Returns the tail of this node, waiting for it if it's being prefetched.
+     *
+     * @return The evaluated tail of this node.
+     */
+    @Override
+    InfiniteList<T> evaluateTail() {
+      this.prefetcher.request(this.index + 1);
+      return super.evaluateTail();
+    }
+
+    /**
+     * Evaluates the head and tail of this node for the 'Prefetcher', without
+     * telling it how far the consumer has got.
+     *
+     * @return The evaluated tail of this node.
+     */
+    private InfiniteList<T> prefetch() {
+      super.isHeadPresent();
+      return super.evaluateTail();
+    }
+  }
+
+  /**
+   * A node of a 'flatMap' list, for the node 'inner' of the list that
+   * 'mapper' returned for the head of the node 'outer'. Shares the head of
+   * 'inner', so that evaluating it memoises into the inner list.
+   *
+   * @param <T> The value type of the outer list.
+   * @param <R> The value type of this list.
+   */
+  private static class FlatMapped<T, R> extends InfiniteList<R> {
+    /**
+     * To initialise the node for 'inner', which came from the head of 'outer'.
+     *
+     * @param outer The node of the outer list.
+     * @param inner The non-sentinel node of the inner list.
+     * @param mapper The Transformer returning the inner lists.
+     */
+    private FlatMapped(InfiniteList<T> outer, InfiniteList<? extends R> inner,
+        Transformer<? super T, ? extends InfiniteList<? extends R>> mapper) {
+      super(
+          FlatMapped.<R>widen(inner),
+          isStreaming -> FlatMapped.seek(outer, inner.evaluateTail(isStreaming),
+              mapper, isStreaming)
+      );
+    }
+
+    /**
+     * Returns the node for the first element from 'inner' on, or from the
+     * lists 'mapper' returns for the elements after 'outer' if 'inner' is
+     * empty. Walks past the empty lists in a loop.
+     *
+     * @param <T> The value type of the outer list.
+     * @param <R> The value type of the returned list.
+     * @param outer The node of the outer list.
+     * @param inner The node of the list for the head of 'outer', or null if
+     *     'mapper' hasn't been applied to it yet.
+     * @param mapper The Transformer returning the inner lists.
+     * @param isStreaming Whether to walk the outer list without memoising it.
+     * @return The node, or a sentinel if there are no more elements.
+     */
+    private static <T, R> InfiniteList<R> seek(InfiniteList<T> outer,
+        InfiniteList<? extends R> inner,
+        Transformer<? super T, ? extends InfiniteList<? extends R>> mapper,
+        boolean isStreaming) {
+      while (true) {
+        if (inner == null) {
+          if (outer.isSentinel()) {
+            return InfiniteList.sentinel();
+          }
+          inner = outer.isHeadPresent()
+              ? mapper.transform(outer.headValue())
+              : InfiniteList.sentinel();
+        }
+        if (!inner.isSentinel()) {
+          return new FlatMapped<>(outer, inner, mapper);
+        }
+        outer = outer.evaluateTail(isStreaming);
+        inner = null;
+      }
+    }
+
+    /**
+     * Returns 'list' as an InfiniteList of its supertype 'R', which is safe
+     * as InfiniteLists are immutable.
+     *
+     * @param <R> The value type of the returned list.
+     * @param list The list to widen.
+     * @return 'list'.
+     */
+    private static <R> InfiniteList<R> widen(InfiniteList<? extends R> list) {
+      @SuppressWarnings("unchecked")
+      InfiniteList<R> widened = (InfiniteList<R>) list;
+      return widened;
+    }
+  }
+
+  /**
+   * A node of a 'zipWith' list, holding the nodes of the two lists whose
+   * heads it combines. Both are the next nodes with an element, found by
+   * walking past the filtered-out nodes, and with an 'executor', the walk
+   * over the second list is done on it while the reader walks the first.
+   *
+   * @param <T> The value type of the first list.
+   * @param <S> The value type of the second list.
+   * @param <R> The value type of this list.
+   */
+  private static class Zipped<T, S, R> extends InfiniteList<R> {
+    /**
+     * To initialise the node combining the heads of 'left' and 'right'.
+     *
+     * @param left The node of the first list, whose head has an element.
+     * @param right The node of the second list, whose head has an element.
+     * @param combiner The Combiner combining each pair of elements.
+     * @param executor The Executor to evaluate the second list on, or null
+     *     to evaluate it on the reader.
+     */
+    private Zipped(InfiniteList<T> left, InfiniteList<S> right,
+        Combiner<? super T, ? super S, ? extends R> combiner, Executor executor) {
+      super(
+          () -> Maybe.some(combiner.combine(left.headValue(), right.headValue())),
+          isStreaming -> Zipped.seek(
+              () -> left.evaluateTail(isStreaming).getNextNonNoneHead(isStreaming),
+              () -> right.evaluateTail(isStreaming).getNextNonNoneHead(isStreaming),
+              combiner, executor)
+      );
+    }
+
+    /**
+     * Returns the first node of the list combining 'left' and 'right', which
+     * finds the first elements of both only when it's evaluated.
+     *
+     * @param <T> The value type of the first list.
+     * @param <S> The value type of the second list.
+     * @param <R> The value type of the returned list.
+     * @param left The first list.
+     * @param right The second list.
+     * @param combiner The Combiner combining each pair of elements.
+     * @param executor The Executor to evaluate the second list on, or null
+     *     to evaluate it on the reader.
+     * @return The first node, or a sentinel if either list is one.
+     */
+    private static <T, S, R> InfiniteList<R> first(InfiniteList<T> left,
+        InfiniteList<S> right, Combiner<? super T, ? super S, ? extends R> combiner,
+        Executor executor) {
+      if (left.isSentinel() || right.isSentinel()) {
+        return InfiniteList.sentinel();
+      }
+      Lazy<InfiniteList<R>> first = Lazy.of(() -> Zipped.seek(
+          () -> left.getNextNonNoneHead(), () -> right.getNextNonNoneHead(),
+          combiner, executor));
+      return new InfiniteList<R>(
+          () -> first.get().isSentinel() ? Maybe.none() : first.get().evaluateHead(),
+          isStreaming -> first.get().isSentinel()
+              ? InfiniteList.sentinel()
+              : first.get().evaluateTail(isStreaming)
+      );
+    }
+
+    /**
+     * Returns the node combining the nodes 'left' and 'right' produce, which
+     * are evaluated one after the other, or at the same time with 'right' on
+     * 'executor' if there's one.
+     *
+     * @param <T> The value type of the first list.
+     * @param <S> The value type of the second list.
+     * @param <R> The value type of the returned list.
+     * @param left Produces the next node of the first list with an element.
+     * @param right Produces the next node of the second list with an element.
+     * @param combiner The Combiner combining each pair of elements.
+     * @param executor The Executor to evaluate the second list on, or null
+     *     to evaluate it on the reader.
+     * @return The node, or a sentinel if either list has no more elements.
+     */
+    private static <T, S, R> InfiniteList<R> seek(Producer<InfiniteList<T>> left,
+        Producer<InfiniteList<S>> right,
+        Combiner<? super T, ? super S, ? extends R> combiner, Executor executor) {
+      InfiniteList<T> leftNode;
+      InfiniteList<S> rightNode;
+      if (executor == null) {
+        leftNode = left.produce();
+        rightNode = leftNode.isSentinel() ? InfiniteList.sentinel() : right.produce();
+      } else {
+        CompletableFuture<InfiniteList<S>> pending =
+            CompletableFuture.supplyAsync(right::produce, executor);
+        leftNode = left.produce();
+        rightNode = Slot.join(pending);
+      }
+      return leftNode.isSentinel() || rightNode.isSentinel()
+          ? InfiniteList.sentinel()
+          : new Zipped<>(leftNode, rightNode, combiner, executor);
+    }
+  }
+
+  /**
+   * Starts the transformations of a 'mapParallel' list. Each element of the
+   * source list gets a 'Slot' holding the future result of transforming
+   * it, and the slots are linked in order. The list's nodes ('ParallelMapped')
+   * each wait on a slot. Reading the node at 'index' dispatches the source's
+   * elements until the one at 'index + maxInFlight - 1', so at most
+   * 'maxInFlight' transformations run ahead of the reader, and the
+   * dispatcher only holds on to the last slot.
+   *
+   * @param <S> The value type of the source list.
+   * @param <T> The value type of the mapped list.
+   */
+  private static class Dispatcher<S, T> {
+    /** The default Executor, running each transformation on a new or idle daemon thread. */
+    private static final Executor THREADS = Executors.newCachedThreadPool(task -> {
+      Thread thread = new Thread(task, "cs2030s-mapParallel");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    /** The Transformer being applied. */
+    private final Transformer<? super S, ? extends T> mapper;
+    /** The maximum number of elements being transformed at once. */
+    private final int maxInFlight;
+    /** The Executor to transform the elements on. */
+    private final Executor executor;
+    /** The next node of the source list to dispatch, or null if there's none left. */
+    private InfiniteList<S> source;
+    /** The slot of the last dispatched element, to link the next one to. */
+    private Slot<T> last;
+    /** The number of elements dispatched. */
+    private long dispatched;
+
+    /**
+     * To initialise a Dispatcher of the elements of 'source'.
+     *
+     * @param source The list to transform.
+     * @param mapper The Transformer that will be applied.
+     * @param maxInFlight The maximum number of elements being transformed at once.
+     * @param executor The Executor to transform the elements on.
+     */
+    private Dispatcher(InfiniteList<S> source, Transformer<? super S, ? extends T> mapper,
+        int maxInFlight, Executor executor) {
+      this.source = source;
+      this.mapper = mapper;
+      this.maxInFlight = maxInFlight;
+      this.executor = executor;
+      this.last = new Slot<>(null);
+    }
+
+    /**
+     * Returns the first node of the mapped list, dispatching its first
+     * element if there is one.
+     *
+     * @return The first node, or a sentinel if the source list is empty.
+     */
+    private InfiniteList<T> first() {
+      Slot<T> start = this.last;
+      this.dispatch(0);
+      return this.node(start, 0);
+    }
+
+    /**
+     * Returns the node of the mapped list that waits on the slot after
+     * 'previous'.
+     *
+     * @param previous The slot before the node's.
+     * @param index The index of the node.
+     * @return The node, or a sentinel if there are no more elements.
+     * @throws RuntimeException If evaluating the source list's tail threw.
+     */
+    private InfiniteList<T> node(Slot<T> previous, long index) {
+      Slot<T> slot;
+      RuntimeException failure;
+      synchronized (this) {
+        slot = previous.next;
+        failure = previous.failure;
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return slot == null
+          ? InfiniteList.sentinel()
+          : new ParallelMapped<>(slot, this, index);
+    }
+
+    /**
+     * Dispatches the source's elements until the one 'maxInFlight - 1' after
+     * 'index', or the end of the source list.
+     *
+     * @param index The index of the element being read.
+     */
+    private synchronized void dispatch(long index) {
+      long target = index + this.maxInFlight;
+      while (this.source != null && this.dispatched < target) {
+        if (this.source.isSentinel()) {
+          this.source = null;
+          return;
+        }
+        Slot<T> slot = new Slot<>(this.future(this.source));
+        this.last.next = slot;
+        this.last = slot;
+        this.dispatched++;
+        try {
+          this.source = this.source.evaluateTail();
+        } catch (RuntimeException e) {
+          slot.failure = e;
+          this.source = null;
+        }
+      }
+    }
+
+    /**
+     * Returns the future result of transforming the head of 'node', which is
+     * Maybe.none() if it was filtered out, or fails if evaluating it threw.
+     *
+     * @param node The non-sentinel node of the source list.
+     * @return The future result.
+     */
+    private CompletableFuture<Maybe<T>> future(InfiniteList<S> node) {
+      Maybe<S> head;
+      try {
+        head = node.evaluateHead();
+      } catch (RuntimeException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+      if (head == Maybe.none()) {
+        return CompletableFuture.completedFuture(Maybe.none());
+      }
+      Transformer<? super S, ? extends T> mapper = this.mapper;
+      return CompletableFuture.supplyAsync(() -> head.map(mapper), this.executor);
+    }
+  }
+
+  /**
+   * The future result of transforming an element of a 'mapParallel' list,
+   * linked to the slot of the next element once that's dispatched.
+   *
+   * @param <T> The value type of the mapped list.
+   */
+  private static class Slot<T> {
+    /** The future result, which is Maybe.none() if the element was filtered out. */
+    private final CompletableFuture<Maybe<T>> result;
+    /** The slot of the next element, or null if it isn't dispatched or doesn't exist. */
+    private Slot<T> next;
+    /** The exception thrown when evaluating the source's next node, if any. */
+    private RuntimeException failure;
+
+    /**
+     * To initialise a Slot holding 'result'.
+     *
+     * @param result The future result of transforming the element.
+     */
+    private Slot(CompletableFuture<Maybe<T>> result) {
+      this.result = result;
+    }
+
+    /**
+     * Waits for and returns the result, rethrowing the exception of the
+     * transformation if it threw.
+     *
+     * @return The result of transforming the element.
+     */
+    private Maybe<T> await() {
+      return Slot.join(this.result);
+    }
+
+    /**
+     * Waits for and returns the result of 'future', rethrowing the exception
+     * it completed with if it failed.
+     *
+     * @param <U> The type of the result.
+     * @param future The future to wait for.
+     * @return The result of 'future'.
+     */
+    private static <U> U join(CompletableFuture<U> future) {
+      try {
+        return future.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * A node of a 'mapParallel' list, whose head waits on its slot. Evaluating
+   * its head or tail first lets the 'Dispatcher' start the transformations
+   * ahead of it. It's a 'Concurrent' node, as the list may be read by
+   * several threads.
+   *
+   * @param <T> The value type of the list.
+   */
+  private static class ParallelMapped<T> extends Concurrent<T> {
+    /**
+     * To initialise the node at 'index' waiting on 'slot'.
+     *
+     * @param slot The slot of the node's element.
+     * @param dispatcher The Dispatcher of the list.
+     * @param index The index of the node.
+     */
+    private ParallelMapped(Slot<T> slot, Dispatcher<?, T> dispatcher, long index) {
+      super(
+          () -> {
+            dispatcher.dispatch(index);
+            return slot.await();
+          },
+          isStreaming -> {
+            dispatcher.dispatch(index + 1);
+            return dispatcher.node(slot, index + 1);
+          }
+      );
+    }
+  }
+
+  /**
+   * A node of a list from 'generate' or 'iterate', which has an element at
+   * every node and never ends.
+   *
+   * @param <T> The value type of the list.
+   */
+  private static class Endless<T> extends InfiniteList<T> {
+    /**
+     * To initialise an Endless node with the head and tail that's not evaluated yet.
+     *
+     * @param head Evaluates the head value.
+     * @param tail Tail for the unevaluated tail value.
+     */
+    private Endless(Producer<Maybe<T>> head, Tail<T> tail) {
+      super(head, tail);
+    }
+
+    /**
+     * To initialise an Endless node with an already evaluated head value,
+     * but an unevaluated tail.
+     *
+     * @param head The already evaluated head value.
+     * @param tail Tail for the unevaluated tail value.
+     */
+    private Endless(T head, Tail<T> tail) {
+      super(head, tail);
+    }
+
+    /**
+     * Returns true, as the list has exactly Long.MAX_VALUE elements, ie. it
+     * never ends.
+     *
+     * @return true.
+     */
+    @Override
+    boolean isSizeExact() {
+      return true;
+    }
+  }
+
+  /**
+   * The first node of a 'limit' list, which knows the upper bound on the
+   * list's number of elements, ie. the limit or the source's upper bound if
+   * that's smaller. The nodes after it are plain nodes from 'truncate'.
+   *
+   * @param <T> The value type of the list.
+   */
+  private static class Limited<T> extends InfiniteList<T> {
+    /** The upper bound on the number of elements from this node on. */
+    private final long sizeBound;
+
+    /**
+     * To initialise the node over 'source' with at most 'n' elements.
+     *
+     * @param source The node of the source list.
+     * @param n The maximum number of elements, which is positive.
+     */
+    private Limited(InfiniteList<T> source, long n) {
+      super(
+          source,
+          isStreaming -> source.evaluateTail(isStreaming).truncate(
+              source.isHeadPresent() ? n - 1 : n)
+      );
+      this.sizeBound = Math.min(n, source.sizeBound());
+    }
+
+    /**
+     * Factory method for initialising the node over 'source' with at most
+     * 'n' elements, which is an 'ExactLimited' node if the number of
+     * elements of 'source' is exact.
+     *
+     * @param <T> The value type of the list.
+     * @param source The node of the source list.
+     * @param n The maximum number of elements, which is positive.
+     * @return The node.
+     */
+    private static <T> InfiniteList<T> of(InfiniteList<T> source, long n) {
+      return source.isSizeExact()
+          ? new ExactLimited<>(source, n)
+          : new Limited<>(source, n);
+    }
+
+    /**
+     * Returns the upper bound on the number of elements from this node on.
+     *
+     * @return The upper bound on the number of elements.
+     */
+    @Override
+    long sizeBound() {
+      return this.sizeBound;
+    }
+  }
+
+  /**
+   * A 'Limited' node over a list whose number of elements is exact, which
+   * then has exactly 'sizeBound()' elements.
+   *
+   * @param <T> The value type of the list.
+   */
+  private static class ExactLimited<T> extends Limited<T> {
+    /**
+     * To initialise the node over 'source' with at most 'n' elements.
+     *
+     * @param source The node of the source list, whose number of elements is exact.
+     * @param n The maximum number of elements, which is positive.
+     */
+    private ExactLimited(InfiniteList<T> source, long n) {
+      super(source, n);
+    }
+
+    /**
+     * Returns true, as the number of elements is exact.
+     *
+     * @return true.
+     */
+    @Override
+    boolean isSizeExact() {
+      return true;
+    }
+  }
+
+  /**
+   * A list whose elements are obtained by applying a chain of 'map' and
+   * 'filter' stages, composed into a single function, to the elements of a
+   * source list. Mapping or filtering a 'Fused' list extends the composed
+   * function over the same source instead of wrapping another layer of nodes,
+   * so a pipeline of such stages only ever materialises one layer of nodes
+   * on top of its source, and each element is derived by one function.
+   *
+   * <p>The source's nodes are still used to evaluate its elements, so
+   * evaluating the fused list memoises into the source as before. The
+   * intermediate list a Fused list was mapped or filtered from may be held
+   * and read on its own too. So while its node at the same position is
+   * still reachable other than from the fused list (it's only held via a
+   * WeakReference), the fused list evaluates that node's tail as it goes,
+   * and derives its elements from that node's via the stages after it
+   * ('after'), memoising into the intermediate list. Its stages then run
+   * once per element whichever of the lists reaches the element first. Once
+   * nothing else holds the intermediate list, which is the case for a
+   * pipeline built in one expression as soon as it's collected, its nodes
+   * can no longer be read, and the fused list goes back to applying 'stages'
+   * to the source's elements.
+   *
+   * @param <S> The value type of the source list.
+   * @param <T> The value type of this list.
+   */
+  private static class Fused<S, T> extends InfiniteList<T> {
+    /** The node of the source list that this node's element is derived from. */
+    private final InfiniteList<S> source;
+    /** The composed stages, returning Maybe.none() if the element is filtered out. */
+    private final Transformer<S, Maybe<T>> stages;
+    /** The stages after the intermediate list, applied to the elements of its nodes. */
+    private final Transformer<?, Maybe<T>> after;
+
+    /**
+     * To initialise a Fused list over the non-sentinel node 'source', whose
+     * element is derived from that of the node in 'via' instead if it's
+     * still reachable when the element is evaluated.
+     *
+     * @param <U> The value type of the intermediate list.
+     * @param source The node of the source list.
+     * @param stages The composed stages to apply to the source's elements.
+     * @param isFiltering Whether any of the stages is a 'filter'.
+     * @param via The node of the intermediate list at this position, or null.
+     * @param after The stages after the intermediate list, or null if there's none.
+     */
+    private <U> Fused(InfiniteList<S> source, Transformer<S, Maybe<T>> stages,
+        boolean isFiltering, WeakReference<InfiniteList<U>> via,
+        Transformer<? super U, Maybe<T>> after) {
+      super(
+          via == null ? source : via,
+          true,
+          isStreaming -> Fused.of(source.evaluateTail(isStreaming), stages,
+              isFiltering, isStreaming ? null : Fused.nextVia(via), after)
+      );
+      this.source = source;
+      this.stages = stages;
+      this.after = after;
+    }
+
+    /**
+     * Factory method for initialising a Fused list over 'source', which is a
+     * 'Mapped' list if none of the stages is a 'filter', or a sentinel if
+     * 'source' is one.
+     *
+     * @param <S> The value type of the source list.
+     * @param <T> The value type of the returned list.
+     * @param source The node of the source list.
+     * @param stages The composed stages to apply to the source's elements.
+     * @param isFiltering Whether any of the stages is a 'filter'.
+     * @return The Fused list, or a sentinel.
+     */
+    private static <S, T> InfiniteList<T> of(InfiniteList<S> source,
+        Transformer<S, Maybe<T>> stages, boolean isFiltering) {
+      return Fused.of(source, stages, isFiltering, null, null);
+    }
+
+    /**
+     * Factory method for initialising a Fused list over 'source' like
+     * 'of(InfiniteList, Transformer, boolean)', whose elements are derived
+     * from those of the intermediate list's nodes via 'after' while they're
+     * reachable, starting from 'via'.
+     *
+     * @param <S> The value type of the source list.
+     * @param <U> The value type of the intermediate list.
+     * @param <T> The value type of the returned list.
+     * @param source The node of the source list.
+     * @param stages The composed stages to apply to the source's elements.
+     * @param isFiltering Whether any of the stages is a 'filter'.
+     * @param via The node of the intermediate list at the same position, or null.
+     * @param after The stages after the intermediate list, or null if there's none.
+     * @return The Fused list, or a sentinel.
+     */
+    private static <S, U, T> InfiniteList<T> of(InfiniteList<S> source,
+        Transformer<S, Maybe<T>> stages, boolean isFiltering, InfiniteList<U> via,
+        Transformer<? super U, Maybe<T>> after) {
+      if (source.isSentinel()) {
+        return InfiniteList.sentinel();
+      }
+      WeakReference<InfiniteList<U>> weakVia = via == null ? null : new WeakReference<>(via);
+      return isFiltering
+          ? new Fused<>(source, stages, true, weakVia, after)
+          : new Mapped<>(source, stages, weakVia, after);
+    }
+
+    /**
+     * Returns the node after the intermediate list's node in 'via', evaluating
+     * and memoising it into that node, if that node is still reachable, ie.
+     * the intermediate list may still be read. Or else null.
+     *
+     * @param <U> The value type of the intermediate list.
+     * @param via The node of the intermediate list, or null.
+     * @return The next node of the intermediate list, or null.
+     */
+    private static <U> InfiniteList<U> nextVia(WeakReference<InfiniteList<U>> via) {
+      InfiniteList<U> node = via == null ? null : via.get();
+      return node == null ? null : node.evaluateTail();
+    }
+
+    /**
+     * Returns the node this node's element is derived from, which is the
+     * intermediate list's node while it's reachable, or else the source's.
+     * The node found is kept until the element is memoised, so that it's
+     * derived from the node whose element was evaluated for it.
+     *
+     * @return The node whose head is shared.
+     */
+    @Override
+    InfiniteList<?> sharedHead() {
+      if (super.head instanceof WeakReference<?>) {
+        InfiniteList<?> via = (InfiniteList<?>) ((WeakReference<?>) super.head).get();
+        super.head = via == null ? this.source : via;
+      }
+      return super.sharedHead();
+    }
+
+    /**
+     * Memoises the element derived from the head of 'from', which is either
+     * the source's node via 'stages', or the intermediate list's node via
+     * 'after'. Recorded like a Lazy evaluation, see 'InfiniteList.record'.
+     *
+     * @param from The node the element is derived from.
+     */
+    @Override
+    void deriveHead(InfiniteList<?> from) {
+      // 'stages' takes the elements of the source, and 'after' those of the
+      // intermediate list, whichever 'from' is a node of.
+      @SuppressWarnings("unchecked")
+      Transformer<Object, Maybe<T>> function = (Transformer<Object, Maybe<T>>)
+          (from == this.source ? this.stages : this.after);
+      LazyEvaluationEvent event = new LazyEvaluationEvent();
+      event.begin();
+      Maybe<T> head = Maybe.none();
+      if (from.isHeadPresent()) {
+        Object value = from.headValue();
+        head = Metrics.ENABLED
+            ? Metrics.timed(() -> function.transform(value))
+            : function.transform(value);
+      }
+      this.memoiseHead(head == Maybe.none() ? null : head.get(), head != Maybe.none());
+      InfiniteList.record(event, "head", function);
+    }
+
+    /**
+     * Returns whether any of the stages is a 'filter', which is assumed.
+     *
+     * @return true.
+     */
+    boolean isFiltering() {
+      return true;
+    }
+
+    /**
+     * Returns the source's upper bound on its number of elements, as the
+     * stages don't add any.
+     *
+     * @return The upper bound on the number of elements.
+     */
+    @Override
+    long sizeBound() {
+      return this.source.sizeBound();
+    }
+
+    /**
+     * Returns a new InfiniteList over the same source, with 'mapper' composed
+     * after this list's stages.
+     *
+     * @param <R> The value type of the returned InfiniteList.
+     * @param mapper The Transformer that will be applied.
+     * @return The new InfiniteList that has 'mapper' applied to all its elements.
+     */
+    @Override
+    public <R> InfiniteList<R> map(Transformer<? super T, ? extends R> mapper) {
+      Transformer<S, Maybe<T>> stages = this.stages;
+      return Fused.of(this.source, x -> stages.transform(x).map(mapper), this.isFiltering(),
+          this, x -> Maybe.some(x).map(mapper));
+    }
+
+    /**
+     * Returns a new InfiniteList over the same source, with 'predicate'
+     * composed after this list's stages.
+     *
+     * @param predicate The predicate function to filter the elements by.
+     * @return The new InfiniteList with elements failing the 'predicate' replaced
+     *     with Maybe.none().
+     */
+    @Override
+    public InfiniteList<T> filter(BooleanCondition<? super T> predicate) {
+      Transformer<S, Maybe<T>> stages = this.stages;
+      return Fused.of(this.source, x -> stages.transform(x).filter(predicate), true,
+          this, x -> Maybe.some(x).filter(predicate));
+    }
+  }
+
+  /**
+   * A 'Fused' list whose stages are all 'map's, so it has an element
+   * wherever its source does, and as many elements.
+   *
+   * @param <S> The value type of the source list.
+   * @param <T> The value type of this list.
+   */
+  private static class Mapped<S, T> extends Fused<S, T> {
+    /**
+     * To initialise a Mapped list over the non-sentinel node 'source'.
+     *
+     * @param <U> The value type of the intermediate list.
+     * @param source The node of the source list.
+     * @param stages The composed 'map' stages to apply to the source's elements.
+     * @param via The node of the intermediate list at this position, or null.
+     * @param after The stages after the intermediate list, or null if there's none.
+     */
+    private <U> Mapped(InfiniteList<S> source, Transformer<S, Maybe<T>> stages,
+        WeakReference<InfiniteList<U>> via, Transformer<? super U, Maybe<T>> after) {
+      super(source, stages, false, via, after);
+    }
+
+    /**
+     * Returns false, as none of the stages is a 'filter'.
+     *
+     * @return false.
+     */
+    @Override
+    boolean isFiltering() {
+      return false;
+    }
+
+    /**
+     * Returns whether the source's number of elements is exact.
+     *
+     * @return Whether the list has exactly 'sizeBound()' elements.
+     */
+    @Override
+    boolean isSizeExact() {
+      return super.source.isSizeExact();
+    }
+  }
+
+  /**
+   * A block of consecutive elements of a chunked list, which are evaluated
+   * together into an array the first time any of them is needed. The next
+   * chunk is likewise evaluated once, and both are memoised. Whatever a chunk
+   * needs to evaluate itself is released once both have been evaluated, so
+   * that evaluated chunks only hold their elements.
+   *
+   * <p>The nodes of a chunk may be evaluated on different threads, eg. by
+   * 'parallelReduce', so the elements and the next chunk are each evaluated
+   * under the chunk's lock, and published via volatile fields, so that
+   * evaluated chunks are read without locking. While holding its own lock, a
+   * chunk only locks those it's evaluated from, ie. its source or previous
+   * chunk, so the locks are always taken in the same order.
+   *
+   * @param <T> The value type of the elements.
+   */
+  private abstract static class Chunk<T> {
+    /** Marks a filtered-out element in 'values'. */
+    private static final Object FILTERED = new Object();
+
+    /** The number of elements in this chunk. */
+    private final int size;
+    /** The evaluated elements, or null if they haven't been evaluated. */
+    private volatile Object[] values;
+    /** The evaluated next chunk, or null if it hasn't been evaluated. */
+    private volatile Chunk<T> next;
+    /** Whether none of the elements of this chunk and the chunks after it is filtered out. */
+    private final boolean isDense;
+
+    /**
+     * To initialise an unevaluated Chunk of 'size' elements.
+     *
+     * @param size The number of elements in the chunk.
+     * @param isDense Whether none of the elements is filtered out.
+     */
+    private Chunk(int size, boolean isDense) {
+      this.size = size;
+      this.isDense = isDense;
+    }
+
+    /**
+     * Returns the elements of this chunk, evaluating them if they haven't
+     * been. Filtered-out elements are 'FILTERED'.
+     *
+     * @return The evaluated elements.
+     */
+    private Object[] values() {
+      Object[] values = this.values;
+      if (values == null) {
+        synchronized (this) {
+          values = this.values;
+          if (values == null) {
+            values = this.evaluate();
+            this.values = values;
+            this.releaseIfEvaluated();
+          }
+        }
+      }
+      return values;
+    }
+
+    /**
+     * Returns the next chunk, evaluating it if it hasn't been.
+     *
+     * @return The next chunk.
+     */
+    private Chunk<T> next() {
+      Chunk<T> next = this.next;
+      if (next == null) {
+        synchronized (this) {
+          next = this.next;
+          if (next == null) {
+            next = this.evaluateNext();
+            this.next = next;
+            this.releaseIfEvaluated();
+          }
+        }
+      }
+      return next;
+    }
+
+    /**
+     * Returns the next chunk like 'next', but without memoising it if it
+     * hasn't been evaluated, for 'streamTail'.
+     *
+     * @return The next chunk, which is a fresh copy if it wasn't evaluated.
+     */
+    private Chunk<T> peekNext() {
+      Chunk<T> next = this.next;
+      if (next != null) {
+        return next;
+      }
+      // Locked, so that the next chunk isn't evaluated and this chunk released meanwhile.
+      synchronized (this) {
+        next = this.next;
+        return next != null
+            ? next
+            : this.detachNext();
+      }
+    }
+
+    /**
+     * Returns the element at 'index', which mustn't be filtered out.
+     *
+     * @param index The index of the element.
+     * @return The element at 'index'.
+     */
+    private T get(int index) {
+      // Only elements of type 'T' or 'FILTERED' are ever stored in 'values'.
+      @SuppressWarnings("unchecked")
+      T output = (T) this.values()[index];
+      return output;
+    }
+
+    /**
+     * Calls 'release' once both the elements and the next chunk are
+     * evaluated. Only called under the chunk's lock.
+     */
+    private void releaseIfEvaluated() {
+      if (this.values != null && this.next != null) {
+        this.release();
+      }
+    }
+
+    /**
+     * Returns a chunk whose elements are 'stages' applied to the elements of
+     * this chunk, and whose next chunks are derived in the same way.
+     *
+     * @param <R> The value type of the derived chunk.
+     * @param stages Returns the derived element, or Maybe.none() if it's filtered out.
+     * @param isFiltering Whether any of the stages is a 'filter'.
+     * @return The derived chunk.
+     */
+    <R> Chunk<R> derive(Transformer<? super T, Maybe<R>> stages, boolean isFiltering) {
+      return new DerivedChunk<>(this, stages, this.isDense && !isFiltering);
+    }
+
+    /**
+     * Evaluates the elements of this chunk.
+     *
+     * @return The elements, with filtered-out elements as 'FILTERED'.
+     */
+    abstract Object[] evaluate();
+
+    /**
+     * Evaluates the chunk after this chunk.
+     *
+     * @return The next chunk.
+     */
+    abstract Chunk<T> evaluateNext();
+
+    /**
+     * Evaluates the chunk after this chunk without memoising into the chunks
+     * this chunk is derived from. Is 'evaluateNext' by default.
+     *
+     * @return A fresh copy of the next chunk.
+     */
+    Chunk<T> detachNext() {
+      return this.evaluateNext();
+    }
+
+    /**
+     * Drops the references needed only for evaluation. Does nothing by default.
+     */
+    void release() {
+    }
+  }
+
+  /**
+   * A chunk of elements from a Producer, for 'generate'.
+   *
+   * @param <T> The value type of the elements.
+   */
+  private static class GeneratedChunk<T> extends Chunk<T> {
+    /** The Producer producing the elements. */
+    private final Producer<T> producer;
+
+    /**
+     * To initialise a GeneratedChunk of 'size' elements from 'producer'.
+     *
+     * @param producer The Producer producing the elements.
+     * @param size The number of elements in the chunk.
+     */
+    private GeneratedChunk(Producer<T> producer, int size) {
+      super(size, true);
+      this.producer = producer;
+    }
+
+    /**
+     * Produces the elements of this chunk.
+     *
+     * @return The produced elements.
      */
     @Override
-    public boolean isSentinel() {
-      return true;
+    Object[] evaluate() {
+      Object[] values = new Object[super.size];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = this.producer.produce();
+      }
+      return values;
     }
 
     /**
-     * Always returns a 'Sentinel' as sentinels don't have any elements.
-     * 'InfiniteList.sentinel()' is used for typecasting purposes.
+     * Returns the next chunk, after evaluating this chunk so that 'producer'
+     * is always called in the order of the elements.
      *
-     * @return A sentinel.
+     * @return The next chunk.
      */
     @Override
-    public <R> InfiniteList<R> map(Transformer<Object, ? extends R> mapper) {
-      return InfiniteList.sentinel();
+    Chunk<T> evaluateNext() {
+      super.values();
+      return new GeneratedChunk<>(this.producer, super.size);
     }
+  }
+
+  /**
+   * A chunk of elements each obtained by applying a Transformer to the
+   * previous element, for 'iterate'.
+   *
+   * @param <T> The value type of the elements.
+   */
+  private static class IteratedChunk<T> extends Chunk<T> {
+    /** The chunk before this, or null if this is the first chunk. */
+    private Chunk<T> previous;
+    /** The first element if this is the first chunk. */
+    private T seed;
+    /** The Transformer applied to the previous element. */
+    private final Transformer<T, T> next;
 
     /**
-     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     * To initialise an IteratedChunk of 'size' elements.
      *
-     * @return A sentinel.
+     * @param previous The chunk before this, or null if this is the first chunk.
+     * @param seed The first element if this is the first chunk.
+     * @param next The Transformer applied to the previous element.
+     * @param size The number of elements in the chunk.
+     */
+    private IteratedChunk(Chunk<T> previous, T seed, Transformer<T, T> next, int size) {
+      super(size, true);
+      this.previous = previous;
+      this.seed = seed;
+      this.next = next;
+    }
+
+    /**
+     * Evaluates the elements of this chunk, starting from the seed or the
+     * last element of the previous chunk.
+     *
+     * @return The evaluated elements.
      */
     @Override
-    public InfiniteList<Object> filter(BooleanCondition<Object> predicate) {
-      return this;
+    Object[] evaluate() {
+      Object[] values = new Object[super.size];
+      T value = this.previous == null
+          ? this.seed
+          : this.next.transform(this.previous.get(this.previous.size - 1));
+      values[0] = value;
+      for (int i = 1; i < values.length; i++) {
+        value = this.next.transform(value);
+        values[i] = value;
+      }
+      this.previous = null;
+      this.seed = null;
+      return values;
     }
 
     /**
-     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     * Returns the next chunk, which continues from the last element of this chunk.
      *
-     * @return A sentinel.
+     * @return The next chunk.
      */
     @Override
-    public InfiniteList<Object> limit(long n) {
-      return this;
+    Chunk<T> evaluateNext() {
+      return new IteratedChunk<>(this, null, this.next, super.size);
+    }
+  }
+
+  /**
+   * A chunk whose elements are obtained by applying a chain of 'map' and
+   * 'filter' stages, composed into a single function, to the elements of a
+   * source chunk. Like 'Fused', deriving from a DerivedChunk composes over
+   * the same source, as long as it hasn't been released.
+   *
+   * @param <S> The value type of the source chunk.
+   * @param <T> The value type of this chunk.
+   */
+  private static class DerivedChunk<S, T> extends Chunk<T> {
+    /** The chunk the elements are derived from, or null once released. */
+    private Chunk<S> source;
+    /** The composed stages, returning Maybe.none() if the element is filtered out. */
+    private final Transformer<? super S, Maybe<T>> stages;
+
+    /**
+     * To initialise a DerivedChunk over 'source'.
+     *
+     * @param source The chunk the elements are derived from.
+     * @param stages The composed stages to apply to the source's elements.
+     * @param isDense Whether none of the derived elements is filtered out.
+     */
+    private DerivedChunk(Chunk<S> source, Transformer<? super S, Maybe<T>> stages,
+        boolean isDense) {
+      super(source.size, isDense);
+      this.source = source;
+      this.stages = stages;
     }
 
     /**
-     * Always returns a 'Sentinel' as sentinels don't have any elements.
+     * Applies the stages to the elements of the source chunk.
      *
-     * @return A sentinel.
+     * @return The derived elements.
      */
     @Override
-    public InfiniteList<Object> takeWhile(BooleanCondition<Object> predicate) {
-      return this;
+    Object[] evaluate() {
+      Object[] sourceValues = this.source.values();
+      Object[] values = new Object[sourceValues.length];
+      for (int i = 0; i < values.length; i++) {
+        Maybe<T> value = sourceValues[i] == Chunk.FILTERED
+            ? Maybe.none()
+            : this.stages.transform(this.source.get(i));
+        values[i] = value == Maybe.none() ? Chunk.FILTERED : value.get();
+      }
+      return values;
     }
 
     /**
-     * Always returns 'identity', as sentinels don't have any elements.
+     * Returns the chunk derived from the source's next chunk.
+     *
+     * @return The next chunk.
+     */
+    @Override
+    Chunk<T> evaluateNext() {
+      return new DerivedChunk<>(this.source.next(), this.stages, super.isDense);
+    }
+
+    /**
+     * Returns a fresh copy of the chunk derived from the source's next chunk.
+     *
+     * @return A fresh copy of the next chunk.
+     */
+    @Override
+    Chunk<T> detachNext() {
+      return new DerivedChunk<>(this.source.peekNext(), this.stages, super.isDense);
+    }
+
+    /**
+     * Drops the source chunk, so that its elements can be collected.
+     */
+    @Override
+    void release() {
+      this.source = null;
+    }
+
+    /**
+     * Returns a chunk over the same source, with 'stages' composed after
+     * this chunk's stages, or over this chunk if the source was released.
+     *
+     * @param <R> The value type of the derived chunk.
+     * @param stages Returns the derived element, or Maybe.none() if it's filtered out.
+     * @param isFiltering Whether any of the stages is a 'filter'.
+     * @return The derived chunk.
+     */
+    @Override
+    <R> Chunk<R> derive(Transformer<? super T, Maybe<R>> stages, boolean isFiltering) {
+      Chunk<S> source = this.source;
+      if (source == null) {
+        return super.derive(stages, isFiltering);
+      }
+      Transformer<? super S, Maybe<T>> before = this.stages;
+      return new DerivedChunk<>(source, x -> before.transform(x).flatMap(stages),
+          super.isDense && !isFiltering);
+    }
+  }
+
+  /**
+   * A node of a chunked list, which is a view of the element at 'index' of a
+   * shared 'Chunk'. Nodes don't use their head and tail, and are created
+   * when their previous node's tail is asked for, so an evaluated chunked
+   * list only costs an array slot per element instead of a node. Mapping or
+   * filtering a chunked list derives a chunked list.
+   *
+   * <p>As the elements of a chunk are evaluated together, evaluating an
+   * element may evaluate up to a chunk's worth of elements after it, and
+   * their mappers and predicates. A limited chunked list stays chunked, but
+   * as 'limit' counts the elements that aren't filtered out, filtering it
+   * falls back to a 'Fused' list on top of it.
+   *
+   * @param <T> The value type of the list.
+   */
+  private static class Chunked<T> extends InfiniteList<T> {
+    /** The 'remaining' of a list that isn't limited. */
+    private static final long UNLIMITED = Long.MAX_VALUE;
+
+    /** The chunk holding this node's element. */
+    private final Chunk<T> chunk;
+    /** The index of this node's element in 'chunk'. */
+    private final int index;
+    /** The number of elements left in the list, including this one if it isn't filtered out. */
+    private final long remaining;
+
+    /**
+     * To initialise a Chunked node for the element at 'index' of 'chunk'.
+     *
+     * @param chunk The chunk holding the element.
+     * @param index The index of the element in 'chunk'.
+     * @param remaining The number of elements left in the list.
+     */
+    private Chunked(Chunk<T> chunk, int index, long remaining) {
+      this.chunk = chunk;
+      this.index = index;
+      this.remaining = remaining;
+      Metrics.nodeCreated();
+    }
+
+    /**
+     * Factory method for initialising an unlimited chunked list starting at
+     * the first element of 'chunk'.
+     *
+     * @param <T> The value type of the list.
+     * @param chunk The first chunk.
+     * @return The chunked list.
+     */
+    private static <T> InfiniteList<T> of(Chunk<T> chunk) {
+      return new Chunked<>(chunk, 0, Chunked.UNLIMITED);
+    }
+
+    /**
+     * Returns 'chunkSize' if it's a valid chunk size.
+     *
+     * @param chunkSize The chunk size to check.
+     * @return 'chunkSize'.
+     * @throws IllegalArgumentException If 'chunkSize' isn't positive.
+     */
+    private static int checkSize(int chunkSize) {
+      if (chunkSize <= 0) {
+        throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+      }
+      return chunkSize;
+    }
+
+    /**
+     * Returns whether this node's element was filtered out, evaluating its chunk.
+     *
+     * @return Whether this node's element was filtered out.
+     */
+    private boolean isFiltered() {
+      return this.chunk.values()[this.index] == Chunk.FILTERED;
+    }
+
+    /**
+     * Returns whether this node's element wasn't filtered out, evaluating its
+     * chunk if it hasn't been.
+     *
+     * @return Whether the head of this node is an element.
+     */
+    @Override
+    boolean isHeadPresent() {
+      return !this.isFiltered();
+    }
+
+    /**
+     * Returns this node's element from its evaluated chunk.
+     *
+     * @return The element at the head of this node.
+     */
+    @Override
+    T headValue() {
+      return this.chunk.get(this.index);
+    }
+
+    /**
+     * Returns the string representation of this node's element, which is "?"
+     * if its chunk hasn't been evaluated.
+     *
+     * @return The string representation of the head.
+     */
+    @Override
+    String headString() {
+      return this.isHeadEvaluated()
+          ? this.evaluateHead().toString()
+          : "?";
+    }
+
+    /**
+     * Returns the node for the next element, which is in the next chunk if
+     * this is the last element of its chunk, or a sentinel if this was the
+     * last element of a limited list.
+     *
+     * @return The next node.
+     */
+    @Override
+    InfiniteList<T> evaluateTail() {
+      return this.evaluateTail(false);
+    }
+
+    /**
+     * Returns the node for the next element like 'evaluateTail', but without
+     * memoising the next chunk if it hasn't been evaluated.
+     *
+     * @return The next node.
+     */
+    @Override
+    InfiniteList<T> streamTail() {
+      return this.evaluateTail(true);
+    }
+
+    /**
+     * Returns the node for the next element, via 'Chunk.peekNext' if 'isStreaming'.
+     *
+     * @param isStreaming Whether to avoid memoising the next chunk.
+     * @return The next node.
+     */
+    @Override
+    InfiniteList<T> evaluateTail(boolean isStreaming) {
+      long remaining = this.remaining;
+      // Not evaluating the chunk if none of its elements can be filtered out,
+      // so that walking the tails of a limited list (eg. for 'parallelReduce')
+      // leaves the chunks to be evaluated by whoever needs their elements.
+      if (remaining != Chunked.UNLIMITED && (this.chunk.isDense || !this.isFiltered())) {
+        remaining--;
+        if (remaining == 0) {
+          return InfiniteList.sentinel();
+        }
+      }
+      if (this.index + 1 < this.chunk.size) {
+        return new Chunked<>(this.chunk, this.index + 1, remaining);
+      }
+      Chunk<T> next = isStreaming
+          ? this.chunk.peekNext()
+          : this.chunk.next();
+      return new Chunked<>(next, 0, remaining);
+    }
+
+    /**
+     * Returns whether this node's chunk has been evaluated.
+     *
+     * @return Whether the head of this node has been evaluated.
+     */
+    @Override
+    boolean isHeadEvaluated() {
+      return this.chunk.values != null;
+    }
+
+    /**
+     * Returns whether the node for the next element is known without
+     * evaluating anything, ie. it's in this chunk or the next chunk exists.
+     *
+     * @return Whether the tail of this node has been evaluated.
+     */
+    @Override
+    boolean isTailEvaluated() {
+      return this.index + 1 < this.chunk.size || this.chunk.next != null;
+    }
+
+    /**
+     * Returns the number of elements left in the list, which is exact if none
+     * of them can be filtered out.
+     *
+     * @return The upper bound on the number of elements.
+     */
+    @Override
+    long sizeBound() {
+      return this.remaining;
+    }
+
+    /**
+     * Returns whether none of the elements left in the list can be filtered
+     * out, so that there are exactly 'remaining' of them.
+     *
+     * @return Whether the list has exactly 'sizeBound()' elements.
+     */
+    @Override
+    boolean isSizeExact() {
+      return this.chunk.isDense;
+    }
+
+    /**
+     * Returns a new chunked list with 'mapper' applied to all elements.
+     *
+     * @param <R> The value type of the returned InfiniteList.
+     * @param mapper The Transformer that will be applied.
+     * @return The new InfiniteList that has 'mapper' applied to all its elements.
+     */
+    @Override
+    public <R> InfiniteList<R> map(Transformer<? super T, ? extends R> mapper) {
+      return new Chunked<>(this.chunk.derive(x -> Maybe.some(x).map(mapper), false),
+          this.index, this.remaining);
+    }
+
+    /**
+     * Returns a new chunked list with all elements not satisfying the
+     * 'predicate' filtered out, or a 'Fused' list if this list is limited.
+     *
+     * @param predicate The predicate function to filter the elements by.
+     * @return The new InfiniteList with elements failing the 'predicate' replaced
+     *     with Maybe.none().
+     */
+    @Override
+    public InfiniteList<T> filter(BooleanCondition<? super T> predicate) {
+      if (this.remaining != Chunked.UNLIMITED) {
+        return super.filter(predicate);
+      }
+      return new Chunked<>(this.chunk.derive(x -> Maybe.some(x).filter(predicate), true),
+          this.index, Chunked.UNLIMITED);
+    }
+
+    /**
+     * Returns a chunked list over the same chunks, ending after at most 'n'
+     * elements.
+     *
+     * @param n The number of elements in the returned finite InfiniteList.
+     * @return A finite InfiniteList copy.
+     */
+    @Override
+    public InfiniteList<T> limit(long n) {
+      return n <= 0
+          ? InfiniteList.sentinel()
+          : new Chunked<>(this.chunk, this.index, Math.min(n, this.remaining));
+    }
+
+    /**
+     * Returns a chunked list like 'limit', as its nodes know their number of
+     * elements anyway.
+     *
+     * @param n The maximum number of elements in the returned list.
+     * @return A finite InfiniteList copy.
+     */
+    @Override
+    InfiniteList<T> truncate(long n) {
+      return this.limit(n);
+    }
+
+    /**
+     * Reduces all elements like 'InfiniteList.reduce', but walks the arrays of
+     * the chunks directly instead of creating a node per element.
      *
      * @param <U> Return value type.
      * @param identity Initial value.
      * @param accumulator Binary function for combining the elements.
-     * @return The 'identity' param.
+     * @return The value obtained by combining all the elements.
      */
     @Override
-    public <U> U reduce(U identity, Combiner<? super U, Object, U> accumulator) {
-      return identity;
+    public <U> U reduce(U identity, Combiner<? super U, ? super T, U> accumulator) {
+      ReduceEvent event = new ReduceEvent();
+      event.begin();
+      long elements = 0;
+      U result = identity;
+      Chunk<T> chunk = this.chunk;
+      int index = this.index;
+      long remaining = this.remaining;
+      while (true) {
+        Object[] values = chunk.values();
+        for (; index < values.length; index++) {
+          if (values[index] != Chunk.FILTERED) {
+            Metrics.elementMaterialised();
+            result = accumulator.combine(result, chunk.get(index));
+            elements++;
+            remaining--;
+            if (remaining == 0) {
+              InfiniteList.record(event, accumulator, elements);
+              return result;
+            }
+          } else {
+            Metrics.nodeSkipped();
+          }
+        }
+        chunk = chunk.next();
+        index = 0;
+      }
     }
 
     /**
-     * Returns the number of elements in the InfiniteList, which is always
-     * zero, as sentinels don't have elements.
+     * Returns the number of elements like 'InfiniteList.count', but via
+     * 'reduce' if it isn't exact, so as to walk the arrays of the chunks.
      *
-     * @return 0.
+     * @return The number of elements.
      */
     @Override
     public long count() {
-      return 0;
+      return this.isSizeExact()
+          ? super.count()
+          : this.reduce(0L, InfiniteList.COUNTER);
     }
 
     /**
-     * Returns an empty 'List', as sentinels don't have any elements.
+     * Returns the string representation of this list, showing the elements of
+     * the evaluated chunks and "?" for the rest. Built in a loop, as a chunk
+     * may hold many elements.
      *
-     * @return An empty 'List'.
+     * @return The string representation of this list.
      */
     @Override
-    public List<Object> toList() {
-      return new ArrayList<>();
+    public String toString() {
+      StringBuilder output = new StringBuilder();
+      int depth = 0;
+      InfiniteList<T> curr = this;
+      while (curr != null && !curr.isSentinel()) {
+        Chunked<T> node = (Chunked<T>) curr;
+        output.append('[');
+        depth++;
+        if (node.chunk.values == null) {
+          output.append("? ?");
+          curr = null;
+        } else {
+          output.append(node.evaluateHead()).append(' ');
+          curr = node.isTailEvaluated() ? node.evaluateTail() : null;
+          if (curr == null) {
+            output.append('?');
+          }
+        }
+      }
+      if (curr != null) {
+        output.append(curr);
+      }
+      return output.append("]".repeat(depth)).toString();
     }
   }
 }
@@ -0,0 +1,17 @@
+package cs2030s.fp;
+
+/**
+ * Represent a function that transforms one int value into another, without boxing them.
+ * CS2030S Lab 7
+ * AY21/22 Semester 2
+ */
+@FunctionalInterface
+public interface IntTransformer {
+  /**
+   * The function method to transform the value u.
+   *
+   * @param u The input value
+   * @return The value after applying the given transformation on u.
+   */
+  int transform(int u);
+}
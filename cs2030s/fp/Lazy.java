@@ -1,5 +1,9 @@
 package cs2030s.fp;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
 /**
  * For lazy evaluation of values that are expensive to produce.
  *
@@ -9,10 +13,18 @@ package cs2030s.fp;
  * @param <T> The type of the produced value, returned by the 'get' method.
  */
 public class Lazy<T> {
-  /** Producer that evaluates the value when 'producer.producer()' is called. */
+  /** 
+   * Producer that evaluates the value when 'producer.producer()' is called.
+   * Set to null after evaluation, so a null producer marks an evaluated value.
+   */
   private Producer<? extends T> producer;
-  /** Value wrapped in a 'Maybe' class. */
-  private Maybe<T> value;
+  /** The evaluated value, only meaningful once 'producer' is null. */
+  private T value;
+  /**
+   * How many Lazys 'get' evaluates via recursive calls before it switches to
+   * an explicit stack, which short chains are then spared from allocating.
+   */
+  private static final int MAX_RECURSION = 32;
 
   /**
    * Overloaded private constructor to initialise a Lazy with an already 
@@ -21,7 +33,7 @@ public class Lazy<T> {
    * @param value The value returned by 'get' method.
    */
   private Lazy(T value) {
-    this.value = Maybe.some(value);
+    this.value = value;
   }
 
   /**
@@ -32,7 +44,6 @@ public class Lazy<T> {
    */
   private Lazy(Producer<? extends T> producer) {
     this.producer = producer;
-    this.value = Maybe.none();
   }
 
   /**
@@ -58,17 +69,189 @@ public class Lazy<T> {
     return new Lazy<>(s);
   }
 
+  /**
+   * Factory method for initialising a thread-safe Lazy with delayed evaluation,
+   * whereby the value is obtained from Producer param 's'. Even when 'get' is
+   * raced by several threads, 's' is ran at most once; once evaluated, 'get'
+   * costs only a single volatile read. Lazys derived from it via 'map',
+   * 'flatMap', 'filter' and 'combine' are thread-safe as well.
+   *
+   * @param <T> The type of the value being wrapped, and returned by the 'get' method.
+   * @param s The 'Producer' that returns the evaluated value.
+   * @return The initialised thread-safe Lazy instance, with delayed evaluation.
+   */
+  public static <T> Lazy<T> concurrent(Producer<? extends T> s) {
+    return new Concurrent<>(s);
+  }
+
+  /**
+   * Returns a new Lazy of the same mode as 'this' (ie. thread-safe if 'this'
+   * is), which evaluates its value via 'producer'.
+   *
+   * @param <U> The type of the value being wrapped.
+   * @param producer The 'Producer' that returns the evaluated value.
+   * @return The new Lazy instance, with delayed evaluation.
+   */
+  <U> Lazy<U> derive(Producer<? extends U> producer) {
+    return Lazy.of(producer);
+  }
+
   /**
    * If the value has not been evaluated yet, compute it via 'this.producer'
    * and "cache" it. Subsequent 'get' calls returns "cached" value.
+   * The producer is dropped once evaluated, so that whatever it captured
+   * (eg. upstream Lazys and lambdas) can be garbage collected. Once
+   * evaluated, 'get' doesn't allocate.
+   *
+   * <p>Lazys derived via 'map', 'flatMap', 'filter' and 'combine' are
+   * evaluated by nested calls only up to 'MAX_RECURSION' Lazys deep, and
+   * from there on an explicit stack. So 'get' runs in bounded stack depth
+   * however long the chain is.
    *
    * @return The computed/"cached" value.
    */
   public T get() {
-    T rawValue = this.value
-        .orElseGet(this.producer);
-    this.value = Maybe.some(rawValue);
-    return rawValue;
+    if (this.producer != null) {
+      this.evaluate(0);
+    } else {
+      Metrics.lazyHit();
+    }
+    return this.value;
+  }
+
+  /**
+   * Returns the value like 'get', for a Lazy derived from this one that's
+   * being evaluated 'depth' nested calls deep.
+   *
+   * @param depth The number of nested calls evaluating the derived Lazy.
+   * @return The computed/"cached" value.
+   */
+  T get(int depth) {
+    if (this.producer == null) {
+      Metrics.lazyHit();
+      return this.value;
+    }
+    return this.evaluate(depth);
+  }
+
+  /**
+   * Evaluates the value via 'this.producer', which for a derived Lazy
+   * recursively evaluates the Lazys it's derived from, unless 'depth' has
+   * reached 'MAX_RECURSION'. The evaluation then continues on an explicit
+   * stack, see 'trampoline'.
+   *
+   * @param depth The number of nested calls evaluating this Lazy.
+   * @return The computed value.
+   */
+  private T evaluate(int depth) {
+    Producer<? extends T> producer = this.producer;
+    LazyEvaluationEvent event = new LazyEvaluationEvent();
+    event.begin();
+    if (producer instanceof Derived<?>) {
+      if (depth >= Lazy.MAX_RECURSION) {
+        Lazy.trampoline(this);
+        return this.value;
+      }
+      this.value = ((Derived<? extends T>) producer).produce(depth + 1);
+    } else {
+      this.value = Metrics.ENABLED ? Metrics.timed(producer) : producer.produce();
+    }
+    this.producer = null;
+    Metrics.lazyEvaluated();
+    Lazy.record(event, producer);
+    return this.value;
+  }
+
+  /**
+   * Evaluates 'root' without nesting calls, by keeping the Lazys that are
+   * waiting for the Lazys they're derived from on an explicit stack.
+   *
+   * @param root The Lazy to evaluate.
+   */
+  private static void trampoline(Lazy<?> root) {
+    Deque<Lazy<?>> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      Lazy<?> dependency = stack.peek().step();
+      if (dependency == null) {
+        stack.pop();
+      } else {
+        stack.push(dependency);
+      }
+    }
+  }
+
+  /**
+   * Evaluates this Lazy for 'trampoline' if the Lazys it's derived from are
+   * evaluated, or else returns one that has to be evaluated first.
+   *
+   * @return A Lazy to evaluate before this one, or null if this Lazy is evaluated.
+   */
+  Lazy<?> step() {
+    Producer<? extends T> producer = this.producer;
+    if (producer == null) {
+      return null;
+    }
+    LazyEvaluationEvent event = new LazyEvaluationEvent();
+    if (producer instanceof Derived<?>) {
+      Derived<? extends T> derived = (Derived<? extends T>) producer;
+      Lazy<?> dependency = derived.dependency();
+      if (dependency != null) {
+        return dependency;
+      }
+      event.begin();
+      this.value = derived.complete();
+    } else {
+      event.begin();
+      this.value = Metrics.ENABLED ? Metrics.timed(producer) : producer.produce();
+    }
+    this.producer = null;
+    Metrics.lazyEvaluated();
+    Lazy.record(event, producer);
+    return null;
+  }
+
+  /**
+   * Commits 'event' for the evaluation by 'producer' if it ran for longer
+   * than the event's threshold, recording the function that ran.
+   *
+   * @param event The event, begun before 'producer' ran.
+   * @param producer The producer that evaluated the value.
+   */
+  private static void record(LazyEvaluationEvent event, Producer<?> producer) {
+    event.end();
+    if (!event.shouldCommit()) {
+      return;
+    }
+    if (producer instanceof Derived<?>) {
+      Derived<?> derived = (Derived<?>) producer;
+      event.operation = derived.operation();
+      event.function = derived.function().getClass();
+    } else {
+      event.operation = "of";
+      event.function = producer.getClass();
+    }
+    event.commit();
+  }
+
+  /**
+   * Returns this Lazy if it has to be evaluated by 'trampoline' before the
+   * Lazys derived from it, or null if it's already evaluated.
+   *
+   * @return This Lazy if it's not evaluated, else null.
+   */
+  Lazy<?> asDependency() {
+    return this.producer == null ? null : this;
+  }
+
+  /**
+   * Returns the producer that will evaluate the value, without running it,
+   * or null if the value has already been evaluated.
+   *
+   * @return The pending producer, or null if evaluated.
+   */
+  Producer<? extends T> pending() {
+    return this.producer;
   }
 
   /**
@@ -79,9 +262,9 @@ public class Lazy<T> {
    */
   @Override
   public String toString() {
-    return this.value
-        .map(String::valueOf)
-        .orElse("?");
+    return this.producer == null
+        ? String.valueOf(this.value)
+        : "?";
   }
 
   /**
@@ -92,9 +275,7 @@ public class Lazy<T> {
    * @return The delayed evaluation of the transformed value, wrapped using 'Lazy'.
    */
   public <U> Lazy<U> map(Transformer<? super T, ? extends U> transformer) {
-    Producer<U> newProducer = () -> transformer
-        .transform(this.get());
-    return Lazy.of(newProducer);
+    return this.derive(new Mapped<T, U>(this, transformer));
   }
 
   /**
@@ -107,10 +288,7 @@ public class Lazy<T> {
    */
   public <U> Lazy<U> flatMap(Transformer<? super T, 
         ? extends Lazy<? extends U>> transformer) {
-    Producer<U> newProducer = () -> transformer
-        .transform(this.get())
-        .get();
-    return Lazy.of(newProducer);
+    return this.derive(new FlatMapped<T, U>(this, transformer));
   }
 
   /**
@@ -121,8 +299,7 @@ public class Lazy<T> {
    * @return The delayed evaluation of the predicate, wrapped using 'Lazy'.
    */
   public Lazy<Boolean> filter(BooleanCondition<? super T> predicate) {
-    Producer<Boolean> newProducer = () -> predicate.test(this.get());
-    return Lazy.of(newProducer);
+    return this.derive(new Filtered<T>(this, predicate));
   }
 
   /**
@@ -144,8 +321,7 @@ public class Lazy<T> {
     this.get();
     lazyObj.get();
 
-    return this.value
-        .equals(lazyObj.value);
+    return Objects.equals(this.value, lazyObj.value);
   }
 
   /**
@@ -159,7 +335,525 @@ public class Lazy<T> {
    */
   public <S, R> Lazy<R> combine(Lazy<? extends S> lazyObj, 
       Combiner<? super T, ? super S, ? extends R> combiner) {
-    Producer<R> newProducer = () -> combiner.combine(this.get(), lazyObj.get());
-    return Lazy.of(newProducer);
+    return this.derive(new Combined<T, S, R>(this, lazyObj, combiner));
+  }
+
+  
+  // ============================ Nested Classes ============================
+
+  /**
+   * The producer of a Lazy derived from other Lazys. It's normally ran via
+   * 'produce(int)', which evaluates those Lazys by nested calls. Past
+   * 'MAX_RECURSION', 'trampoline' instead evaluates the Lazys returned by
+   * 'dependency' first, before computing the value via 'complete'.
+   *
+   * @param <T> The type of the produced value.
+   */
+  private abstract static class Derived<T> implements Producer<T> {
+    /**
+     * Computes the value, evaluating the Lazys this is derived from via
+     * 'get(int)' at 'depth'.
+     *
+     * @param depth The number of nested calls evaluating the Lazys this is derived from.
+     * @return The computed value.
+     */
+    abstract T produce(int depth);
+
+    /**
+     * Returns the next Lazy this is derived from that isn't evaluated yet, in
+     * the order they're evaluated, or null if there's none left.
+     *
+     * @return The next unevaluated Lazy, or null.
+     */
+    abstract Lazy<?> dependency();
+
+    /**
+     * Computes the value once all the Lazys this is derived from are evaluated.
+     *
+     * @return The computed value.
+     */
+    abstract T complete();
+
+    /**
+     * Returns the name of the Lazy method this was created by, eg. "map".
+     *
+     * @return The name of the method.
+     */
+    abstract String operation();
+
+    /**
+     * Returns the function given to the Lazy method this was created by.
+     *
+     * @return The function.
+     */
+    abstract Object function();
+
+    /**
+     * Computes the value, evaluating the Lazys this is derived from.
+     *
+     * @return The computed value.
+     */
+    @Override
+    public T produce() {
+      return this.produce(1);
+    }
+  }
+
+  /**
+   * The producer of 'map', applying a Transformer to the value.
+   *
+   * @param <S> The type of the value of the source Lazy.
+   * @param <T> The type of the produced value.
+   */
+  private static class Mapped<S, T> extends Derived<T> {
+    /** The Lazy whose value is transformed. */
+    private final Lazy<? extends S> source;
+    /** The Transformer applied to the source's value. */
+    private final Transformer<? super S, ? extends T> transformer;
+
+    /**
+     * Initialise a Mapped producer.
+     *
+     * @param source The Lazy whose value is transformed.
+     * @param transformer The Transformer applied to the source's value.
+     */
+    private Mapped(Lazy<? extends S> source, Transformer<? super S, ? extends T> transformer) {
+      this.source = source;
+      this.transformer = transformer;
+    }
+
+    /**
+     * Applies the transformer to the source's value.
+     *
+     * @param depth The number of nested calls evaluating the source.
+     * @return The transformed value.
+     */
+    @Override
+    T produce(int depth) {
+      return this.transformer.transform(this.source.get(depth));
+    }
+
+    /**
+     * Returns the source if it isn't evaluated yet.
+     *
+     * @return The unevaluated source, or null.
+     */
+    @Override
+    Lazy<?> dependency() {
+      return this.source.asDependency();
+    }
+
+    /**
+     * Applies the transformer to the evaluated source's value.
+     *
+     * @return The transformed value.
+     */
+    @Override
+    T complete() {
+      return this.transformer.transform(this.source.get());
+    }
+
+    /**
+     * Returns "map".
+     *
+     * @return "map".
+     */
+    @Override
+    String operation() {
+      return "map";
+    }
+
+    /**
+     * Returns the transformer.
+     *
+     * @return The transformer.
+     */
+    @Override
+    Object function() {
+      return this.transformer;
+    }
+  }
+
+  /**
+   * The producer of 'filter', applying a BooleanCondition to the value.
+   *
+   * @param <S> The type of the value of the source Lazy.
+   */
+  private static class Filtered<S> extends Derived<Boolean> {
+    /** The Lazy whose value is tested. */
+    private final Lazy<? extends S> source;
+    /** The BooleanCondition applied to the source's value. */
+    private final BooleanCondition<? super S> predicate;
+
+    /**
+     * Initialise a Filtered producer.
+     *
+     * @param source The Lazy whose value is tested.
+     * @param predicate The BooleanCondition applied to the source's value.
+     */
+    private Filtered(Lazy<? extends S> source, BooleanCondition<? super S> predicate) {
+      this.source = source;
+      this.predicate = predicate;
+    }
+
+    /**
+     * Applies the predicate to the source's value.
+     *
+     * @param depth The number of nested calls evaluating the source.
+     * @return Whether the source's value satisfies the predicate.
+     */
+    @Override
+    Boolean produce(int depth) {
+      return this.predicate.test(this.source.get(depth));
+    }
+
+    /**
+     * Returns the source if it isn't evaluated yet.
+     *
+     * @return The unevaluated source, or null.
+     */
+    @Override
+    Lazy<?> dependency() {
+      return this.source.asDependency();
+    }
+
+    /**
+     * Applies the predicate to the evaluated source's value.
+     *
+     * @return Whether the source's value satisfies the predicate.
+     */
+    @Override
+    Boolean complete() {
+      return this.predicate.test(this.source.get());
+    }
+
+    /**
+     * Returns "filter".
+     *
+     * @return "filter".
+     */
+    @Override
+    String operation() {
+      return "filter";
+    }
+
+    /**
+     * Returns the predicate.
+     *
+     * @return The predicate.
+     */
+    @Override
+    Object function() {
+      return this.predicate;
+    }
+  }
+
+  /**
+   * The producer of 'flatMap', which evaluates the Lazy obtained by applying
+   * a Transformer to the value.
+   *
+   * @param <S> The type of the value of the source Lazy.
+   * @param <T> The type of the produced value.
+   */
+  private static class FlatMapped<S, T> extends Derived<T> {
+    /** The Lazy whose value is transformed. */
+    private final Lazy<? extends S> source;
+    /** The Transformer applied to the source's value. */
+    private final Transformer<? super S, ? extends Lazy<? extends T>> transformer;
+    /** The transformed Lazy, once 'dependency' has applied the transformer. */
+    private Lazy<? extends T> result;
+
+    /**
+     * Initialise a FlatMapped producer.
+     *
+     * @param source The Lazy whose value is transformed.
+     * @param transformer The Transformer applied to the source's value.
+     */
+    private FlatMapped(Lazy<? extends S> source,
+        Transformer<? super S, ? extends Lazy<? extends T>> transformer) {
+      this.source = source;
+      this.transformer = transformer;
+    }
+
+    /**
+     * Returns the value of the Lazy obtained by applying the transformer to
+     * the source's value.
+     *
+     * @param depth The number of nested calls evaluating the source and transformed Lazy.
+     * @return The value of the transformed Lazy.
+     */
+    @Override
+    T produce(int depth) {
+      return this.transformer.transform(this.source.get(depth)).get(depth);
+    }
+
+    /**
+     * Returns the source if it isn't evaluated yet, else applies the
+     * transformer once and returns the transformed Lazy if it isn't evaluated.
+     *
+     * @return The unevaluated source or transformed Lazy, or null.
+     */
+    @Override
+    Lazy<?> dependency() {
+      if (this.result == null) {
+        Lazy<?> dependency = this.source.asDependency();
+        if (dependency != null) {
+          return dependency;
+        }
+        this.result = this.transformer.transform(this.source.get());
+      }
+      return this.result.asDependency();
+    }
+
+    /**
+     * Returns the value of the evaluated transformed Lazy.
+     *
+     * @return The value of the transformed Lazy.
+     */
+    @Override
+    T complete() {
+      return this.result.get();
+    }
+
+    /**
+     * Returns "flatMap".
+     *
+     * @return "flatMap".
+     */
+    @Override
+    String operation() {
+      return "flatMap";
+    }
+
+    /**
+     * Returns the transformer.
+     *
+     * @return The transformer.
+     */
+    @Override
+    Object function() {
+      return this.transformer;
+    }
+  }
+
+  /**
+   * The producer of 'combine', applying a Combiner to the values of two Lazys.
+   *
+   * @param <S> The type of the value of the first Lazy.
+   * @param <U> The type of the value of the second Lazy.
+   * @param <T> The type of the produced value.
+   */
+  private static class Combined<S, U, T> extends Derived<T> {
+    /** The first Lazy, which is evaluated first. */
+    private final Lazy<? extends S> first;
+    /** The second Lazy. */
+    private final Lazy<? extends U> second;
+    /** The Combiner applied to the two values. */
+    private final Combiner<? super S, ? super U, ? extends T> combiner;
+
+    /**
+     * Initialise a Combined producer.
+     *
+     * @param first The first Lazy, which is evaluated first.
+     * @param second The second Lazy.
+     * @param combiner The Combiner applied to the two values.
+     */
+    private Combined(Lazy<? extends S> first, Lazy<? extends U> second,
+        Combiner<? super S, ? super U, ? extends T> combiner) {
+      this.first = first;
+      this.second = second;
+      this.combiner = combiner;
+    }
+
+    /**
+     * Applies the combiner to the values of the two Lazys.
+     *
+     * @param depth The number of nested calls evaluating the two Lazys.
+     * @return The combined value.
+     */
+    @Override
+    T produce(int depth) {
+      S firstValue = this.first.get(depth);
+      return this.combiner.combine(firstValue, this.second.get(depth));
+    }
+
+    /**
+     * Returns the first Lazy, then the second, if they aren't evaluated yet.
+     *
+     * @return The unevaluated first or second Lazy, or null.
+     */
+    @Override
+    Lazy<?> dependency() {
+      Lazy<?> dependency = this.first.asDependency();
+      return dependency != null
+          ? dependency
+          : this.second.asDependency();
+    }
+
+    /**
+     * Applies the combiner to the values of the two evaluated Lazys.
+     *
+     * @return The combined value.
+     */
+    @Override
+    T complete() {
+      return this.combiner.combine(this.first.get(), this.second.get());
+    }
+
+    /**
+     * Returns "combine".
+     *
+     * @return "combine".
+     */
+    @Override
+    String operation() {
+      return "combine";
+    }
+
+    /**
+     * Returns the combiner.
+     *
+     * @return The combiner.
+     */
+    @Override
+    Object function() {
+      return this.combiner;
+    }
+  }
+
+  /**
+   * The thread-safe Lazy returned by 'Lazy.concurrent', and by the Lazys
+   * derived from it.
+   *
+   * @param <T> The type of the produced value.
+   */
+  private static class Concurrent<T> extends Lazy<T> {
+    /** Whether the value has been evaluated. Written only while holding the lock. */
+    private volatile boolean isEvaluated;
+
+    /**
+     * Initialise a thread-safe Lazy with delayed evaluation.
+     *
+     * @param producer The 'Producer' that returns the evaluated value.
+     */
+    private Concurrent(Producer<? extends T> producer) {
+      super(producer);
+    }
+
+    /**
+     * If the value has not been evaluated yet, compute it via the producer
+     * while holding this Lazy's own lock, so that racing threads wait for the
+     * first one instead of running the producer again. Subsequent 'get' calls
+     * only read the volatile 'isEvaluated' flag before returning the value.
+     *
+     * @return The computed/"cached" value.
+     */
+    @Override
+    public T get() {
+      return this.get(0);
+    }
+
+    /**
+     * Returns the string representation of the wrapped value. If value has not
+     * been computed yet, returns "?".
+     *
+     * @return The string representation of the value, or "?" if it's not computed yet.
+     */
+    @Override
+    public String toString() {
+      return this.isEvaluated
+          ? super.toString()
+          : "?";
+    }
+
+    /**
+     * Returns the value like 'get', for a Lazy derived from this one that's
+     * being evaluated 'depth' nested calls deep, evaluating it while holding
+     * the lock if it hasn't been. Past 'MAX_RECURSION', the evaluation goes
+     * on an explicit stack as usual, see 'step'.
+     *
+     * @param depth The number of nested calls evaluating the derived Lazy.
+     * @return The computed/"cached" value.
+     */
+    @Override
+    T get(int depth) {
+      if (!this.isEvaluated) {
+        synchronized (this) {
+          if (!this.isEvaluated) {
+            super.get(depth);
+            this.isEvaluated = true;
+          }
+        }
+      } else {
+        Metrics.lazyHit();
+      }
+      // Safe to read without locking, as it was written before the volatile
+      // write to 'isEvaluated' that was read above.
+      return super.value;
+    }
+
+    /**
+     * Returns this Lazy if it has to be evaluated by 'trampoline' before the
+     * Lazys derived from it, or null if it's already evaluated.
+     *
+     * @return This Lazy if it's not evaluated, else null.
+     */
+    @Override
+    Lazy<?> asDependency() {
+      return this.isEvaluated ? null : this;
+    }
+
+    /**
+     * Evaluates this Lazy for 'trampoline' like 'Lazy.step', while holding
+     * the lock. The lock is released while the Lazys it's derived from are
+     * evaluated, so another thread may evaluate it meanwhile, in which case
+     * its value is kept.
+     *
+     * @return A Lazy to evaluate before this one, or null if this Lazy is evaluated.
+     */
+    @Override
+    Lazy<?> step() {
+      if (this.isEvaluated) {
+        return null;
+      }
+      synchronized (this) {
+        if (this.isEvaluated) {
+          return null;
+        }
+        Lazy<?> dependency = super.step();
+        if (dependency == null) {
+          this.isEvaluated = true;
+        }
+        return dependency;
+      }
+    }
+
+    /**
+     * Returns the producer that will evaluate the value, without running it,
+     * or null if the value has already been evaluated.
+     *
+     * @return The pending producer, or null if evaluated.
+     */
+    @Override
+    Producer<? extends T> pending() {
+      if (this.isEvaluated) {
+        return null;
+      }
+      synchronized (this) {
+        return super.pending();
+      }
+    }
+
+    /**
+     * Returns a new thread-safe Lazy, which evaluates its value via 'producer'.
+     *
+     * @param <U> The type of the value being wrapped.
+     * @param producer The 'Producer' that returns the evaluated value.
+     * @return The new thread-safe Lazy instance, with delayed evaluation.
+     */
+    @Override
+    <U> Lazy<U> derive(Producer<? extends U> producer) {
+      return new Concurrent<>(producer);
+    }
   }
 }
@@ -0,0 +1,47 @@
+package cs2030s.fp;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event for the evaluation of a 'Lazy' whose producer
+ * ran for longer than the threshold, or of the head or tail of an
+ * 'InfiniteList' node, which nodes evaluate in place of Lazys. The
+ * threshold is 1 ms unless configured
+ * otherwise in the recording's settings (eg. 'threshold=0 ms' in a .jfc file
+ * or 'Recording.enable("cs2030s.fp.LazyEvaluation").withThreshold(..)').
+ * As timing every evaluation is costly for cheap producers, the event is
+ * disabled even in recordings unless their settings enable it. While
+ * disabled, the JIT optimises creating the event away.
+ * CS2030S Lab 7
+ * AY21/22 Semester 2
+ */
+@Name("cs2030s.fp.LazyEvaluation")
+@Label("Lazy Evaluation")
+@Category("CS2030S")
+@Description("A Lazy whose producer, or an InfiniteList node head or tail whose function, "
+    + "ran for longer than the threshold. When the Lazy is derived via map, flatMap, filter "
+    + "or combine, the duration may include evaluating the Lazys it's derived from, and "
+    + "likewise for the nodes a node's head or tail is evaluated from.")
+@Threshold("1 ms")
+@Enabled(false)
+final class LazyEvaluationEvent extends Event {
+  /**
+   * The Lazy method that created the producer, eg. "of" or "map", or "head"
+   * or "tail" for the part of an InfiniteList node that was evaluated.
+   */
+  @Label("Operation")
+  String operation;
+
+  /**
+   * The class of the function given to that method, ie. the lambda that ran,
+   * or the function the node evaluated its head or tail with.
+   */
+  @Label("Function")
+  Class<?> function;
+}
@@ -0,0 +1,18 @@
+package cs2030s.fp;
+
+/**
+ * Represent a conditional statement on a long value that returns either true of false,
+ * without boxing the value.
+ * CS2030S Lab 7
+ * AY21/22 Semester 2
+ */
+@FunctionalInterface
+public interface LongBooleanCondition {
+  /**
+   * The functional method to test if the condition is true/false on the given value t.
+   *
+   * @param t The variable to test
+   * @return The return value of the test.
+   */
+  boolean test(long t);
+}
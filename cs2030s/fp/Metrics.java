@@ -0,0 +1,253 @@
+package cs2030s.fp;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in evaluation metrics of 'Lazy' and 'InfiniteList', enabled by
+ * starting the JVM with '-Dcs2030s.fp.metrics=true'. The counters are
+ * striped 'LongAdder's, so that threads evaluating Lazys concurrently don't
+ * contend on them. When enabled, the metrics are exposed via JMX as
+ * "cs2030s.fp:type=Metrics", as well as via 'getMXBean'.
+ *
+ * <p>As 'ENABLED' is a static final field, the JIT drops the recording
+ * calls altogether when the metrics are disabled.
+ * CS2030S Lab 7
+ * AY21/22 Semester 2
+ */
+public final class Metrics implements MetricsMXBean {
+  /** Whether the metrics are recorded, fixed by the 'cs2030s.fp.metrics' system property. */
+  static final boolean ENABLED = Boolean.getBoolean("cs2030s.fp.metrics");
+  /** The name the MXBean is registered under. */
+  private static final String OBJECT_NAME = "cs2030s.fp:type=Metrics";
+  /** The number of power-of-two buckets in the producer time histogram. */
+  private static final int BUCKETS = 40;
+  /** The only instance, which is the MXBean. */
+  private static final Metrics INSTANCE = new Metrics();
+
+  /** The number of Lazys evaluated. */
+  private final LongAdder lazyEvaluations = new LongAdder();
+  /** The number of memoised Lazy reads. */
+  private final LongAdder lazyHits = new LongAdder();
+  /** The total producer time in nanoseconds. */
+  private final LongAdder producerNanos = new LongAdder();
+  /** The producer time histogram, see 'getProducerNanosHistogram'. */
+  private final LongAdder[] producerNanosHistogram = new LongAdder[Metrics.BUCKETS];
+  /** The number of InfiniteList nodes created. */
+  private final LongAdder nodesCreated = new LongAdder();
+  /** The number of filtered-out InfiniteList elements skipped. */
+  private final LongAdder nodesSkipped = new LongAdder();
+  /** The number of InfiniteList elements materialised by terminal operations. */
+  private final LongAdder elementsMaterialised = new LongAdder();
+
+  static {
+    if (Metrics.ENABLED) {
+      Metrics.register();
+    }
+  }
+
+  /**
+   * Private constructor, as the metrics are global.
+   */
+  private Metrics() {
+    for (int i = 0; i < Metrics.BUCKETS; i++) {
+      this.producerNanosHistogram[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Returns the metrics MXBean, whose values stay zero unless the metrics
+   * are enabled.
+   *
+   * @return The metrics MXBean.
+   */
+  public static MetricsMXBean getMXBean() {
+    return Metrics.INSTANCE;
+  }
+
+  /**
+   * Registers the MXBean with the platform MBeanServer, unless it already is
+   * (eg. by another copy of this class).
+   *
+   * @throws IllegalStateException If the MXBean can't be registered.
+   */
+  private static void register() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+      if (!server.isRegistered(name)) {
+        server.registerMBean(Metrics.INSTANCE, name);
+      }
+    } catch (JMException e) {
+      throw new IllegalStateException("Cannot register " + Metrics.OBJECT_NAME, e);
+    }
+  }
+
+  /**
+   * Records the evaluation of a Lazy, if enabled.
+   */
+  static void lazyEvaluated() {
+    if (Metrics.ENABLED) {
+      Metrics.INSTANCE.lazyEvaluations.increment();
+    }
+  }
+
+  /**
+   * Records a read of an evaluated Lazy, if enabled.
+   */
+  static void lazyHit() {
+    if (Metrics.ENABLED) {
+      Metrics.INSTANCE.lazyHits.increment();
+    }
+  }
+
+  /**
+   * Records the creation of an InfiniteList node, if enabled.
+   */
+  static void nodeCreated() {
+    if (Metrics.ENABLED) {
+      Metrics.INSTANCE.nodesCreated.increment();
+    }
+  }
+
+  /**
+   * Records walking past a filtered-out InfiniteList element, if enabled.
+   */
+  static void nodeSkipped() {
+    if (Metrics.ENABLED) {
+      Metrics.INSTANCE.nodesSkipped.increment();
+    }
+  }
+
+  /**
+   * Records an InfiniteList element handed to a terminal operation, if enabled.
+   */
+  static void elementMaterialised() {
+    if (Metrics.ENABLED) {
+      Metrics.INSTANCE.elementsMaterialised.increment();
+    }
+  }
+
+  /**
+   * Runs 'producer', recording how long it took. Only called when enabled,
+   * so that the disabled path doesn't add a frame to the stack.
+   *
+   * @param <T> The type of the produced value.
+   * @param producer The producer to run.
+   * @return The produced value.
+   */
+  static <T> T timed(Producer<? extends T> producer) {
+    long start = System.nanoTime();
+    try {
+      return producer.produce();
+    } finally {
+      long nanos = System.nanoTime() - start;
+      int bucket = Math.min(Metrics.BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+      Metrics.INSTANCE.producerNanos.add(nanos);
+      Metrics.INSTANCE.producerNanosHistogram[bucket].increment();
+    }
+  }
+
+  /**
+   * Returns whether the metrics are being recorded.
+   *
+   * @return Whether the metrics are being recorded.
+   */
+  @Override
+  public boolean isEnabled() {
+    return Metrics.ENABLED;
+  }
+
+  /**
+   * Returns the number of Lazys evaluated.
+   *
+   * @return The number of Lazy evaluations.
+   */
+  @Override
+  public long getLazyEvaluations() {
+    return this.lazyEvaluations.sum();
+  }
+
+  /**
+   * Returns the number of memoised Lazy reads.
+   *
+   * @return The number of memoised Lazy reads.
+   */
+  @Override
+  public long getLazyHits() {
+    return this.lazyHits.sum();
+  }
+
+  /**
+   * Returns the total producer time.
+   *
+   * @return The total producer time in nanoseconds.
+   */
+  @Override
+  public long getProducerNanos() {
+    return this.producerNanos.sum();
+  }
+
+  /**
+   * Returns the producer time histogram.
+   *
+   * @return The producer time histogram, in power-of-two nanosecond buckets.
+   */
+  @Override
+  public long[] getProducerNanosHistogram() {
+    long[] histogram = new long[Metrics.BUCKETS];
+    for (int i = 0; i < Metrics.BUCKETS; i++) {
+      histogram[i] = this.producerNanosHistogram[i].sum();
+    }
+    return histogram;
+  }
+
+  /**
+   * Returns the number of InfiniteList nodes created.
+   *
+   * @return The number of InfiniteList nodes created.
+   */
+  @Override
+  public long getNodesCreated() {
+    return this.nodesCreated.sum();
+  }
+
+  /**
+   * Returns the number of filtered-out InfiniteList elements skipped.
+   *
+   * @return The number of filtered-out elements skipped.
+   */
+  @Override
+  public long getNodesSkipped() {
+    return this.nodesSkipped.sum();
+  }
+
+  /**
+   * Returns the number of InfiniteList elements materialised by terminal operations.
+   *
+   * @return The number of elements materialised by terminal operations.
+   */
+  @Override
+  public long getElementsMaterialised() {
+    return this.elementsMaterialised.sum();
+  }
+
+  /**
+   * Resets all the metrics to zero.
+   */
+  @Override
+  public void reset() {
+    this.lazyEvaluations.reset();
+    this.lazyHits.reset();
+    this.producerNanos.reset();
+    for (LongAdder bucket : this.producerNanosHistogram) {
+      bucket.reset();
+    }
+    this.nodesCreated.reset();
+    this.nodesSkipped.reset();
+    this.elementsMaterialised.reset();
+  }
+}
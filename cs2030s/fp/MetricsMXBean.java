@@ -0,0 +1,81 @@
+package cs2030s.fp;
+
+/**
+ * The management interface of the evaluation metrics of 'Lazy' and
+ * 'InfiniteList', registered with the platform MBeanServer as
+ * "cs2030s.fp:type=Metrics" when the 'cs2030s.fp.metrics' system property
+ * is "true". See 'Metrics'.
+ * CS2030S Lab 7
+ * AY21/22 Semester 2
+ */
+public interface MetricsMXBean {
+  /**
+   * Returns whether the metrics are being recorded, which is fixed when the
+   * JVM starts by the 'cs2030s.fp.metrics' system property.
+   *
+   * @return Whether the metrics are being recorded.
+   */
+  boolean isEnabled();
+
+  /**
+   * Returns the number of Lazys evaluated, ie. the producers ran, including
+   * the heads and tails of InfiniteList nodes evaluated by a function.
+   *
+   * @return The number of Lazy evaluations.
+   */
+  long getLazyEvaluations();
+
+  /**
+   * Returns the number of times a Lazy's value was read after it had been
+   * evaluated, ie. the memoisation hits.
+   *
+   * @return The number of memoised Lazy reads.
+   */
+  long getLazyHits();
+
+  /**
+   * Returns the total time spent running the producers given to 'Lazy.of'
+   * and 'Lazy.concurrent', and the functions evaluating InfiniteList nodes,
+   * including the Lazys and nodes they evaluate in turn.
+   *
+   * @return The total producer time in nanoseconds.
+   */
+  long getProducerNanos();
+
+  /**
+   * Returns the histogram of the producers' running times, whose element 'k'
+   * counts the producers that took from 2^(k - 1) up to 2^k - 1 nanoseconds.
+   * The last element also counts all slower producers.
+   *
+   * @return The producer time histogram, in power-of-two nanosecond buckets.
+   */
+  long[] getProducerNanosHistogram();
+
+  /**
+   * Returns the number of InfiniteList nodes created, excluding the sentinel.
+   *
+   * @return The number of InfiniteList nodes created.
+   */
+  long getNodesCreated();
+
+  /**
+   * Returns the number of filtered-out InfiniteList elements walked past by
+   * 'head', 'tail', iterators and terminal operations.
+   *
+   * @return The number of filtered-out elements skipped.
+   */
+  long getNodesSkipped();
+
+  /**
+   * Returns the number of InfiniteList elements handed to terminal
+   * operations, ie. reduced or returned by an iterator.
+   *
+   * @return The number of elements materialised by terminal operations.
+   */
+  long getElementsMaterialised();
+
+  /**
+   * Resets all the metrics to zero.
+   */
+  void reset();
+}
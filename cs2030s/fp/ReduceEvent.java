@@ -0,0 +1,35 @@
+package cs2030s.fp;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event for an 'InfiniteList' terminal operation,
+ * ie. 'reduce' or 'toList' which is implemented by it, 'parallelReduce', or
+ * 'count', which records its own event with a counting accumulator,
+ * spanning from its start to its finish. The operation is told apart by the
+ * accumulator, and by the event's stack trace. Recorded for operations that
+ * took longer than the threshold, which is 1 ms unless configured otherwise
+ * in the recording's settings.
+ * CS2030S Lab 7
+ * AY21/22 Semester 2
+ */
+@Name("cs2030s.fp.Reduce")
+@Label("InfiniteList Terminal Operation")
+@Category("CS2030S")
+@Description("An InfiniteList reduce, parallelReduce, count or toList, from its start to "
+    + "its finish.")
+@Threshold("1 ms")
+final class ReduceEvent extends Event {
+  /** The class of the function the elements were combined with. */
+  @Label("Accumulator")
+  Class<?> accumulator;
+
+  /** The number of elements reduced. */
+  @Label("Elements")
+  long elements;
+}
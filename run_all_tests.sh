@@ -38,6 +38,90 @@ header "[Compiling + Running 'Test6']"
 javac -Xlint:rawtypes,unchecked Test6.java
 java Test6 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
 
+header "[Compiling + Running 'Test7']"
+javac -Xlint:rawtypes,unchecked Test7.java
+java Test7 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test8']"
+javac -Xlint:rawtypes,unchecked Test8.java
+java Test8 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test9']"
+javac -Xlint:rawtypes,unchecked Test9.java
+java Test9 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test10']"
+javac -Xlint:rawtypes,unchecked Test10.java
+java Test10 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test11']"
+javac -Xlint:rawtypes,unchecked Test11.java
+java Test11 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test12']"
+javac -Xlint:rawtypes,unchecked Test12.java
+java Test12 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test13']"
+javac -Xlint:rawtypes,unchecked Test13.java
+java Test13 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test14']"
+javac -Xlint:rawtypes,unchecked Test14.java
+java -Xmx32m Test14 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test15']"
+javac -Xlint:rawtypes,unchecked Test15.java
+java Test15 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test16']"
+javac -Xlint:rawtypes,unchecked Test16.java
+java -Dcs2030s.fp.metrics=true Test16 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test17']"
+javac -Xlint:rawtypes,unchecked Test17.java
+java Test17 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test18']"
+javac -Xlint:rawtypes,unchecked Test18.java
+java Test18 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test19']"
+javac -Xlint:rawtypes,unchecked Test19.java
+java Test19 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test20']"
+javac -Xlint:rawtypes,unchecked Test20.java
+java Test20 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test21']"
+javac -Xlint:rawtypes,unchecked Test21.java
+java Test21 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test22']"
+javac -Xlint:rawtypes,unchecked Test22.java
+java Test22 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test23']"
+javac -Xlint:rawtypes,unchecked Test23.java
+java Test23 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test24']"
+javac -Xlint:rawtypes,unchecked Test24.java
+java Test24 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test25']"
+javac -Xlint:rawtypes,unchecked Test25.java
+java Test25 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test26']"
+javac -Xlint:rawtypes,unchecked Test26.java
+java Test26 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
+header "[Compiling + Running 'Test27']"
+javac -Xlint:rawtypes,unchecked Test27.java
+java Test27 | grep -v ok | grep -P "(^\s+[^\.]|failed)"
+
 
 # Check style
 header "[Checking styles - 'cs2030s.fp.InfiniteList']"